@@ -0,0 +1,83 @@
+package org.dockercontainerobjects.benchmarks;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import kotlin.Unit;
+import org.dockercontainerobjects.util.Archives;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Measures the creation of image build contexts, from entries held in memory and streamed from files
+ * into a temporary archive.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ArchivesBenchmark {
+
+    @Param({"1", "16"})
+    public int entries;
+
+    @Param({"1024", "1048576"})
+    public int entrySize;
+
+    private final Map<String, Object> memoryEntries = new LinkedHashMap<>();
+    private final Map<String, File> fileEntries = new LinkedHashMap<>();
+    private File directory;
+
+    @Setup
+    public void setup() throws IOException {
+        directory = Files.createTempDirectory("archives-benchmark").toFile();
+        for (int i = 0; i < entries; i++) {
+            byte[] content = new byte[entrySize];
+            ThreadLocalRandom.current().nextBytes(content);
+            File file = new File(directory, "entry" + i);
+            Files.write(file.toPath(), content);
+            memoryEntries.put("entry" + i, content);
+            fileEntries.put("entry" + i, file);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        fileEntries.values().forEach(File::delete);
+        directory.delete();
+    }
+
+    @Benchmark
+    public byte[] targzFromMemory() throws IOException {
+        return Archives.targz(memoryEntries);
+    }
+
+    @Benchmark
+    public long targzFileFromFiles() throws IOException {
+        File archive = Archives.targzFile(tar -> {
+            try {
+                for (Map.Entry<String, File> entry: fileEntries.entrySet())
+                    Archives.withStreamedEntry(tar, entry.getKey(), entry.getValue(), null);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return Unit.INSTANCE;
+        });
+        try {
+            return archive.length();
+        } finally {
+            archive.delete();
+        }
+    }
+}
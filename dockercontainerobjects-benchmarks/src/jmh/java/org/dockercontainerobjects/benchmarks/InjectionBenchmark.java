@@ -0,0 +1,93 @@
+package org.dockercontainerobjects.benchmarks;
+
+import java.net.Inet4Address;
+import java.net.Proxy;
+import java.util.concurrent.TimeUnit;
+import javax.inject.Inject;
+import org.dockercontainerobjects.ContainerObjectsEnvironment;
+import org.dockercontainerobjects.ContainerObjectsEnvironmentFactory;
+import org.dockercontainerobjects.ContainerObjectsManager;
+import org.dockercontainerobjects.annotations.ContainerAddress;
+import org.dockercontainerobjects.annotations.ContainerId;
+import org.dockercontainerobjects.annotations.RegistryImage;
+import org.dockercontainerobjects.docker.NetworkSettings;
+import org.dockercontainerobjects.docker.impl.inmemory.InMemoryDockerImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Measures the cost of injecting fields through the extensions on every lifecycle stage.
+ * Field injection is internal to the core module, so it is measured as the difference between
+ * the create/destroy cycle of a container object with injected fields and one without them.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class InjectionBenchmark {
+
+    private ContainerObjectsEnvironment env;
+    private ContainerObjectsManager manager;
+
+    @Setup
+    public void setup() {
+        env = ContainerObjectsEnvironmentFactory.newEnvironment(new InMemoryDockerImpl(), Proxy.NO_PROXY);
+        manager = env.getManager();
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        env.close();
+    }
+
+    @Benchmark
+    public Object withoutInjectedFields() {
+        PlainContainer instance = manager.create(PlainContainer.class);
+        manager.destroy(instance);
+        return instance;
+    }
+
+    @Benchmark
+    public Object withInjectedFields() {
+        InjectedContainer instance = manager.create(InjectedContainer.class);
+        manager.destroy(instance);
+        return instance;
+    }
+
+    @RegistryImage("benchmarks/plain:latest")
+    public static class PlainContainer {
+    }
+
+    @RegistryImage("benchmarks/injected:latest")
+    public static class InjectedContainer {
+
+        @Inject
+        ContainerObjectsEnvironment environment;
+
+        @Inject
+        ContainerObjectsManager manager;
+
+        @Inject
+        Proxy proxy;
+
+        @Inject
+        @ContainerId
+        String containerId;
+
+        @Inject
+        @ContainerAddress
+        Inet4Address address;
+
+        @Inject
+        @ContainerAddress
+        String hostAddress;
+
+        @Inject
+        NetworkSettings networkSettings;
+    }
+}
@@ -0,0 +1,158 @@
+package org.dockercontainerobjects.benchmarks;
+
+import java.net.Proxy;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.dockercontainerobjects.ContainerObjectsEnvironment;
+import org.dockercontainerobjects.ContainerObjectsEnvironmentFactory;
+import org.dockercontainerobjects.ContainerObjectsManager;
+import org.dockercontainerobjects.annotations.AfterContainerCreated;
+import org.dockercontainerobjects.annotations.AfterContainerRemoved;
+import org.dockercontainerobjects.annotations.AfterContainerStarted;
+import org.dockercontainerobjects.annotations.AfterContainerStopped;
+import org.dockercontainerobjects.annotations.AfterImagePrepared;
+import org.dockercontainerobjects.annotations.AfterImageReleased;
+import org.dockercontainerobjects.annotations.BeforeCreatingContainer;
+import org.dockercontainerobjects.annotations.BeforePreparingImage;
+import org.dockercontainerobjects.annotations.BeforeReleasingImage;
+import org.dockercontainerobjects.annotations.BeforeRemovingContainer;
+import org.dockercontainerobjects.annotations.BeforeStartingContainer;
+import org.dockercontainerobjects.annotations.BeforeStoppingContainer;
+import org.dockercontainerobjects.annotations.Environment;
+import org.dockercontainerobjects.annotations.EnvironmentEntry;
+import org.dockercontainerobjects.annotations.RegistryImage;
+import org.dockercontainerobjects.docker.impl.inmemory.InMemoryDockerImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Measures a full create/destroy cycle of a container object, against an in-memory docker answering
+ * every request after the given latency.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class LifecycleBenchmark {
+
+    @Param({"0", "100"})
+    public long latencyMicros;
+
+    private ContainerObjectsEnvironment env;
+    private ContainerObjectsManager manager;
+
+    @Setup
+    public void setup() {
+        env = ContainerObjectsEnvironmentFactory.newEnvironment(
+                new InMemoryDockerImpl(Duration.ofNanos(TimeUnit.MICROSECONDS.toNanos(latencyMicros))), Proxy.NO_PROXY);
+        manager = env.getManager();
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        env.close();
+    }
+
+    @Benchmark
+    public Object createAndDestroy() {
+        PlainContainer instance = manager.create(PlainContainer.class);
+        manager.destroy(instance);
+        return instance;
+    }
+
+    @Benchmark
+    public Object createAndDestroyWithListeners() {
+        ListeningContainer instance = manager.create(ListeningContainer.class);
+        manager.destroy(instance);
+        return instance;
+    }
+
+    @RegistryImage("benchmarks/plain:latest")
+    public static class PlainContainer {
+    }
+
+    @RegistryImage("benchmarks/listening:latest")
+    @EnvironmentEntry(name = "MODE", value = "benchmark")
+    public static class ListeningContainer extends ListeningContainerBase {
+
+        int events;
+
+        @Environment
+        Map<String, String> environment() {
+            return Collections.singletonMap("EVENTS", "all");
+        }
+
+        @BeforeCreatingContainer
+        void beforeCreatingContainer() {
+            events++;
+        }
+
+        @AfterContainerCreated
+        void afterContainerCreated() {
+            events++;
+        }
+
+        @BeforeStartingContainer
+        void beforeStartingContainer() {
+            events++;
+        }
+
+        @AfterContainerStarted
+        void afterContainerStarted() {
+            events++;
+        }
+
+        @BeforeStoppingContainer
+        void beforeStoppingContainer() {
+            events++;
+        }
+
+        @AfterContainerStopped
+        void afterContainerStopped() {
+            events++;
+        }
+
+        @BeforeRemovingContainer
+        void beforeRemovingContainer() {
+            events++;
+        }
+
+        @AfterContainerRemoved
+        void afterContainerRemoved() {
+            events++;
+        }
+    }
+
+    public static class ListeningContainerBase {
+
+        int imageEvents;
+
+        @BeforePreparingImage
+        void beforePreparingImage() {
+            imageEvents++;
+        }
+
+        @AfterImagePrepared
+        void afterImagePrepared() {
+            imageEvents++;
+        }
+
+        @BeforeReleasingImage
+        void beforeReleasingImage() {
+            imageEvents++;
+        }
+
+        @AfterImageReleased
+        void afterImageReleased() {
+            imageEvents++;
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package org.dockercontainerobjects.benchmarks;
+
+import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+import org.dockercontainerobjects.SpecsSupport;
+import org.dockercontainerobjects.annotations.OnLogEntry;
+import org.dockercontainerobjects.docker.ContainerLogEntryContext;
+import org.dockercontainerobjects.docker.ContainerLogSpec;
+import org.dockercontainerobjects.docker.support.AbstractContainerLogEntryContext;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Measures the delivery of a single log frame to a method annotated with {@link OnLogEntry}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class LogDeliveryBenchmark {
+
+    @Param({"onText", "onBytes", "onContext"})
+    public String receiver;
+
+    private final LoggingContainer instance = new LoggingContainer();
+    private final ContainerLogEntryContext entry = new Entry("2018-01-01 00:00:00 INFO benchmark log line\n");
+    private ContainerLogSpec spec;
+
+    @Setup
+    public void setup() {
+        Method method = null;
+        for (Method m: LoggingContainer.class.getDeclaredMethods())
+            if (m.getName().equals(receiver)) method = m;
+        spec = SpecsSupport.containerLogSpecFromMethod(method, LoggingContainer.class, instance, Instant.EPOCH);
+    }
+
+    @Benchmark
+    public Object deliver() {
+        return spec.getLogEntryHandler().invoke(entry);
+    }
+
+    public static class LoggingContainer {
+
+        long received;
+
+        @OnLogEntry
+        void onText(String text) {
+            received += text.length();
+        }
+
+        @OnLogEntry
+        void onBytes(byte[] bytes) {
+            received += bytes.length;
+        }
+
+        @OnLogEntry
+        void onContext(ContainerLogEntryContext context) {
+            received += context.getBytes().length;
+        }
+    }
+
+    private static class Entry extends AbstractContainerLogEntryContext {
+
+        private final byte[] bytes;
+
+        Entry(String text) {
+            this.bytes = text.getBytes(StandardCharsets.UTF_8);
+        }
+
+        @Override
+        public void stop() {
+        }
+
+        @Override
+        public byte[] getBytes() {
+            return bytes;
+        }
+
+        @Override
+        public boolean getFromStandardOutput() {
+            return true;
+        }
+
+        @Override
+        public boolean getFromStandardError() {
+            return false;
+        }
+    }
+}
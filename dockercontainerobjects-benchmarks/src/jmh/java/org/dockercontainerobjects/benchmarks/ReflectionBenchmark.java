@@ -0,0 +1,84 @@
+package org.dockercontainerobjects.benchmarks;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+import javax.inject.Inject;
+import org.dockercontainerobjects.annotations.AfterContainerStarted;
+import org.dockercontainerobjects.annotations.BeforeStoppingContainer;
+import org.dockercontainerobjects.annotations.ContainerId;
+import org.dockercontainerobjects.util.AnnotatedElements;
+import org.dockercontainerobjects.util.Fields;
+import org.dockercontainerobjects.util.Methods;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Measures the lookup of annotated methods and fields over a class hierarchy.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ReflectionBenchmark {
+
+    @Benchmark
+    public Collection<Method> findMethods() {
+        return Methods.findMethods(Leaf.class, AnnotatedElements.annotatedWith(AfterContainerStarted.class));
+    }
+
+    @Benchmark
+    public Collection<Field> findFields() {
+        return Fields.findFields(Leaf.class, AnnotatedElements.annotatedWith(Inject.class));
+    }
+
+    public static class Root {
+
+        @Inject
+        String rootValue;
+
+        String rootPlain;
+
+        @AfterContainerStarted
+        void rootStarted() {
+        }
+
+        void rootPlain() {
+        }
+    }
+
+    public static class Middle extends Root {
+
+        @Inject
+        @ContainerId
+        String containerId;
+
+        int middlePlain;
+
+        @BeforeStoppingContainer
+        void middleStopping() {
+        }
+
+        void middlePlain() {
+        }
+    }
+
+    public static class Leaf extends Middle {
+
+        @Inject
+        Object leafValue;
+
+        long leafPlain;
+
+        @AfterContainerStarted
+        void leafStarted() {
+        }
+
+        void leafPlain() {
+        }
+    }
+}
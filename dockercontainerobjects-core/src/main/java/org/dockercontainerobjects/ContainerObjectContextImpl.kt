@@ -23,4 +23,6 @@ internal class ContainerObjectContextImpl<T: Any>(
         internal set
     override var instance: T? = null
         internal set
+    /** whether a missing image can be pulled again, instead of having been built */
+    internal var imagePullable = false
 }
@@ -0,0 +1,27 @@
+package org.dockercontainerobjects
+
+import org.dockercontainerobjects.ContainerObjectLifecyclePhase.CONTAINER_OBJECT_CREATION
+import org.dockercontainerobjects.ContainerObjectLifecyclePhase.CONTAINER_OBJECT_DESTRUCTION
+
+/** Lifecycle operations timed by [ContainerObjectsMetrics] */
+enum class ContainerObjectLifecycleOperation(val phase: ContainerObjectLifecyclePhase) {
+
+    /** Docker image pulled from the registry  */
+    IMAGE_PULL(CONTAINER_OBJECT_CREATION),
+    /** Docker image built, including its content  */
+    IMAGE_BUILD(CONTAINER_OBJECT_CREATION),
+    /** Docker container created  */
+    CONTAINER_CREATE(CONTAINER_OBJECT_CREATION),
+    /** Docker container started  */
+    CONTAINER_START(CONTAINER_OBJECT_CREATION),
+    /** Late init container object ready, counted from the container start  */
+    CONTAINER_READY(CONTAINER_OBJECT_CREATION),
+    /** Docker container restarted, including its stop and start  */
+    CONTAINER_RESTART(CONTAINER_OBJECT_CREATION),
+    /** Docker container stopped  */
+    CONTAINER_STOP(CONTAINER_OBJECT_DESTRUCTION),
+    /** Docker container removed  */
+    CONTAINER_REMOVE(CONTAINER_OBJECT_DESTRUCTION),
+    /** Docker image removed, only when automatic removal was requested  */
+    IMAGE_REMOVE(CONTAINER_OBJECT_DESTRUCTION)
+}
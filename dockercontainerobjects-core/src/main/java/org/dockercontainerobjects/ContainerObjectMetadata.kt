@@ -0,0 +1,101 @@
+package org.dockercontainerobjects
+
+import org.dockercontainerobjects.annotations.BuildImage
+import org.dockercontainerobjects.annotations.BuildImageContent
+import org.dockercontainerobjects.annotations.BuildImageContentEntry
+import org.dockercontainerobjects.annotations.ContainerObject
+import org.dockercontainerobjects.annotations.Environment
+import org.dockercontainerobjects.annotations.EnvironmentEntry
+import org.dockercontainerobjects.annotations.OnLogEntry
+import org.dockercontainerobjects.annotations.RegistryImage
+import org.dockercontainerobjects.annotations.Teardown
+import org.dockercontainerobjects.util.MethodInvoker
+import org.dockercontainerobjects.util.debug
+import org.dockercontainerobjects.util.getAnnotation
+import org.dockercontainerobjects.util.getAnnotationsByType
+import org.dockercontainerobjects.util.invoker
+import org.dockercontainerobjects.util.isAnnotatedWith
+import org.dockercontainerobjects.util.isExpectingNoParameters
+import org.dockercontainerobjects.util.isExpectingParameterCount
+import org.dockercontainerobjects.util.isOnClass
+import org.dockercontainerobjects.util.isOnInstance
+import org.dockercontainerobjects.util.loggerFor
+import java.lang.reflect.Field
+import java.lang.reflect.Method
+import java.util.concurrent.ConcurrentHashMap
+import java.util.function.Predicate
+import javax.inject.Inject
+
+/**
+ * Reflection information about a container object class (or a class with container object fields),
+ * collected once per class and shared by all its instances.
+ */
+internal class ContainerObjectMetadata private constructor(val type: Class<*>) {
+
+    companion object {
+
+        private val l = loggerFor<ContainerObjectMetadata>()
+
+        private val metadata = object: ClassValue<ContainerObjectMetadata>() {
+            override fun computeValue(type: Class<*>) = ContainerObjectMetadata(type)
+        }
+
+        @JvmStatic
+        fun of(type: Class<*>): ContainerObjectMetadata = metadata.get(type)
+    }
+
+    private val methods: List<Method> = hierarchy().flatMap { it.declaredMethods.asList() }
+    private val fields: List<Field> = hierarchy().flatMap { it.declaredFields.asList() }
+
+    private val instanceListenerCandidates = methods.filter { it.isOnInstance && it.isExpectingNoParameters() }
+    private val lifecycleListeners: MutableMap<Class<out Annotation>, Array<MethodInvoker>> = ConcurrentHashMap()
+
+    val registryImage: RegistryImage? = type.getAnnotation<RegistryImage>()
+    val registryImageMethods: List<Method> = methodsWithoutParametersAnnotatedWith(RegistryImage::class.java)
+    val buildImage: BuildImage? = type.getAnnotation<BuildImage>()
+    val buildImageMethods: List<Method> = methodsWithoutParametersAnnotatedWith(BuildImage::class.java)
+    val buildImageContentEntries: List<BuildImageContentEntry> = type.getAnnotationsByType<BuildImageContentEntry>().asList()
+    val buildImageContentMethods: List<Method> = methodsWithoutParametersAnnotatedWith(BuildImageContent::class.java)
+    val environmentEntries: List<EnvironmentEntry> = type.getAnnotationsByType<EnvironmentEntry>().asList()
+    val environmentMethods: List<Method> = methodsWithoutParametersAnnotatedWith(Environment::class.java)
+
+    val teardown: Teardown? = type.getAnnotation<Teardown>()
+
+    val logEntryMethods: List<Method> =
+            methods.filter { it.isOnInstance && it.isExpectingParameterCount(1) && it.isAnnotatedWith<OnLogEntry>() }
+
+    val classContainerFields: List<Field> =
+            fields.filter { it.isOnClass && it.isAnnotatedWith<ContainerObject>() }
+    val instanceContainerFields: List<Field> =
+            fields.filter { it.isOnInstance && it.isAnnotatedWith<ContainerObject>() }
+
+    private val injectFields: List<Field> = fields.filter { it.isOnInstance && it.isAnnotatedWith<Inject>() }
+
+    fun lifecycleListeners(annotationType: Class<out Annotation>): Array<MethodInvoker> =
+            lifecycleListeners.computeIfAbsent(annotationType) { annotation ->
+                instanceListenerCandidates.filter { it.isAnnotatedWith(annotation) }.map { it.invoker() }.toTypedArray()
+            }
+
+    fun invokeLifecycleListeners(instance: Any, annotationType: Class<out Annotation>) {
+        lifecycleListeners(annotationType).forEach { invoker ->
+            l.debug { "Invoking method '${invoker.method}'" }
+            invoker(instance)
+        }
+    }
+
+    /** Instance fields annotated with [Inject] and accepted by the given selector */
+    fun injectFields(selector: Predicate<Field>): List<Field> = injectFields.filter { selector.test(it) }
+
+    private fun hierarchy(): List<Class<*>> {
+        val classes = mutableListOf<Class<*>>()
+        var iter: Class<*>? = type
+        while (iter !== null && iter != Any::class.java) {
+            classes += iter
+            iter = iter.superclass
+        }
+        return classes
+    }
+
+    private fun methodsWithoutParametersAnnotatedWith(annotationType: Class<out Annotation>) =
+            methods.filter { it.isExpectingNoParameters() && it.isAnnotatedWith(annotationType) }
+}
@@ -1,19 +1,17 @@
 package org.dockercontainerobjects
 
-import org.dockercontainerobjects.annotations.ContainerObject
-import org.dockercontainerobjects.util.and
-import org.dockercontainerobjects.util.annotatedWith
+import org.dockercontainerobjects.annotations.DependsOn
+import org.dockercontainerobjects.annotations.ParallelSetup
+import org.dockercontainerobjects.annotations.ParallelTeardown
 import org.dockercontainerobjects.util.debug
-import org.dockercontainerobjects.util.findFields
+import org.dockercontainerobjects.util.getAnnotation
+import org.dockercontainerobjects.util.isAnnotatedWith
 import org.dockercontainerobjects.util.isReadOnly
 import org.dockercontainerobjects.util.loggerFor
-import org.dockercontainerobjects.util.onClass
-import org.dockercontainerobjects.util.onInstance
 import org.dockercontainerobjects.util.read
 import org.dockercontainerobjects.util.update
 import java.io.IOException
 import java.lang.reflect.Field
-import java.util.function.Predicate
 import kotlin.reflect.KClass
 
 class ContainerObjectsClassEnhancerImpl(private val env: ContainerObjectsEnvironment): ContainerObjectsClassEnhancer {
@@ -33,7 +31,7 @@ class ContainerObjectsClassEnhancerImpl(private val env: ContainerObjectsEnviron
         setupContainerFields(
                 type,
                 null,
-                onClass<Field>() and annotatedWith(ContainerObject::class)
+                ContainerObjectMetadata.of(type).classContainerFields
         )
     }
 
@@ -42,7 +40,7 @@ class ContainerObjectsClassEnhancerImpl(private val env: ContainerObjectsEnviron
         setupContainerFields(
                 instance.javaClass,
                 instance,
-                onInstance<Field>() and annotatedWith(ContainerObject::class)
+                ContainerObjectMetadata.of(instance.javaClass).instanceContainerFields
         )
     }
 
@@ -51,7 +49,7 @@ class ContainerObjectsClassEnhancerImpl(private val env: ContainerObjectsEnviron
         teardownContainerFields(
                 type,
                 null,
-                onClass<Field>() and annotatedWith(ContainerObject::class)
+                ContainerObjectMetadata.of(type).classContainerFields
         )
     }
 
@@ -60,53 +58,68 @@ class ContainerObjectsClassEnhancerImpl(private val env: ContainerObjectsEnviron
         teardownContainerFields(
                 instance.javaClass,
                 instance,
-                onInstance<Field>() and annotatedWith(ContainerObject::class)
+                ContainerObjectMetadata.of(instance.javaClass).instanceContainerFields
         )
     }
 
     private fun <T: Any> setupContainerFields(
             type: Class<T>,
             instance: T?,
-            containerFieldSelector: Predicate<Field>
-    ) =
-            type.findFields(containerFieldSelector)
-                    .stream()
-                    .forEach { setupContainerField(instance, it) }
+            fields: List<Field>
+    ) {
+        fields.forEach { verifyContainerField(it) }
+        val containerInstances = env.managerImpl.createAll(
+                fields.associate { it to it.type },
+                containerFieldDependencies(fields),
+                type.isAnnotatedWith<ParallelSetup>()
+        )
+        containerInstances.forEach { field, containerInstance -> field.update(instance, containerInstance) }
+    }
 
     @Suppress("NOTHING_TO_INLINE")
     private inline fun <T: Any> KClass<T>.setupContainerFields(
             type: KClass<T>,
             instance: T?,
-            containerFieldSelector: Predicate<Field>
-    ) = setupContainerFields(type.java, instance, containerFieldSelector)
+            fields: List<Field>
+    ) = setupContainerFields(type.java, instance, fields)
 
     private fun <T: Any> teardownContainerFields(
             type: Class<T>,
             instance: T?,
-            containerFieldSelector: Predicate<Field>
-    ) =
-            type.findFields(containerFieldSelector)
-                    .stream()
-                    .forEach { teardownContainerField(instance, it) }
+            fields: List<Field>
+    ) {
+        val containerInstances = fields.associate { it to (it.read(instance) ?: throw IllegalStateException()) }
+        try {
+            env.managerImpl.destroyAll(
+                    containerInstances,
+                    containerFieldDependencies(fields),
+                    type.isAnnotatedWith<ParallelTeardown>()
+            )
+        } finally {
+            fields.forEach { it.update(instance, null) }
+        }
+    }
 
     @Suppress("NOTHING_TO_INLINE")
     inline private fun <T: Any> teardownContainerFields(
             type: KClass<T>,
             instance: T?,
-            containerFieldSelector: Predicate<Field>
-    ) = teardownContainerFields(type.java, instance, containerFieldSelector)
+            fields: List<Field>
+    ) = teardownContainerFields(type.java, instance, fields)
 
-    private fun setupContainerField(instance: Any?, field: Field) {
+    private fun verifyContainerField(field: Field) {
         if (field.isReadOnly)
             throw IllegalArgumentException(
                     "Cannot inject container in final field '${field.name}'")
-        val containerInstance = env.manager.create(field.type)
-        field.update(instance, containerInstance)
     }
 
-    private fun teardownContainerField(instance: Any?, field: Field) {
-        val containerInstance = field.read(instance) ?: throw IllegalStateException()
-        env.manager.destroy(containerInstance)
-        field.update(instance, null)
+    private fun containerFieldDependencies(fields: Collection<Field>): Map<Field, Collection<Field>> {
+        val fieldsByName = fields.reversed().associateBy { it.name }
+        return fields.associate { field ->
+            field to field.getAnnotation<DependsOn>()?.value.orEmpty().map {
+                fieldsByName[it] ?: throw IllegalArgumentException(
+                        "Container field '${field.name}' depends on '$it', which is not a container field")
+            }
+        }
     }
 }
@@ -1,16 +1,24 @@
 package org.dockercontainerobjects
 
 import org.dockercontainerobjects.docker.Docker
+import org.dockercontainerobjects.docker.ImageId
+import org.dockercontainerobjects.docker.ImageLocator
+import org.dockercontainerobjects.support.ReadinessProber
+import org.dockercontainerobjects.support.LateInitContainerObject
 import org.dockercontainerobjects.util.debug
+import org.dockercontainerobjects.util.info
 import org.dockercontainerobjects.util.loggerFor
 import java.io.IOException
 import java.net.Proxy
 import java.net.URL
 import java.net.URLConnection
+import java.time.Duration
+import java.util.concurrent.CompletableFuture
 import java.util.concurrent.ConcurrentHashMap
-import java.util.concurrent.Executors
 import java.util.concurrent.ScheduledExecutorService
+import java.util.concurrent.ScheduledThreadPoolExecutor
 import java.util.concurrent.ThreadFactory
+import java.util.concurrent.TimeUnit
 import java.util.concurrent.atomic.AtomicInteger
 
 class ContainerObjectsEnvironment(
@@ -18,10 +26,28 @@ class ContainerObjectsEnvironment(
         val dockerNetworkProxy: Proxy,
         executorService: ScheduledExecutorService?): AutoCloseable {
 
-    val manager: ContainerObjectsManager = ContainerObjectsManagerImpl(this)
+    internal val managerImpl = ContainerObjectsManagerImpl(this)
+
+    val manager: ContainerObjectsManager get() = managerImpl
 
     val enhancer: ContainerObjectsClassEnhancer = ContainerObjectsClassEnhancerImpl(this)
 
+    val metrics = ContainerObjectsMetrics()
+
+    /** how containers are torn down, unless their class is annotated with a different one */
+    var teardownPolicy: TeardownPolicy =
+            System.getProperty(PROPERTY_TEARDOWN_POLICY)?.let { TeardownPolicy.valueOf(it.toUpperCase()) } ?: TeardownPolicy.GRACEFUL
+
+    /** how long a graceful stop waits before killing the container, the docker daemon default when `null` */
+    var stopTimeout: Duration? =
+            System.getProperty(PROPERTY_STOP_TIMEOUT_SECONDS)?.let { Duration.ofSeconds(it.toLong()) }
+
+    /** readiness checks allowed to run at the same time for all the container objects of the environment */
+    var maxConcurrentReadinessChecks: Int =
+            System.getProperty(PROPERTY_MAX_CONCURRENT_READINESS_CHECKS)?.toInt() ?: DEFAULT_MAX_CONCURRENT_READINESS_CHECKS
+
+    private val readinessChecksInFlight = AtomicInteger()
+
     private var executorInternallyManaged: Boolean
     private var executorInternal: ScheduledExecutorService?
 
@@ -31,17 +57,32 @@ class ContainerObjectsEnvironment(
     }
 
     val executor: ScheduledExecutorService
-            get() {
+            @Synchronized get() {
                 if (executorInternal == null) {
                     executorInternallyManaged = true
-                    executorInternal = Executors.newScheduledThreadPool(
-                            Runtime.getRuntime().availableProcessors(), EnvironmentThreadFactory)
+                    // tasks mostly block on docker calls, so the pool is not sized after the processors
+                    val threads = System.getProperty(PROPERTY_EXECUTOR_THREADS)?.toInt() ?:
+                            maxOf(DEFAULT_EXECUTOR_THREADS, Runtime.getRuntime().availableProcessors())
+                    executorInternal = ScheduledThreadPoolExecutor(threads, EnvironmentThreadFactory).apply {
+                        setKeepAliveTime(EXECUTOR_KEEP_ALIVE_SECONDS, TimeUnit.SECONDS)
+                        allowCoreThreadTimeOut(true)
+                    }
                 }
                 return executorInternal!!
             }
 
+    private var proberInternal: ReadinessProber? = null
+
+    /** shared by the readiness checks of all the container objects of the environment */
+    val prober: ReadinessProber
+            @Synchronized get() =
+                proberInternal ?: ReadinessProber(dockerNetworkProxy, executor).also { proberInternal = it }
+
     private val containers: MutableMap<Any, ContainerObjectContext<*>> = ConcurrentHashMap()
 
+    // images known to be present in docker, either verified, pulled or built by this environment
+    private val availableImages: MutableSet<ImageLocator> = ConcurrentHashMap.newKeySet()
+
     init {
         ExtensionManager.setupEnvironment(this)
     }
@@ -50,7 +91,10 @@ class ContainerObjectsEnvironment(
 
     @Throws(IOException::class)
     override fun close() {
+        managerImpl.pool.close()
+        if (metrics.summaryOnClose) l.info { metrics.summary() }
         ExtensionManager.teardownEnvironment(this)
+        synchronized(this) { proberInternal?.close() }
         docker.close()
         if (executorInternallyManaged)
             executorInternal!!.shutdown()
@@ -59,6 +103,67 @@ class ContainerObjectsEnvironment(
     @Throws(IOException::class)
     fun openOnDockerNetwork(url: URL): URLConnection = url.openConnection(dockerNetworkProxy)
 
+    val containerObjectsCount: Int get() = containers.size
+
+    /** completes once all the late init container objects of the environment are ready */
+    fun allReady() = allReady(containers.keys.filterIsInstance<LateInitContainerObject>())
+
+    fun allReady(vararg containers: LateInitContainerObject) = allReady(containers.asList())
+
+    /** completes once all the given container objects are ready, or exceptionally as soon as one of them fails */
+    fun allReady(containers: Collection<LateInitContainerObject>): CompletableFuture<Void?> {
+        val futures = containers.map { it.readyFuture() }
+        val all = CompletableFuture.allOf(*futures.toTypedArray())
+        futures.forEach { it.whenComplete { _, e -> if (e !== null) all.completeExceptionally(e) } }
+        return all
+    }
+
+    fun anyReady(vararg containers: LateInitContainerObject) = anyReady(containers.asList())
+
+    /** completes with the first of the given container objects to be ready, or exceptionally if all of them fail */
+    fun anyReady(containers: Collection<LateInitContainerObject>): CompletableFuture<LateInitContainerObject> {
+        val any = CompletableFuture<LateInitContainerObject>()
+        if (containers.isEmpty()) any.completeExceptionally(IllegalArgumentException("No container objects to wait for"))
+        val pending = AtomicInteger(containers.size)
+        containers.forEach { container ->
+            container.readyFuture().whenComplete { _, e ->
+                if (e === null) any.complete(container)
+                else if (pending.decrementAndGet() == 0) any.completeExceptionally(e)
+            }
+        }
+        return any
+    }
+
+    internal fun tryStartReadinessCheck(): Boolean {
+        while (true) {
+            val current = readinessChecksInFlight.get()
+            if (current >= maxConcurrentReadinessChecks) return false
+            if (readinessChecksInFlight.compareAndSet(current, current + 1)) return true
+        }
+    }
+
+    internal fun readinessCheckDone() {
+        readinessChecksInFlight.decrementAndGet()
+    }
+
+    internal fun isImageAvailable(image: ImageLocator): Boolean {
+        if (image in availableImages) return true
+        val available = docker.images.isAvailable(image)
+        if (available) availableImages += image
+        return available
+    }
+
+    internal fun isImageKnown(image: ImageLocator) = image in availableImages
+
+    internal fun imageAvailable(image: ImageLocator) {
+        availableImages += image
+    }
+
+    internal fun imageRemoved(image: ImageLocator) {
+        // an image id may be cached under any of its names, forget them all
+        if (image is ImageId) availableImages.clear() else availableImages -= image
+    }
+
     internal fun registerContainerObject(ctx: ContainerObjectContext<*>) {
         if (ctx.environment !== this)
             throw IllegalArgumentException("Container object belongs to a diferent environment")
@@ -99,6 +204,16 @@ class ContainerObjectsEnvironment(
     }
 
     companion object {
+        const val PROPERTY_TEARDOWN_POLICY = "org.dockercontainerobjects.teardown.policy"
+        const val PROPERTY_STOP_TIMEOUT_SECONDS = "org.dockercontainerobjects.teardown.stopTimeoutSeconds"
+        const val PROPERTY_MAX_CONCURRENT_READINESS_CHECKS = "org.dockercontainerobjects.readiness.maxConcurrentChecks"
+        const val PROPERTY_EXECUTOR_THREADS = "org.dockercontainerobjects.executor.threads"
+
+        const val DEFAULT_MAX_CONCURRENT_READINESS_CHECKS = 8
+        const val DEFAULT_EXECUTOR_THREADS = 16
+
+        private const val EXECUTOR_KEEP_ALIVE_SECONDS = 60L
+
         private val l = loggerFor<ContainerObjectsEnvironment>()
 
         @JvmField internal val threadCounter = AtomicInteger()
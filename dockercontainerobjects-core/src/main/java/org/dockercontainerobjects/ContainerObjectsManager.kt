@@ -4,6 +4,7 @@ import org.dockercontainerobjects.docker.Addresses
 import org.dockercontainerobjects.docker.ContainerLocator
 import org.dockercontainerobjects.docker.NetworkSettings
 import java.net.InetAddress
+import java.util.concurrent.CompletableFuture
 
 interface ContainerObjectsManager: AutoCloseable {
 
@@ -17,6 +18,8 @@ interface ContainerObjectsManager: AutoCloseable {
         const val SCHEME_HTTPS = "https"
 
         const val DOCKERFILE_DEFAULT_NAME = "Dockerfile"
+
+        const val IMAGE_LABEL_CONTENT_HASH = "org.dockercontainerobjects.content-hash"
     }
 
     enum class ContainerStatus {
@@ -27,6 +30,10 @@ interface ContainerObjectsManager: AutoCloseable {
     fun <T: Any> destroy(containerInstance: T)
     fun <T: Any> restart(containerInstance: T)
 
+    fun <T: Any> createAsync(containerType: Class<T>): CompletableFuture<T>
+    fun <T: Any> destroyAsync(containerInstance: T): CompletableFuture<Void>
+    fun <T: Any> restartAsync(containerInstance: T): CompletableFuture<Void>
+
     fun getContainerId(containerInstance: Any): ContainerLocator?
     fun getContainerStatus(containerInstance: Any): ContainerStatus
     fun isContainerRunning(containerInstance: Any): Boolean =
@@ -1,5 +1,14 @@
 package org.dockercontainerobjects
 
+import org.dockercontainerobjects.ContainerObjectLifecycleOperation.CONTAINER_CREATE
+import org.dockercontainerobjects.ContainerObjectLifecycleOperation.CONTAINER_READY
+import org.dockercontainerobjects.ContainerObjectLifecycleOperation.CONTAINER_REMOVE
+import org.dockercontainerobjects.ContainerObjectLifecycleOperation.CONTAINER_RESTART
+import org.dockercontainerobjects.ContainerObjectLifecycleOperation.CONTAINER_START
+import org.dockercontainerobjects.ContainerObjectLifecycleOperation.CONTAINER_STOP
+import org.dockercontainerobjects.ContainerObjectLifecycleOperation.IMAGE_BUILD
+import org.dockercontainerobjects.ContainerObjectLifecycleOperation.IMAGE_PULL
+import org.dockercontainerobjects.ContainerObjectLifecycleOperation.IMAGE_REMOVE
 import org.dockercontainerobjects.ContainerObjectLifecycleStage.CONTAINER_CREATED
 import org.dockercontainerobjects.ContainerObjectLifecycleStage.CONTAINER_REMOVED
 import org.dockercontainerobjects.ContainerObjectLifecycleStage.CONTAINER_STARTED
@@ -9,14 +18,19 @@ import org.dockercontainerobjects.ContainerObjectLifecycleStage.IMAGE_RELEASED
 import org.dockercontainerobjects.ContainerObjectLifecycleStage.INSTANCE_CREATED
 import org.dockercontainerobjects.ContainerObjectLifecycleStage.INSTANCE_DISCARDED
 import org.dockercontainerobjects.ContainerObjectsManager.Companion.DOCKERFILE_DEFAULT_NAME
+import org.dockercontainerobjects.ContainerObjectsManager.Companion.IMAGE_LABEL_CONTENT_HASH
 import org.dockercontainerobjects.ContainerObjectsManager.Companion.IMAGE_TAG_DYNAMIC_PLACEHOLDER
 import org.dockercontainerobjects.ContainerObjectsManager.Companion.SCHEME_CLASSPATH
 import org.dockercontainerobjects.ContainerObjectsManager.Companion.SCHEME_FILE
 import org.dockercontainerobjects.ContainerObjectsManager.Companion.SCHEME_HTTP
 import org.dockercontainerobjects.ContainerObjectsManager.Companion.SCHEME_HTTPS
+import org.dockercontainerobjects.TeardownPolicy.FORCE_REMOVE
+import org.dockercontainerobjects.TeardownPolicy.GRACEFUL
+import org.dockercontainerobjects.TeardownPolicy.KILL
 import org.dockercontainerobjects.annotations.AfterContainerCreated
 import org.dockercontainerobjects.annotations.AfterContainerRemoved
 import org.dockercontainerobjects.annotations.AfterContainerRestarted
+import org.dockercontainerobjects.annotations.AfterContainerReused
 import org.dockercontainerobjects.annotations.AfterContainerStarted
 import org.dockercontainerobjects.annotations.AfterContainerStopped
 import org.dockercontainerobjects.annotations.AfterImageBuilt
@@ -32,48 +46,44 @@ import org.dockercontainerobjects.annotations.BeforeRemovingImage
 import org.dockercontainerobjects.annotations.BeforeRestartingContainer
 import org.dockercontainerobjects.annotations.BeforeStartingContainer
 import org.dockercontainerobjects.annotations.BeforeStoppingContainer
-import org.dockercontainerobjects.annotations.BuildImage
-import org.dockercontainerobjects.annotations.BuildImageContent
-import org.dockercontainerobjects.annotations.BuildImageContentEntry
-import org.dockercontainerobjects.annotations.Environment
-import org.dockercontainerobjects.annotations.EnvironmentEntry
-import org.dockercontainerobjects.annotations.OnLogEntry
-import org.dockercontainerobjects.annotations.RegistryImage
 import org.dockercontainerobjects.docker.Addresses
 import org.dockercontainerobjects.docker.ContainerLocator
 import org.dockercontainerobjects.docker.ContainerSpec
 import org.dockercontainerobjects.docker.ContainerStatus.CREATED
 import org.dockercontainerobjects.docker.ContainerStatus.EXITED
 import org.dockercontainerobjects.docker.ContainerStatus.RUNNING
+import org.dockercontainerobjects.docker.ImageLocator
 import org.dockercontainerobjects.docker.ImageName
 import org.dockercontainerobjects.docker.ImageNotFoundException
 import org.dockercontainerobjects.docker.ImageSpec
 import org.dockercontainerobjects.docker.NetworkSettings
-import org.dockercontainerobjects.util.and
-import org.dockercontainerobjects.util.annotatedWith
+import org.dockercontainerobjects.support.AbstractLateInitContainerObject
 import org.dockercontainerobjects.util.call
 import org.dockercontainerobjects.util.debug
-import org.dockercontainerobjects.util.expectingNoParameters
-import org.dockercontainerobjects.util.expectingParameterCount
-import org.dockercontainerobjects.util.findMethods
-import org.dockercontainerobjects.util.getAnnotation
-import org.dockercontainerobjects.util.getAnnotationsByType
 import org.dockercontainerobjects.util.instantiate
-import org.dockercontainerobjects.util.invokeInstanceMethods
 import org.dockercontainerobjects.util.isOfReturnType
 import org.dockercontainerobjects.util.loggerFor
-import org.dockercontainerobjects.util.onInstance
+import org.dockercontainerobjects.util.hex
+import org.dockercontainerobjects.util.sha256Digest
+import org.dockercontainerobjects.util.sortedTopologically
 import org.dockercontainerobjects.util.stream
-import org.dockercontainerobjects.util.targz
+import org.dockercontainerobjects.util.targzFile
 import org.dockercontainerobjects.util.toSnakeCase
-import org.dockercontainerobjects.util.withEntry
+import org.dockercontainerobjects.util.treeSha256
+import org.dockercontainerobjects.util.withStreamedEntry
 import java.io.File
+import java.io.FileInputStream
 import java.io.IOException
-import java.lang.reflect.Method
 import java.net.URI
+import java.time.Duration
 import java.time.Instant
+import java.util.Collections
+import java.util.IdentityHashMap
 import java.util.UUID
-import java.util.stream.Collectors
+import java.util.concurrent.CompletableFuture
+import java.util.concurrent.CompletionException
+import java.util.function.Function
+import java.util.function.Supplier
 
 class ContainerObjectsManagerImpl(private val env: ContainerObjectsEnvironment): ContainerObjectsManager {
 
@@ -106,16 +116,11 @@ class ContainerObjectsManagerImpl(private val env: ContainerObjectsEnvironment):
             containerInstance.invokeContainerLifecycleListeners<BeforePreparingImage>()
             l.debug { "preparing image for container class '${containerType.simpleName}'" }
             // check for image from annotation or method
-            val registryImageAnnotation = containerType.getAnnotation<RegistryImage>()
-            val registryImageMethods = containerType.findMethods(
-                        expectingNoParameters() and annotatedWith(RegistryImage::class))
-                    .stream()
-                    .collect(Collectors.toList())
-            val buildImageAnnotation = containerType.getAnnotation<BuildImage>()
-            val buildImageMethods = containerType.findMethods(
-                        expectingNoParameters() and annotatedWith(BuildImage::class))
-                    .stream()
-                    .collect(Collectors.toList())
+            val metadata = ContainerObjectMetadata.of(containerType)
+            val registryImageAnnotation = metadata.registryImage
+            val registryImageMethods = metadata.registryImageMethods
+            val buildImageAnnotation = metadata.buildImage
+            val buildImageMethods = metadata.buildImageMethods
             var imageDefinitionOptions = 0
             if (registryImageAnnotation !== null) imageDefinitionOptions++
             imageDefinitionOptions += registryImageMethods.size
@@ -140,21 +145,12 @@ class ContainerObjectsManagerImpl(private val env: ContainerObjectsEnvironment):
                     else -> throw IllegalStateException() // we would have failed earlier
                 }
 
-                if (imageConfig.tag.isEmpty()) {
-                    imageConfig.tag = defaultImageTag(containerType)
-                }
-                if (imageConfig.tag.contains(IMAGE_TAG_DYNAMIC_PLACEHOLDER)) {
-                    imageConfig.tag = imageConfig.tag.replace(IMAGE_TAG_DYNAMIC_PLACEHOLDER, UUID.randomUUID().toString())
-                }
-                imageConfig.tag = imageConfig.tag.toLowerCase()
                 val content = mutableMapOf<String, Any>()
-                containerType.getAnnotationsByType<BuildImageContentEntry>().stream().forEach {
+                metadata.buildImageContentEntries.forEach {
                     l.debug { "Adding entry name '${it.name}' with content '${it.value}'" }
                     content.put(it.name, it.value.normalize(containerType))
                 }
-                containerType.findMethods(
-                            expectingNoParameters() and annotatedWith(BuildImageContent::class))
-                        .stream()
+                metadata.buildImageContentMethods
                         .forEach {
                             if (!it.isOfReturnType<Map<String, Any>>())
                                 throw IllegalArgumentException (
@@ -164,37 +160,22 @@ class ContainerObjectsManagerImpl(private val env: ContainerObjectsEnvironment):
                             if (newContent !== null) content.putAll(newContent)
                         }
 
-                l.debug { "image for container class '${containerType.simpleName}' will be build and tagged as '${imageConfig.tag}'"  }
-                val image = ImageName(imageConfig.tag)
-                val specs =
-                        imageConfig.ref.let {
-                            when (it) {
-                                is File -> ImageSpec(if (it.isDirectory()) File(it, DOCKERFILE_DEFAULT_NAME) else it)
-                                else -> ImageSpec(buildDockerImageContent(it, content, containerType))
-                            }
-                        }
-                        .withTag(image)
-                        .withPull(imageConfig.forcePull)
-                val generatedImageId = ctx.environment.docker.images.build(specs)
-                l.debug { "image for container class '${containerType.simpleName}' built with id '$generatedImageId' and tagged as '${imageConfig.tag}'" }
-                containerConfig = ContainerConfiguration(
-                        spec = ContainerSpec(image),
-                        autoRemove = true,
-                        forcePull = false
-                )
+                containerConfig = ctx.timed(IMAGE_BUILD) { buildImage(ctx.environment, containerType, imageConfig, content) }
                 imageBuilt = true
                 containerInstance.invokeContainerLifecycleListeners<AfterImageBuilt>()
             }
 
             val imagePresent =
                     imageBuilt ||
-                            ctx.environment.docker.images.isAvailable(containerConfig.spec.image)
+                            ctx.environment.isImageAvailable(containerConfig.spec.image)
             if (imagePresent && !imageBuilt) containerConfig.autoRemove = false
             if (containerConfig.forcePull || !imagePresent) {
-                ctx.environment.docker.images.pull(containerConfig.spec.image as ImageName)
+                ctx.timed(IMAGE_PULL) { ctx.environment.docker.images.pull(containerConfig.spec.image as ImageName) }
             }
+            ctx.environment.imageAvailable(containerConfig.spec.image)
 
             ctx.image = containerConfig.spec.image
+            ctx.imagePullable = !imageBuilt && containerConfig.spec.image is ImageName
             ctx.autoRemoveImage = containerConfig.autoRemove
             ctx.stage = IMAGE_PREPARED
             containerInstance.invokeContainerLifecycleListeners<AfterImagePrepared>()
@@ -207,7 +188,18 @@ class ContainerObjectsManagerImpl(private val env: ContainerObjectsEnvironment):
 
             val containerEnvironment = collectContainerEnvironmentVariables(containerInstance)
             val spec = ContainerSpec(containerImageId).withEnvironmentVariables(containerEnvironment)
-            ctx.container = ctx.environment.docker.containers.create(spec)
+            ctx.container =
+                    try {
+                        ctx.timed(CONTAINER_CREATE) { ctx.environment.docker.containers.create(spec) }
+                    } catch (e: ImageNotFoundException) {
+                        // the image was known to be available, but was removed since then without the environment knowing
+                        ctx.environment.imageRemoved(containerImageId)
+                        if (!ctx.imagePullable) throw e
+                        l.debug { "image '$containerImageId' is gone, pulling it again" }
+                        ctx.timed(IMAGE_PULL) { ctx.environment.docker.images.pull(containerImageId as ImageName) }
+                        ctx.environment.imageAvailable(containerImageId)
+                        ctx.timed(CONTAINER_CREATE) { ctx.environment.docker.containers.create(spec) }
+                    }
 
             ctx.stage = CONTAINER_CREATED
             containerInstance.invokeContainerLifecycleListeners<AfterContainerCreated>()
@@ -215,11 +207,12 @@ class ContainerObjectsManagerImpl(private val env: ContainerObjectsEnvironment):
 
         private fun collectContainerEnvironmentVariables(containerInstance: Any): Map<String, String> {
             val containerType = containerInstance.javaClass
+            val metadata = ContainerObjectMetadata.of(containerType)
 
             val environment = mutableMapOf<String, String>()
             // check for environment defined as class annotations
             environment +=
-                    containerType.getAnnotationsByType<EnvironmentEntry>()
+                    metadata.environmentEntries
                             .map {
                                 if (it.name.isEmpty()) {
                                     it.value.substringBefore('=') to it.value.substringAfter('=', "")
@@ -228,7 +221,7 @@ class ContainerObjectsManagerImpl(private val env: ContainerObjectsEnvironment):
                                 }
                             }.toMap()
             // check for environment defined as methods
-            containerType.findMethods(expectingNoParameters() and annotatedWith<Method>(Environment::class))
+            metadata.environmentMethods
                     .forEach {
                         if (!it.isOfReturnType<Map<String, String>>()) {
                             throw IllegalArgumentException(
@@ -249,21 +242,40 @@ class ContainerObjectsManagerImpl(private val env: ContainerObjectsEnvironment):
 
             containerInstance.invokeContainerLifecycleListeners<BeforeStartingContainer>()
             val start = Instant.now()
-            ctx.environment.docker.containers.start(currContainerId)
-            val info = ctx.environment.docker.containers.inspect(currContainerId)
+            val info = ctx.timed(CONTAINER_START) {
+                ctx.environment.docker.containers.start(currContainerId)
+                ctx.environment.docker.containers.inspect(currContainerId)
+            }
 
             ctx.networkSettings = info.network
+            if (containerInstance is AbstractLateInitContainerObject && !containerInstance.isReady) {
+                val started = System.nanoTime()
+                containerInstance.whenReady { ctx.environment.metrics.record(ctx.type, CONTAINER_READY, System.nanoTime() - started) }
+            }
             ctx.stage = CONTAINER_STARTED
             containerInstance.invokeContainerLifecycleListeners<AfterContainerStarted>()
             registerContainerLogReceivers(ctx, start)
         }
 
-        private fun <T: Any> stopContainer(ctx: ContainerObjectContextImpl<T>) {
+        private fun <T: Any> stopContainer(ctx: ContainerObjectContextImpl<T>, policy: TeardownPolicy = ctx.teardownPolicy()) {
             val containerInstance = ctx.instance ?: throw IllegalStateException()
             val currContainerId = ctx.container ?: throw IllegalStateException()
 
             containerInstance.invokeContainerLifecycleListeners<BeforeStoppingContainer>()
-            ctx.environment.docker.containers.stop(currContainerId)
+            ctx.timed(CONTAINER_STOP) {
+                when (policy) {
+                    GRACEFUL -> {
+                        val timeout = ctx.stopTimeout()
+                        if (timeout !== null)
+                            ctx.environment.docker.containers.stop(currContainerId, timeout)
+                        else
+                            ctx.environment.docker.containers.stop(currContainerId)
+                    }
+                    KILL -> ctx.environment.docker.containers.kill(currContainerId)
+                    // the forced removal stops the container, stop listeners are called while it is still running
+                    FORCE_REMOVE -> l.debug { "container '$currContainerId' will be stopped by its removal" }
+                }
+            }
 
             ctx.stage = CONTAINER_STOPPED
             containerInstance.invokeContainerLifecycleListeners<AfterContainerStopped>()
@@ -273,8 +285,11 @@ class ContainerObjectsManagerImpl(private val env: ContainerObjectsEnvironment):
             val containerInstance = ctx.instance ?: throw IllegalStateException()
 
             containerInstance.invokeContainerLifecycleListeners<BeforeRestartingContainer>()
-            stopContainer(ctx)
-            startContainer(ctx)
+            ctx.timed(CONTAINER_RESTART) {
+                // the container must be stopped to start it again
+                stopContainer(ctx, ctx.teardownPolicy().let { if (it == FORCE_REMOVE) KILL else it })
+                startContainer(ctx)
+            }
             containerInstance.invokeContainerLifecycleListeners<AfterContainerRestarted>()
         }
 
@@ -283,7 +298,11 @@ class ContainerObjectsManagerImpl(private val env: ContainerObjectsEnvironment):
             val currContainerId = ctx.container ?: throw IllegalStateException()
 
             containerInstance.invokeContainerLifecycleListeners<BeforeRemovingContainer>()
-            ctx.environment.docker.containers.remove(currContainerId)
+            val policy = ctx.teardownPolicy()
+            ctx.timed(CONTAINER_REMOVE) {
+                ctx.environment.docker.containers.remove(
+                        currContainerId, force = policy != GRACEFUL, removeVolumes = policy == FORCE_REMOVE)
+            }
 
             ctx.stage = CONTAINER_REMOVED
             containerInstance.invokeContainerLifecycleListeners<AfterContainerRemoved>()
@@ -298,7 +317,8 @@ class ContainerObjectsManagerImpl(private val env: ContainerObjectsEnvironment):
             if (ctx.autoRemoveImage == true) { // verifies for not null and true in one go
                 try {
                     containerInstance.invokeContainerLifecycleListeners<BeforeRemovingImage>()
-                    ctx.environment.docker.images.remove(currImageId)
+                    ctx.environment.imageRemoved(currImageId)
+                    ctx.timed(IMAGE_REMOVE) { ctx.environment.docker.images.remove(currImageId) }
                     containerInstance.invokeContainerLifecycleListeners<AfterImageRemoved>()
                 } catch (e: ImageNotFoundException) {
                     // if the image is already removed, log and ignore
@@ -321,34 +341,132 @@ class ContainerObjectsManagerImpl(private val env: ContainerObjectsEnvironment):
             ctx.stage = INSTANCE_DISCARDED
         }
 
+        private fun ContainerObjectContextImpl<*>.teardownPolicy() =
+                ContainerObjectMetadata.of(type).teardown?.policy ?: environment.teardownPolicy
+
+        private fun ContainerObjectContextImpl<*>.stopTimeout(): Duration? {
+            val seconds = ContainerObjectMetadata.of(type).teardown?.stopTimeoutSeconds ?: -1
+            return if (seconds >= 0) Duration.ofSeconds(seconds.toLong()) else environment.stopTimeout
+        }
+
+        private inline fun <R> ContainerObjectContextImpl<*>.timed(operation: ContainerObjectLifecycleOperation, block: () -> R): R {
+            val start = System.nanoTime()
+            val result = block()
+            environment.metrics.record(type, operation, System.nanoTime() - start)
+            return result
+        }
+
         private fun <T: Any> registerContainerLogReceivers(ctx: ContainerObjectContextImpl<T>, since: Instant) {
             val containerInstance = ctx.instance ?: throw IllegalStateException()
             val currContainerId = ctx.container ?: throw IllegalStateException()
 
             val type = containerInstance.javaClass
-            type.findMethods(
-                        onInstance<Method>() and expectingParameterCount(1) and annotatedWith(OnLogEntry::class))
+            ContainerObjectMetadata.of(type).logEntryMethods
                     .forEach { method ->
                         val spec = containerLogSpecFromMethod(method, type, containerInstance, since)
+                        val handler = spec.logEntryHandler
+                        val metrics = ctx.environment.metrics
+                        spec.onLogEntry {
+                            handler(it)
+                            metrics.logEntryDelivered(type)
+                        }
                         ctx.environment.docker.containers.logs(currContainerId, spec)
                     }
         }
 
         private fun Any.invokeContainerLifecycleListeners(annotationType: Class<out Annotation>) {
             l.debug { "Invoking life-cycle event '${annotationType.simpleName}'" }
-            invokeInstanceMethods<Any, Any, Any, Any>(
-                    onInstance<Method>() and expectingNoParameters() and annotatedWith<Method>(annotationType))
+            ContainerObjectMetadata.of(javaClass).invokeLifecycleListeners(this, annotationType)
         }
 
         inline private fun <reified A: Annotation> Any.invokeContainerLifecycleListeners() =
             invokeContainerLifecycleListeners(A::class.java)
 
         @Throws(IOException::class)
-        private fun buildDockerImageContent(dockerfile: Any, entries: Map<String, Any>?, containerType: Class<*>) =
-            targz {
-                it.withEntry(DOCKERFILE_DEFAULT_NAME, dockerfile.normalize(containerType))
-                entries?.forEach { k, v -> it.withEntry(k, v.normalize(containerType)) }
+        private fun buildImage(
+                env: ContainerObjectsEnvironment,
+                containerType: Class<*>,
+                imageConfig: ImageConfiguration,
+                content: Map<String, Any>
+        ): ContainerConfiguration {
+            val ref = imageConfig.ref
+            val dockerfile = if (ref is File && ref.isDirectory()) File(ref, DOCKERFILE_DEFAULT_NAME) else ref
+            // the build context is streamed into a temporary file, hashing it on the way
+            val archive = if (dockerfile !is File) dockerImageContent(dockerfile, content, containerType) else null
+            try {
+                val contentHash =
+                        when {
+                            !imageConfig.cached -> null
+                            archive !== null -> archive.hash
+                            else -> (dockerfile as File).absoluteFile.parentFile.treeSha256()
+                        }
+
+                if (imageConfig.tag.isEmpty()) {
+                    imageConfig.tag = defaultImageTag(containerType)
+                }
+                // a tag declared without the placeholder is kept as it is, the content hash is still in the label
+                val hashTagged = imageConfig.tag.contains(IMAGE_TAG_DYNAMIC_PLACEHOLDER)
+                if (hashTagged) {
+                    imageConfig.tag = imageConfig.tag.replace(
+                            IMAGE_TAG_DYNAMIC_PLACEHOLDER, contentHash ?: UUID.randomUUID().toString())
+                }
+                imageConfig.tag = imageConfig.tag.toLowerCase()
+                val image = ImageName(imageConfig.tag)
+
+                val cachedImage = contentHash?.let { findCachedImage(env, image, it, hashTagged) }
+                if (cachedImage !== null) {
+                    l.debug { "image for container class '${containerType.simpleName}' found as '$cachedImage' with content hash '$contentHash', skipping build" }
+                } else {
+                    l.debug { "image for container class '${containerType.simpleName}' will be build and tagged as '${imageConfig.tag}'"  }
+                    val specs =
+                            (if (archive !== null) ImageSpec { FileInputStream(archive.file) } else ImageSpec(dockerfile as File))
+                                    .withTag(image)
+                                    .withPull(imageConfig.forcePull)
+                    if (contentHash !== null) specs.withLabel(IMAGE_LABEL_CONTENT_HASH, contentHash)
+                    val generatedImageId = env.docker.images.build(specs)
+                    l.debug { "image for container class '${containerType.simpleName}' built with id '$generatedImageId' and tagged as '${imageConfig.tag}'" }
+                }
+                return ContainerConfiguration(
+                        spec = ContainerSpec(cachedImage ?: image),
+                        // cached images are kept to be reused by later builds
+                        autoRemove = contentHash === null,
+                        forcePull = false
+                )
+            } finally {
+                archive?.file?.delete()
+            }
+        }
+
+        private class DockerImageContent(val file: File, val hash: String)
+
+        @Throws(IOException::class)
+        private fun dockerImageContent(dockerfile: Any, entries: Map<String, Any>, containerType: Class<*>): DockerImageContent {
+            // entries are sorted, so the hash doesn't depend on the order they were defined
+            val sortedEntries = entries.toSortedMap()
+            sortedEntries[DOCKERFILE_DEFAULT_NAME] = dockerfile
+            val digest = sha256Digest()
+            val file = targzFile { tar ->
+                sortedEntries.forEach { name, content -> tar.withStreamedEntry(name, content.normalize(containerType), digest) }
             }
+            return DockerImageContent(file, digest.hex())
+        }
+
+        /**
+         * Looks for an image previously built from content with the same hash,
+         * either already known by the environment or labeled with the content hash.
+         * Images with a declared tag are only reused if they have it, otherwise they are built again to get it.
+         */
+        private fun findCachedImage(
+                env: ContainerObjectsEnvironment,
+                image: ImageName,
+                contentHash: String,
+                hashTagged: Boolean
+        ): ImageLocator? {
+            if (hashTagged && env.isImageKnown(image)) return image
+            val images = env.docker.images.list(labels = mapOf(IMAGE_LABEL_CONTENT_HASH to contentHash))
+            if (images.any { image in it.tags }) return image
+            return if (hashTagged) images.firstOrNull()?.id else null
+        }
 
         private fun Any.normalize(loader: Class<*>) =
             if (this is String) {
@@ -358,8 +476,8 @@ class ContainerObjectsManagerImpl(private val env: ContainerObjectsEnvironment):
                                 ?: throw IllegalArgumentException("Resource not found: " + this)
                     }
                     startsWith(SCHEME_FILE_PREFIX) -> URI.create(substring(SCHEME_FILE_PREFIX.length)) as URI
-                    startsWith(SCHEME_HTTP_PREFIX) -> URI.create(substring(SCHEME_HTTP_PREFIX.length)) as URI
-                    startsWith(SCHEME_HTTPS_PREFIX) -> URI.create(substring(SCHEME_HTTPS_PREFIX.length)) as URI
+                    // remote entries keep their scheme, so they are downloaded instead of read as local paths
+                    startsWith(SCHEME_HTTP_PREFIX) || startsWith(SCHEME_HTTPS_PREFIX) -> URI.create(this) as URI
                     else -> this
                 }
             } else {
@@ -370,12 +488,44 @@ class ContainerObjectsManagerImpl(private val env: ContainerObjectsEnvironment):
             IMAGE_TAG_DEFAULT_TEMPLATE.format(
                     containerType.simpleName.toSnakeCase(),
                     IMAGE_TAG_DYNAMIC_PLACEHOLDER)
+
+        // set while a lifecycle stage runs in the executor, whether it is the environment one or not
+        private val inLifecycleTask = ThreadLocal<Boolean>()
+
+        // nested parallel creations run inline, so executor threads are never blocked waiting on each other
+        private fun isNested() = inLifecycleTask.get() == true
+
+        private fun lifecycleTask(stage: () -> Unit) = Runnable {
+            val nested = isNested()
+            inLifecycleTask.set(true)
+            try {
+                stage()
+            } finally {
+                if (!nested) inLifecycleTask.remove()
+            }
+        }
+
+        private fun Collection<Throwable>.aggregated(): Throwable {
+            val failure = first()
+            stream().skip(1).forEach { failure.addSuppressed(it) }
+            return failure
+        }
+
+        private fun Throwable.rethrow(): Nothing =
+            throw this as? RuntimeException ?: IllegalStateException(message, this)
+    }
+
+    internal val pool = ContainerObjectsPool(env) {
+        @Suppress("UNCHECKED_CAST")
+        destroyContainerObject(it as ContainerObjectContextImpl<Any>)
     }
 
     @Throws(IOException::class)
     override fun close() = env.close()
 
     override fun <T: Any> create(containerType: Class<T>): T {
+        pool.lease(containerType)?.let { return reuse(it) }
+
         val ctx = ContainerObjectContextImpl(env, containerType)
         // instance creation stage
         createInstance(ctx)
@@ -396,6 +546,17 @@ class ContainerObjectsManagerImpl(private val env: ContainerObjectsEnvironment):
         val ctx = env.getContainerObjectRegistration(containerInstance) as ContainerObjectContextImpl<T>
         env.unregisterContainerObject(ctx)
 
+        if (!pool.offer(ctx)) destroyContainerObject(ctx)
+    }
+
+    private fun <T: Any> reuse(ctx: ContainerObjectContextImpl<T>): T {
+        val containerInstance = ctx.instance!!
+        env.registerContainerObject(ctx)
+        containerInstance.invokeContainerLifecycleListeners<AfterContainerReused>()
+        return containerInstance
+    }
+
+    private fun <T: Any> destroyContainerObject(ctx: ContainerObjectContextImpl<T>) {
         // container stopping stage
         stopContainer(ctx)
         // container removing stage
@@ -412,6 +573,218 @@ class ContainerObjectsManagerImpl(private val env: ContainerObjectsEnvironment):
         restartContainer(ctx)
     }
 
+    override fun <T: Any> createAsync(containerType: Class<T>): CompletableFuture<T> {
+        val executor = env.executor
+        return CompletableFuture
+                .supplyAsync(Supplier { pool.lease(containerType) }, executor)
+                .thenComposeAsync(Function<ContainerObjectContextImpl<T>?, CompletableFuture<T>> {
+                    if (it !== null)
+                        CompletableFuture.completedFuture(reuse(it))
+                    else
+                        createContainerObjectAsync(containerType)
+                }, executor)
+    }
+
+    private fun <T: Any> createContainerObjectAsync(containerType: Class<T>): CompletableFuture<T> {
+        val executor = env.executor
+        val ctx = ContainerObjectContextImpl(env, containerType)
+        return CompletableFuture
+                // instance creation stage
+                .runAsync(lifecycleTask { createInstance(ctx) }, executor)
+                // image preparation stage
+                .thenRunAsync(lifecycleTask { prepareImage(ctx) }, executor)
+                // container creation stage
+                .thenRunAsync(lifecycleTask { createContainer(ctx) }, executor)
+                // container started stage
+                .thenRunAsync(lifecycleTask { startContainer(ctx) }, executor)
+                // register container
+                .thenApply {
+                    env.registerContainerObject(ctx)
+                    ctx.instance!!
+                }
+    }
+
+    override fun <T: Any> destroyAsync(containerInstance: T): CompletableFuture<Void> {
+        val executor = env.executor
+        @Suppress("UNCHECKED_CAST")
+        val ctx =
+                try {
+                    env.getContainerObjectRegistration(containerInstance) as ContainerObjectContextImpl<T>
+                } catch (e: IllegalArgumentException) {
+                    return failedFuture(e)
+                }
+        env.unregisterContainerObject(ctx)
+        return CompletableFuture
+                .supplyAsync(Supplier { pool.offer(ctx) }, executor)
+                .thenComposeAsync(Function<Boolean, CompletableFuture<Void>> { pooled ->
+                    if (pooled)
+                        CompletableFuture.completedFuture(null)
+                    else
+                        destroyContainerObjectAsync(ctx)
+                }, executor)
+    }
+
+    private fun <T: Any> destroyContainerObjectAsync(ctx: ContainerObjectContextImpl<T>): CompletableFuture<Void> {
+        val executor = env.executor
+        return CompletableFuture
+                // container stopping stage
+                .runAsync(lifecycleTask { stopContainer(ctx) }, executor)
+                // container removing stage
+                .thenRunAsync(lifecycleTask { removeContainer(ctx) }, executor)
+                // image release stage
+                .thenRunAsync(lifecycleTask { teardownImage(ctx) }, executor)
+                // instance discarded stage
+                .thenRunAsync(lifecycleTask { discardInstance(ctx) }, executor)
+    }
+
+    override fun <T: Any> restartAsync(containerInstance: T): CompletableFuture<Void> {
+        @Suppress("UNCHECKED_CAST")
+        val ctx =
+                try {
+                    env.getContainerObjectRegistration(containerInstance) as ContainerObjectContextImpl<T>
+                } catch (e: IllegalArgumentException) {
+                    return failedFuture(e)
+                }
+        return CompletableFuture.runAsync(lifecycleTask { restartContainer(ctx) }, env.executor)
+    }
+
+    // asynchronous operations report an unknown instance through the future, like any other failure
+    private fun failedFuture(e: Throwable) = CompletableFuture<Void>().also { it.completeExceptionally(e) }
+
+    /**
+     * Creates a group of container objects, where each one is created only after all its dependencies are started.
+     * If [parallel] is requested, every container object with all its dependencies started is created concurrently.
+     * If any creation fails, all container objects already created are destroyed.
+     */
+    internal fun <K: Any> createAll(
+            containerTypes: Map<K, Class<*>>,
+            dependencies: Map<K, Collection<K>>,
+            parallel: Boolean
+    ): Map<K, Any> {
+        val order = containerTypes.keys.sortedTopologically { dependencies[it].orEmpty() }
+        return if (parallel && order.size > 1 && !isNested())
+            createAllInParallel(order, containerTypes, dependencies)
+        else
+            createAllInOrder(order, containerTypes)
+    }
+
+    private fun <K: Any> createAllInOrder(order: List<K>, containerTypes: Map<K, Class<*>>): Map<K, Any> {
+        val created = linkedMapOf<K, Any>()
+        try {
+            order.forEach { created[it] = create(containerTypes[it]!!) }
+        } catch (e: Exception) {
+            destroyAllAfterFailure(created.values, e)
+            throw e
+        }
+        return created
+    }
+
+    private fun <K: Any> createAllInParallel(
+            order: List<K>,
+            containerTypes: Map<K, Class<*>>,
+            dependencies: Map<K, Collection<K>>
+    ): Map<K, Any> {
+        l.debug { "Creating ${order.size} container objects in parallel" }
+        val executor = env.executor
+        val futures = mutableMapOf<K, CompletableFuture<Any>>()
+        order.forEach { key ->
+            val requirements = dependencies[key].orEmpty().map { futures[it]!! }
+            futures[key] = CompletableFuture.allOf(*requirements.toTypedArray())
+                    .thenComposeAsync(Function<Void?, CompletableFuture<Any>> {
+                        @Suppress("UNCHECKED_CAST")
+                        createAsync(containerTypes[key]!!) as CompletableFuture<Any>
+                    }, executor)
+        }
+        val created = linkedMapOf<K, Any>()
+        // a failure is propagated to all dependent container objects, only report it once
+        val failures = Collections.newSetFromMap(IdentityHashMap<Throwable, Boolean>())
+        order.forEach { key ->
+            try {
+                created[key] = futures[key]!!.join()
+            } catch (e: CompletionException) {
+                failures += e.cause ?: e
+            }
+        }
+        if (failures.isNotEmpty()) {
+            val failure = failures.aggregated()
+            destroyAllAfterFailure(created.values, failure)
+            failure.rethrow()
+        }
+        return created
+    }
+
+    private fun destroyAllAfterFailure(containerInstances: Collection<Any>, failure: Throwable) {
+        l.debug { "Creating container objects failed, destroying ${containerInstances.size} already created" }
+        try {
+            destroyAll(containerInstances)
+        } catch (e: Exception) {
+            failure.addSuppressed(e)
+        }
+    }
+
+    /**
+     * Destroys a group of container objects, where each one is destroyed only after all the ones depending on it.
+     * If [parallel] is requested, every container object with all its dependents destroyed is destroyed concurrently.
+     * All container objects are destroyed even if some of them fail, failures are reported together.
+     */
+    internal fun <K: Any> destroyAll(
+            containerInstances: Map<K, Any>,
+            dependencies: Map<K, Collection<K>>,
+            parallel: Boolean
+    ) {
+        val order = containerInstances.keys.sortedTopologically { dependencies[it].orEmpty() }
+        if (parallel && order.size > 1 && !isNested())
+            destroyAllInParallel(order, containerInstances, dependencies)
+        else
+            destroyAll(order.map { containerInstances[it]!! })
+    }
+
+    private fun <K: Any> destroyAllInParallel(
+            order: List<K>,
+            containerInstances: Map<K, Any>,
+            dependencies: Map<K, Collection<K>>
+    ) {
+        l.debug { "Destroying ${order.size} container objects in parallel" }
+        val executor = env.executor
+        val dependents = order.associate { it to mutableListOf<K>() }
+        order.forEach { key -> dependencies[key].orEmpty().forEach { dependents[it]!! += key } }
+        val futures = mutableMapOf<K, CompletableFuture<Void>>()
+        order.asReversed().forEach { key ->
+            val requirements = dependents[key]!!.map { futures[it]!! }
+            // allOf only completes once every dependent is done, whether it failed or not
+            futures[key] = CompletableFuture.allOf(*requirements.toTypedArray())
+                    .handle { _, _ -> null }
+                    .thenComposeAsync(Function<Nothing?, CompletableFuture<Void>> {
+                        destroyAsync(containerInstances[key]!!)
+                    }, executor)
+        }
+        val failures = mutableListOf<Throwable>()
+        order.forEach { key ->
+            try {
+                futures[key]!!.join()
+            } catch (e: CompletionException) {
+                failures += e.cause ?: e
+            }
+        }
+        if (failures.isNotEmpty()) failures.aggregated().rethrow()
+    }
+
+    /**
+     * Destroys a group of container objects, in the reverse order they were created.
+     * All container objects are destroyed even if some of them fail.
+     */
+    internal fun destroyAll(containerInstances: Collection<Any>) {
+        var failure: Exception? = null
+        containerInstances.reversed().forEach {
+            try {
+                destroy(it)
+            } catch (e: Exception) {
+                if (failure === null) failure = e else failure!!.addSuppressed(e)
+            }
+        }
+        failure?.rethrow()
+    }
+
     override fun getContainerId(containerInstance: Any): ContainerLocator? =
             env.getContainerObjectRegistration(containerInstance).container
 
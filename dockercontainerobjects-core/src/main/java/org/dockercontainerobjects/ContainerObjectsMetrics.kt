@@ -0,0 +1,171 @@
+package org.dockercontainerobjects
+
+import org.dockercontainerobjects.util.loggerFor
+import org.dockercontainerobjects.util.warn
+import java.time.Duration
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.CopyOnWriteArrayList
+import java.util.concurrent.ThreadLocalRandom
+
+/**
+ * Durations of the lifecycle operations of all container objects in an environment, by container class.
+ */
+class ContainerObjectsMetrics internal constructor() {
+
+    companion object {
+        const val PROPERTY_METRICS_SUMMARY = "org.dockercontainerobjects.metrics.summary"
+        const val ENV_METRICS_SUMMARY = "DOCKER_CONTAINEROBJECTS_METRICS_SUMMARY"
+
+        // enough for any percentile of a test run, while keeping memory bounded on long runs
+        internal const val MAX_SAMPLES = 10_000
+
+        private const val NANOS_PER_MILLI = 1_000_000.0
+
+        private val l = loggerFor<ContainerObjectsMetrics>()
+    }
+
+    private val recorders: MutableMap<Pair<Class<*>, ContainerObjectLifecycleOperation>, Recorder> = ConcurrentHashMap()
+    private val listeners: MutableList<ContainerObjectsMetricsListener> = CopyOnWriteArrayList()
+
+    /** when enabled, the environment logs a [summary] when closed */
+    var summaryOnClose: Boolean =
+            (System.getProperty(PROPERTY_METRICS_SUMMARY) ?: System.getenv(ENV_METRICS_SUMMARY))?.toBoolean() ?: false
+
+    val containerTypes: Set<Class<*>> get() = recorders.keys.mapTo(linkedSetOf()) { it.first }
+
+    internal fun record(containerType: Class<*>, operation: ContainerObjectLifecycleOperation, nanos: Long) {
+        recorders.computeIfAbsent(containerType to operation) { Recorder() }.record(nanos)
+        if (listeners.isNotEmpty()) {
+            val duration = Duration.ofNanos(nanos)
+            notifyListeners { it.onOperation(containerType, operation, duration) }
+        }
+    }
+
+    internal fun logEntryDelivered(containerType: Class<*>) {
+        notifyListeners { it.onLogEntryDelivered(containerType) }
+    }
+
+    internal fun readinessChecked(containerType: Class<*>, ready: Boolean) {
+        notifyListeners { it.onReadinessCheck(containerType, ready) }
+    }
+
+    fun addListener(listener: ContainerObjectsMetricsListener) {
+        listeners += listener
+    }
+
+    fun removeListener(listener: ContainerObjectsMetricsListener) {
+        listeners -= listener
+    }
+
+    private inline fun notifyListeners(notification: (ContainerObjectsMetricsListener) -> Unit) {
+        for (listener in listeners) {
+            try {
+                notification(listener)
+            } catch (e: Exception) {
+                // a failing listener must not break the container object lifecycle
+                l.warn(e)
+            }
+        }
+    }
+
+    fun statistics(containerType: Class<*>, operation: ContainerObjectLifecycleOperation): DurationStatistics? =
+            recorders[containerType to operation]?.statistics()
+
+    /** statistics of the operation for all container classes together */
+    fun statistics(operation: ContainerObjectLifecycleOperation): DurationStatistics? {
+        val matching = recorders.filterKeys { it.second == operation }.values
+        return if (matching.isEmpty()) null else Recorder.merge(matching)
+    }
+
+    fun clear() {
+        recorders.clear()
+    }
+
+    /** Human readable table with the statistics of every container class and operation, in milliseconds */
+    fun summary(): String {
+        val rows = recorders.entries
+                .sortedWith(compareBy({ it.key.first.name }, { it.key.second.ordinal }))
+                .map { (key, recorder) -> key.first.simpleName to key.second to recorder.statistics() }
+        val width = (rows.map { it.first.first.length } + "class".length).max()!!
+        val format = "%-${width}s  %-16s %7s %10s %10s %10s %10s %10s%n"
+        val summary = StringBuilder("Container objects lifecycle timings (ms)").append(System.lineSeparator())
+        summary.append(String.format(format, "class", "operation", "count", "mean", "p50", "p90", "p99", "max"))
+        rows.forEach { (key, stats) ->
+            summary.append(String.format(format, key.first, key.second.name, stats.count,
+                    stats.mean.millis(), stats.percentile(50.0).millis(), stats.percentile(90.0).millis(),
+                    stats.percentile(99.0).millis(), stats.max.millis()))
+        }
+        return summary.toString()
+    }
+
+    private fun Duration.millis() = "%.1f".format(toNanos() / NANOS_PER_MILLI)
+
+    private class Recorder {
+
+        private var count = 0L
+        private var total = 0L
+        private var min = Long.MAX_VALUE
+        private var max = Long.MIN_VALUE
+        private var samples = LongArray(16)
+        private var size = 0
+
+        @Synchronized
+        fun record(nanos: Long) {
+            count++
+            total += nanos
+            min = Math.min(min, nanos)
+            max = Math.max(max, nanos)
+            when {
+                size < samples.size -> samples[size++] = nanos
+                size < MAX_SAMPLES -> {
+                    samples = samples.copyOf(Math.min(samples.size * 2, MAX_SAMPLES))
+                    samples[size++] = nanos
+                }
+                else -> {
+                    // reservoir sampling, keeps a uniform sample of all the recorded durations
+                    val index = ThreadLocalRandom.current().nextLong(count)
+                    if (index < MAX_SAMPLES) samples[index.toInt()] = nanos
+                }
+            }
+        }
+
+        @Synchronized
+        fun statistics() = DurationStatistics(
+                count, Duration.ofNanos(total), Duration.ofNanos(min), Duration.ofNanos(max),
+                samples.copyOf(size).also { it.sort() })
+
+        companion object {
+
+            fun merge(recorders: Collection<Recorder>): DurationStatistics {
+                val all = recorders.map { it.statistics() }
+                // reservoirs of busier recorders hold a smaller share of their durations, so every recorder is
+                // brought down to the lowest sampling rate, otherwise percentiles would lean towards the quiet ones
+                val rate = all.map { it.samplesNanos.size.toDouble() / it.count }.min()!!
+                return DurationStatistics(
+                        all.map { it.count }.sum(),
+                        all.fold(Duration.ZERO) { total, stats -> total + stats.total },
+                        all.map { it.min }.min()!!,
+                        all.map { it.max }.max()!!,
+                        all.flatMap { it.samplesAtRate(rate) }.toLongArray().also { it.sort() })
+            }
+
+            /**
+             * Uniform subset of the samples, as if they had been kept at the given rate of the recorded durations.
+             */
+            private fun DurationStatistics.samplesAtRate(rate: Double): List<Long> {
+                val samples = samplesNanos.copyOf()
+                val kept = Math.min(Math.round(count * rate).toInt(), samples.size)
+                if (kept == samples.size) return samples.asList()
+                // partial Fisher-Yates shuffle, the first positions end up holding a uniform subset
+                val random = ThreadLocalRandom.current()
+                for (i in 0 until kept) {
+                    val j = i + random.nextInt(samples.size - i)
+                    val sample = samples[i]
+                    samples[i] = samples[j]
+                    samples[j] = sample
+                }
+                return samples.asList().subList(0, kept)
+            }
+        }
+    }
+}
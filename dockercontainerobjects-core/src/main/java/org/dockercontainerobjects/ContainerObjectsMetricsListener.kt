@@ -0,0 +1,11 @@
+package org.dockercontainerobjects
+
+import java.time.Duration
+
+/** Receives the metrics of an environment as they are recorded, to publish them somewhere else */
+interface ContainerObjectsMetricsListener {
+
+    fun onOperation(containerType: Class<*>, operation: ContainerObjectLifecycleOperation, duration: Duration) {}
+    fun onLogEntryDelivered(containerType: Class<*>) {}
+    fun onReadinessCheck(containerType: Class<*>, ready: Boolean) {}
+}
@@ -0,0 +1,155 @@
+package org.dockercontainerobjects
+
+import org.dockercontainerobjects.ContainerObjectLifecycleStage.CONTAINER_STARTED
+import org.dockercontainerobjects.annotations.BeforePoolingContainer
+import org.dockercontainerobjects.annotations.Pooled
+import org.dockercontainerobjects.docker.ContainerNotFoundException
+import org.dockercontainerobjects.docker.ContainerStatus.RUNNING
+import org.dockercontainerobjects.util.debug
+import org.dockercontainerobjects.util.getAnnotation
+import org.dockercontainerobjects.util.loggerFor
+import java.util.ArrayDeque
+import java.util.Deque
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.ScheduledFuture
+import java.util.concurrent.TimeUnit.MILLISECONDS
+
+/**
+ * Keeps started container objects of types annotated with [Pooled], so they can be reused instead of
+ * being destroyed and created again.
+ * Idle container objects are destroyed after the configured idle time, when the pool is closed,
+ * or when the JVM shuts down.
+ */
+internal class ContainerObjectsPool(
+        private val env: ContainerObjectsEnvironment,
+        private val discard: (ContainerObjectContextImpl<*>) -> Unit): AutoCloseable {
+
+    companion object {
+        private val l = loggerFor<ContainerObjectsPool>()
+    }
+
+    private class Entry(val ctx: ContainerObjectContextImpl<*>) {
+        var eviction: ScheduledFuture<*>? = null
+    }
+
+    private val idle: MutableMap<Class<*>, Deque<Entry>> = ConcurrentHashMap()
+
+    // slots taken by container objects being reset before entering the pool, guarded by the queue of their type
+    private val reservations: MutableMap<Class<*>, Int> = ConcurrentHashMap()
+
+    @Volatile private var closed = false
+    private var shutdownHook: Thread? = null
+
+    fun <T: Any> lease(containerType: Class<T>): ContainerObjectContextImpl<T>? {
+        val queue = idle[containerType] ?: return null
+        while (true) {
+            val entry = synchronized(queue) { queue.pollFirst() } ?: return null
+            entry.eviction?.cancel(false)
+            if (entry.ctx.isRunning()) {
+                l.debug { "Reusing pooled container object of class '${containerType.simpleName}'" }
+                @Suppress("UNCHECKED_CAST")
+                return entry.ctx as ContainerObjectContextImpl<T>
+            }
+            l.debug { "Pooled container object of class '${containerType.simpleName}' is no longer running, discarding it" }
+            discardQuietly(entry)
+        }
+    }
+
+    /**
+     * Returns the container object to the pool, if its type is pooled and there is room for it.
+     * When `false` is returned, the caller is still responsible of destroying the container object.
+     */
+    fun offer(ctx: ContainerObjectContextImpl<*>): Boolean {
+        val config = ctx.type.getAnnotation<Pooled>() ?: return false
+        if (closed || ctx.stage != CONTAINER_STARTED || config.maxSize <= 0) return false
+        val queue = idle.computeIfAbsent(ctx.type) { ArrayDeque() }
+        // the slot is reserved before resetting, so a container object is never reset only to be destroyed
+        synchronized(queue) {
+            if (queue.size + reserved(ctx.type) >= config.maxSize) return false
+            reservations.merge(ctx.type, 1, Int::plus)
+        }
+
+        try {
+            ContainerObjectMetadata.of(ctx.type).invokeLifecycleListeners(ctx.instance!!, BeforePoolingContainer::class.java)
+        } catch (e: Exception) {
+            synchronized(queue) { release(ctx.type) }
+            l.warn("Container object of class '${ctx.type.simpleName}' could not be reset, it will not be pooled", e)
+            return false
+        }
+
+        val entry = Entry(ctx)
+        synchronized(queue) {
+            release(ctx.type)
+            if (closed) return false
+            queue.addFirst(entry)
+            if (config.maxIdleMillis > 0)
+                entry.eviction = env.executor.schedule({ evict(queue, entry) }, config.maxIdleMillis, MILLISECONDS)
+        }
+        registerShutdownHook()
+        l.debug { "Container object of class '${ctx.type.simpleName}' returned to the pool" }
+        return true
+    }
+
+    private fun reserved(type: Class<*>) = reservations[type] ?: 0
+
+    private fun release(type: Class<*>) {
+        reservations.computeIfPresent(type) { _, count -> if (count > 1) count - 1 else null }
+    }
+
+    override fun close() {
+        closed = true
+        unregisterShutdownHook()
+        drain()
+    }
+
+    private fun drain() {
+        idle.values.forEach { queue ->
+            val entries = synchronized(queue) { queue.toList().also { queue.clear() } }
+            entries.forEach {
+                it.eviction?.cancel(false)
+                discardQuietly(it)
+            }
+        }
+    }
+
+    private fun evict(queue: Deque<Entry>, entry: Entry) {
+        if (synchronized(queue) { queue.remove(entry) }) {
+            l.debug { "Pooled container object of class '${entry.ctx.type.simpleName}' idle for too long, discarding it" }
+            discardQuietly(entry)
+        }
+    }
+
+    private fun discardQuietly(entry: Entry) {
+        try {
+            discard(entry.ctx)
+        } catch (e: Exception) {
+            l.warn("Pooled container object of class '${entry.ctx.type.simpleName}' could not be destroyed", e)
+        }
+    }
+
+    private fun ContainerObjectContextImpl<*>.isRunning() =
+        try {
+            environment.docker.containers.status(container!!) == RUNNING
+        } catch (e: ContainerNotFoundException) {
+            false
+        }
+
+    @Synchronized
+    private fun registerShutdownHook() {
+        if (shutdownHook !== null || closed) return
+        val hook = Thread({ drain() }, "container-objects-pool-shutdown")
+        Runtime.getRuntime().addShutdownHook(hook)
+        shutdownHook = hook
+    }
+
+    @Synchronized
+    private fun unregisterShutdownHook() {
+        val hook = shutdownHook ?: return
+        shutdownHook = null
+        try {
+            Runtime.getRuntime().removeShutdownHook(hook)
+        } catch (e: IllegalStateException) {
+            // JVM already shutting down, the hook will drain the pool
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package org.dockercontainerobjects
+
+import java.time.Duration
+
+/** Snapshot of the durations recorded for a lifecycle operation */
+class DurationStatistics internal constructor(
+        val count: Long,
+        val total: Duration,
+        val min: Duration,
+        val max: Duration,
+        internal val samplesNanos: LongArray
+) {
+    val mean: Duration get() = if (count == 0L) Duration.ZERO else total.dividedBy(count)
+
+    /**
+     * Returns the duration below which the given percentage of the recorded durations fall.
+     * When too many durations were recorded, the percentile is estimated from a uniform sample of them.
+     */
+    fun percentile(percentage: Double): Duration {
+        if (percentage < 0.0 || percentage > 100.0)
+            throw IllegalArgumentException("Percentage must be between 0 and 100, but was $percentage")
+        if (samplesNanos.isEmpty()) return Duration.ZERO
+        val rank = Math.ceil(percentage / 100.0 * samplesNanos.size).toInt()
+        return Duration.ofNanos(samplesNanos[Math.max(rank - 1, 0)])
+    }
+
+    override fun toString() = "count: $count, mean: $mean, p50: ${percentile(50.0)}, p99: ${percentile(99.0)}, max: $max"
+}
@@ -1,15 +1,11 @@
 package org.dockercontainerobjects
 
 import org.dockercontainerobjects.util.NOTHING
-import org.dockercontainerobjects.util.and
-import org.dockercontainerobjects.util.annotatedWith
 import org.dockercontainerobjects.util.debug
-import org.dockercontainerobjects.util.onInstance
-import org.dockercontainerobjects.util.updateFields
+import org.dockercontainerobjects.util.isReadOnly
+import org.dockercontainerobjects.util.update
 import org.slf4j.LoggerFactory
-import java.lang.reflect.Field
 import java.util.ServiceLoader
-import javax.inject.Inject
 
 object ExtensionManager {
 
@@ -31,10 +27,11 @@ object ExtensionManager {
             l.debug { "Requesting field filter on stage '${ctx.stage}' to extension '${e.javaClass.simpleName}'" }
             val extensionSelector = e.getFieldSelector(ctx)
             if (extensionSelector !== null && extensionSelector !== NOTHING) {
-                val selector = onInstance<Field>() and annotatedWith<Field>(Inject::class) and extensionSelector
-                containerInstance.updateFields(selector) { field ->
+                ContainerObjectMetadata.of(containerInstance.javaClass).injectFields(extensionSelector).forEach { field ->
+                    if (field.isReadOnly)
+                        throw IllegalArgumentException("Cannot modify final field '${field.name}'")
                     l.debug { "Injecting value on stage '${ctx.stage}' from extension '${e.javaClass.simpleName}' to field '${field.name}'" }
-                    e.getFieldValue(ctx, field)
+                    field.update(containerInstance, e.getFieldValue(ctx, field))
                 }
             }
         }
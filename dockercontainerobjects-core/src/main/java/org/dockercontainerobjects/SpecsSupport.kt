@@ -11,6 +11,7 @@ import org.dockercontainerobjects.docker.ContainerSpec
 import org.dockercontainerobjects.docker.ImageName
 import org.dockercontainerobjects.util.call
 import org.dockercontainerobjects.util.getAnnotation
+import org.dockercontainerobjects.util.invoker
 import org.dockercontainerobjects.util.isOfReturnType
 import java.io.File
 import java.io.InputStream
@@ -81,7 +82,8 @@ fun <T> containerConfigFromMethod(
 data class ImageConfiguration(
         var ref: Any,
         var tag: String,
-        val forcePull: Boolean
+        val forcePull: Boolean,
+        val cached: Boolean = false
 )
 
 fun imageConfigFromClass(
@@ -98,7 +100,7 @@ fun imageConfigFromClass(
                     )
                 }
             }
-    return ImageConfiguration(ref, annotation.tag, annotation.forcePull)
+    return ImageConfiguration(ref, annotation.tag, annotation.forcePull, annotation.cached)
 }
 
 val IMAGE_CONFIG_METHOD_RETURN_TYPES =
@@ -127,7 +129,7 @@ fun <T> imageConfigFromMethod(
         }
     }
     val annotation = method.getAnnotation<BuildImage>()!!
-    return ImageConfiguration(ref, annotation.tag, annotation.forcePull)
+    return ImageConfiguration(ref, annotation.tag, annotation.forcePull, annotation.cached)
 }
 
 fun <T> containerLogSpecFromMethod(
@@ -149,15 +151,16 @@ fun <T> containerLogSpecFromMethod(
             timestampsIncluded = annotation.includeTimestamps
     )
     val param = method.parameters.first()
+    val invoker = method.invoker()
     when (param.type.kotlin) {
         String::class -> spec.onLogEntry {
-            method.call(containerInstance, it.text)
+            invoker(containerInstance, it.text)
         }
         ByteArray::class -> spec.onLogEntry {
-            method.call(containerInstance, it.bytes)
+            invoker(containerInstance, it.bytes)
         }
         ContainerLogEntryContext::class -> spec.onLogEntry {
-            method.call(containerInstance, it)
+            invoker(containerInstance, it)
         }
         else -> {
             throw IllegalArgumentException(
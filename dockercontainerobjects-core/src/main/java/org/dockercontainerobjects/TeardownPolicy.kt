@@ -0,0 +1,12 @@
+package org.dockercontainerobjects
+
+/** How the container of a container object is stopped and removed when the container object is destroyed */
+enum class TeardownPolicy {
+
+    /** Container stopped gracefully, killed if it does not stop within the stop timeout, then removed  */
+    GRACEFUL,
+    /** Container killed right away, then removed  */
+    KILL,
+    /** Container and its volumes removed at once, forcing the removal while running  */
+    FORCE_REMOVE
+}
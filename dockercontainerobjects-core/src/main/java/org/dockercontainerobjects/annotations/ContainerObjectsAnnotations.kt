@@ -3,6 +3,7 @@
 
 package org.dockercontainerobjects.annotations
 
+import org.dockercontainerobjects.TeardownPolicy
 import java.lang.annotation.Inherited
 import java.lang.annotation.Repeatable
 import javax.inject.Qualifier
@@ -17,6 +18,36 @@ import kotlin.annotation.AnnotationTarget.FUNCTION
 @Inherited
 annotation class ContainerObject
 
+@MustBeDocumented
+@Retention(RUNTIME)
+@Target(CLASS)
+@Inherited
+annotation class ParallelSetup
+
+@MustBeDocumented
+@Retention(RUNTIME)
+@Target(CLASS)
+@Inherited
+annotation class ParallelTeardown
+
+@MustBeDocumented
+@Retention(RUNTIME)
+@Target(CLASS)
+@Inherited
+annotation class Teardown(val policy: TeardownPolicy = TeardownPolicy.GRACEFUL, val stopTimeoutSeconds: Int = -1)
+
+@MustBeDocumented
+@Retention(RUNTIME)
+@Target(FIELD)
+@Inherited
+annotation class DependsOn(vararg val value: String)
+
+@MustBeDocumented
+@Retention(RUNTIME)
+@Target(CLASS)
+@Inherited
+annotation class Pooled(val maxSize: Int = 1, val maxIdleMillis: Long = 300_000)
+
 @MustBeDocumented
 @Retention(RUNTIME)
 @Target(FUNCTION)
@@ -89,6 +120,18 @@ annotation class BeforeRestartingContainer
 @Inherited
 annotation class AfterContainerRestarted
 
+@MustBeDocumented
+@Retention(RUNTIME)
+@Target(FUNCTION)
+@Inherited
+annotation class BeforePoolingContainer
+
+@MustBeDocumented
+@Retention(RUNTIME)
+@Target(FUNCTION)
+@Inherited
+annotation class AfterContainerReused
+
 @MustBeDocumented
 @Retention(RUNTIME)
 @Target(FUNCTION)
@@ -149,7 +192,7 @@ annotation class RegistryImage(val value: String = "", val forcePull: Boolean =
 @Retention(RUNTIME)
 @Target(CLASS, FUNCTION)
 @Inherited
-annotation class BuildImage(val value: String = "", val tag: String = "", val forcePull: Boolean = false)
+annotation class BuildImage(val value: String = "", val tag: String = "", val forcePull: Boolean = false, val cached: Boolean = false)
 
 @MustBeDocumented
 @Retention(RUNTIME)
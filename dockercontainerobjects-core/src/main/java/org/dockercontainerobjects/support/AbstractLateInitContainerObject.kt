@@ -2,28 +2,69 @@ package org.dockercontainerobjects.support
 
 import org.dockercontainerobjects.util.debug
 import org.dockercontainerobjects.util.loggerFor
-import java.util.concurrent.CountDownLatch
+import java.util.concurrent.CompletableFuture
+import java.util.concurrent.CompletionException
+import java.util.concurrent.ExecutionException
+import java.util.concurrent.Executor
 import java.util.concurrent.TimeUnit.MILLISECONDS
 import java.util.concurrent.TimeoutException
+import java.util.concurrent.atomic.AtomicReference
+import java.util.function.BiConsumer
 
 abstract class AbstractLateInitContainerObject: LateInitContainerObject {
 
-    private val readyCounter = CountDownLatch(1)
+    private val ready = CompletableFuture<Void?>()
+    private val readyListener = AtomicReference<(() -> Unit)?>()
 
     open protected val maxTimeoutMillis get() = 1000*60*5 // 5 minutes
 
     protected fun markAsReady() {
         l.debug("container is being marked as ready")
-        readyCounter.countDown()
+        ready.complete(null)
+        readyListener.getAndSet(null)?.invoke()
     }
 
-    override final val isReady get() = (readyCounter.count == 0L)
+    /** the container will never be ready, waiting for it fails right away instead of timing out */
+    protected fun markAsFailed(cause: Throwable) {
+        l.debug { "container is being marked as failed: ${cause.localizedMessage}" }
+        readyListener.set(null)
+        ready.completeExceptionally(cause)
+    }
+
+    /** runs [onBeforeReady] in the executor, then marks the container as ready, or as failed if it throws */
+    protected fun markAsReadyAsync(executor: Executor) {
+        CompletableFuture
+                .runAsync(Runnable { onBeforeReady() }, executor)
+                .whenCompleteAsync(BiConsumer { _, e ->
+                    if (e === null) markAsReady() else markAsFailed((e as? CompletionException)?.cause ?: e)
+                }, executor)
+    }
+
+    // used by the manager to time readiness, called once even if the container is already ready
+    internal fun whenReady(listener: () -> Unit) {
+        readyListener.set(listener)
+        if (isReady) readyListener.getAndSet(null)?.invoke()
+    }
+
+    override final val isReady get() = ready.isDone && !ready.isCompletedExceptionally
+
+    // a copy, so callers cannot complete it, failing with the cause itself
+    override final fun readyFuture(): CompletableFuture<Void?> {
+        val copy = CompletableFuture<Void?>()
+        ready.whenComplete { _, e -> if (e === null) copy.complete(null) else copy.completeExceptionally(e) }
+        return copy
+    }
 
     @Throws(TimeoutException::class, InterruptedException::class)
     override final fun waitForReady(timeoutMillis: Int) {
         l.debug { "waiting until container ready, up to $timeoutMillis ms" }
-        if (!readyCounter.await(timeoutMillis.toLong(), MILLISECONDS))
-            throw TimeoutException()
+        try {
+            ready.get(timeoutMillis.toLong(), MILLISECONDS)
+        } catch (e: ExecutionException) {
+            val cause = e.cause ?: e
+            if (cause is TimeoutException) throw TimeoutException(cause.message).also { it.initCause(cause) }
+            throw IllegalStateException("Container failed before being ready: ${cause.localizedMessage}", cause)
+        }
     }
 
     override final fun waitForReady() {
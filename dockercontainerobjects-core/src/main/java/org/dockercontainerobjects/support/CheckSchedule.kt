@@ -0,0 +1,50 @@
+package org.dockercontainerobjects.support
+
+import java.util.concurrent.ThreadLocalRandom
+
+/** decides how long a scheduled readiness check waits before each attempt */
+interface CheckSchedule {
+
+    /** delay before the given attempt, the first one being attempt 0 */
+    fun delayMillis(attempt: Int): Long
+}
+
+/** checks right away, and then every given period */
+class FixedCheckSchedule(val periodMillis: Long) : CheckSchedule {
+
+    override fun delayMillis(attempt: Int) = if (attempt == 0) 0 else periodMillis
+}
+
+/**
+ * Checks right away, then a burst of checks at the initial delay, and then backs off exponentially up to the max delay.
+ * Every delay is randomly spread by the jitter fraction, so containers started together don't check in lockstep.
+ */
+class BackoffCheckSchedule : CheckSchedule {
+
+    var initialDelayMillis = 250L
+    var maxDelayMillis = 5_000L
+    var multiplier = 1.5
+    var jitter = 0.2
+    var fastStartChecks = 4
+
+    fun withInitialDelay(millis: Long) = this.also { initialDelayMillis = millis }
+    fun withMaxDelay(millis: Long) = this.also { maxDelayMillis = millis }
+    fun withMultiplier(multiplier: Double) = this.also { this.multiplier = multiplier }
+    fun withJitter(jitter: Double) = this.also { this.jitter = jitter }
+    fun withFastStartChecks(checks: Int) = this.also { fastStartChecks = checks }
+
+    override fun delayMillis(attempt: Int): Long {
+        if (attempt == 0) return 0
+        val backoffs = attempt - fastStartChecks
+        val delay =
+                if (backoffs <= 0) initialDelayMillis.toDouble()
+                else minOf(maxDelayMillis.toDouble(), initialDelayMillis * Math.pow(multiplier, backoffs.toDouble()))
+        return jittered(delay)
+    }
+
+    private fun jittered(delay: Double): Long {
+        if (jitter <= 0.0) return delay.toLong()
+        val spread = delay * jitter
+        return (delay - spread + ThreadLocalRandom.current().nextDouble() * 2 * spread).toLong().coerceAtLeast(0)
+    }
+}
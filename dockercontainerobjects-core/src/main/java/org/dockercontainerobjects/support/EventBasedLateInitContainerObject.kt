@@ -0,0 +1,96 @@
+package org.dockercontainerobjects.support
+
+import org.dockercontainerobjects.ContainerObjectsEnvironment
+import org.dockercontainerobjects.annotations.AfterContainerStopped
+import org.dockercontainerobjects.annotations.BeforeStartingContainer
+import org.dockercontainerobjects.annotations.ContainerId
+import org.dockercontainerobjects.docker.ContainerEvent
+import org.dockercontainerobjects.docker.ContainerEventType.DIE
+import org.dockercontainerobjects.docker.ContainerEventsSpec
+import org.dockercontainerobjects.docker.ContainerEventsSubscription
+import org.dockercontainerobjects.docker.ContainerLocator
+import org.dockercontainerobjects.util.debug
+import org.dockercontainerobjects.util.loggerFor
+import java.time.Duration
+import java.time.Instant
+import java.util.concurrent.ScheduledFuture
+import java.util.concurrent.TimeUnit.MILLISECONDS
+import java.util.concurrent.TimeoutException
+import javax.inject.Inject
+
+/**
+ * Late init container object that becomes ready when docker reports an event for its container,
+ * instead of polling. If the container dies, or the events stop before that, it is marked as failed.
+ * If no ready event is reported in [maxTimeoutMillis], it is marked as failed too.
+ */
+abstract class EventBasedLateInitContainerObject: AbstractLateInitContainerObject() {
+
+    companion object {
+        private val l = loggerFor<EventBasedLateInitContainerObject>()
+
+        // docker filters with its own clock, which may be behind this one, replaying events of the container is harmless
+        private val SINCE_MARGIN = Duration.ofMinutes(10)
+    }
+
+    @Inject
+    protected lateinit var environment: ContainerObjectsEnvironment
+
+    @Inject
+    @ContainerId
+    protected var containerId: ContainerLocator? = null
+
+    @Volatile private var subscription: ContainerEventsSubscription? = null
+    @Volatile private var timeout: ScheduledFuture<*>? = null
+
+    protected abstract fun isReadyEvent(event: ContainerEvent): Boolean
+
+    // the stream may be attached after the container starts, docker replays the events since subscribing
+    @BeforeStartingContainer
+    private fun subscribe() {
+        val container = containerId ?: throw IllegalStateException("Container id is not available")
+        l.debug { "subscribing to events of container '$container'" }
+        timeout?.cancel(false)
+        if (!isReady) timeout = environment.executor.schedule(this::onTimeout, maxTimeoutMillis.toLong(), MILLISECONDS)
+        subscription = environment.docker.containers.events(
+                ContainerEventsSpec(container).since(Instant.now() - SINCE_MARGIN).onEvent(this::onEvent).onEventsDone(this::onEventsDone))
+    }
+
+    @AfterContainerStopped
+    private fun unsubscribe() {
+        subscription?.close()
+        subscription = null
+    }
+
+    private fun stopWaiting() {
+        unsubscribe()
+        timeout?.cancel(false)
+    }
+
+    private fun onEvent(event: ContainerEvent) {
+        l.debug { "container event received: $event" }
+        when {
+            isReady -> return
+            isReadyEvent(event) -> {
+                stopWaiting()
+                markAsReadyAsync(environment.executor)
+            }
+            event.type == DIE -> {
+                stopWaiting()
+                markAsFailed(IllegalStateException("Container exited with code ${event.exitCode} before being ready"))
+            }
+        }
+    }
+
+    private fun onEventsDone(error: Throwable?) {
+        if (isReady) return
+        l.debug { "events of container '$containerId' ended before being ready" }
+        stopWaiting()
+        markAsFailed(IllegalStateException("Container events ended before being ready", error))
+    }
+
+    private fun onTimeout() {
+        if (isReady) return
+        unsubscribe()
+        markAsFailed(TimeoutException("No ready event for container '$containerId' after $maxTimeoutMillis ms"))
+    }
+}
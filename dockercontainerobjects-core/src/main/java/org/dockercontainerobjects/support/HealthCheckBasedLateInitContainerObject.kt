@@ -0,0 +1,22 @@
+package org.dockercontainerobjects.support
+
+import org.dockercontainerobjects.annotations.AfterContainerStarted
+import org.dockercontainerobjects.docker.ContainerEvent
+import org.dockercontainerobjects.docker.ContainerHealthStatus.HEALTHY
+import org.dockercontainerobjects.docker.ContainerHealthStatus.NONE
+
+/**
+ * Late init container object that becomes ready when the HEALTHCHECK of its image reports it as healthy.
+ * Containers whose image has no HEALTHCHECK are marked as failed once started, as they would never be ready.
+ */
+abstract class HealthCheckBasedLateInitContainerObject: EventBasedLateInitContainerObject() {
+
+    override fun isReadyEvent(event: ContainerEvent) = event.healthStatus == HEALTHY
+
+    @AfterContainerStarted
+    private fun verifyHealthCheck() {
+        val container = containerId ?: throw IllegalStateException("Container id is not available")
+        if (environment.docker.containers.inspect(container).health == NONE)
+            markAsFailed(IllegalStateException("Container '$container' has no HEALTHCHECK"))
+    }
+}
@@ -5,6 +5,8 @@ import org.dockercontainerobjects.util.loggerFor
 import java.io.IOException
 import java.net.HttpURLConnection
 import java.net.URL
+import java.time.Duration
+import java.util.concurrent.CompletionStage
 
 abstract class HttpURLBasedLateInitContainerObject : ScheduledCheckLateInitContainerObject() {
 
@@ -15,13 +17,28 @@ abstract class HttpURLBasedLateInitContainerObject : ScheduledCheckLateInitConta
     abstract protected val serverReadyURL: URL
     protected val expectedReturnCode: Int = HttpURLConnection.HTTP_OK
     open protected val httpMethod get() = "HEAD"
+    /** how long a single check waits for the server to answer */
+    open protected val checkTimeoutMillis get() = minOf(5_000, maxTimeoutMillis) // 5 seconds
+
+    // plain http URLs are checked by the environment prober, without blocking a thread
+    override fun isServerReadyAsync(): CompletionStage<Boolean> {
+        val url = serverReadyURL
+        if (url.protocol != "http") return super.isServerReadyAsync()
+        l.debug { "probing $serverReadyURL with a $httpMethod request" }
+        return environment.prober.probe(url, httpMethod, Duration.ofMillis(checkTimeoutMillis.toLong()))
+                .thenApply {
+                    // reported as the cause if the server is never ready
+                    if (it != expectedReturnCode) throw IOException("$url answered $it instead of $expectedReturnCode")
+                    true
+                }
+    }
 
     override fun isServerReady(): Boolean {
         try {
             l.debug { "sending a $httpMethod request to $serverReadyURL" }
             val conn = environment.openOnDockerNetwork(serverReadyURL) as HttpURLConnection
-            conn.connectTimeout = maxTimeoutMillis
-            conn.readTimeout = maxTimeoutMillis
+            conn.connectTimeout = checkTimeoutMillis
+            conn.readTimeout = checkTimeoutMillis
             conn.requestMethod = httpMethod
             conn.connect()
             return conn.responseCode == expectedReturnCode
@@ -11,4 +11,7 @@ interface LateInitContainerObject {
     fun waitForReady(timeoutMillis: Int)
 
     fun waitForReady()
+
+    /** completes once the container is ready, or exceptionally with the cause if it will never be */
+    fun readyFuture(): CompletableFuture<Void?>
 }
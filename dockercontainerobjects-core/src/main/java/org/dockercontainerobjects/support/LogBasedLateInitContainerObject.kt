@@ -5,7 +5,7 @@ import org.dockercontainerobjects.annotations.OnLogEntry
 import org.dockercontainerobjects.docker.ContainerLogEntryContext
 import org.dockercontainerobjects.util.debug
 import org.dockercontainerobjects.util.loggerFor
-import java.util.concurrent.CompletableFuture
+import java.nio.charset.StandardCharsets.UTF_8
 import java.util.regex.Pattern
 import javax.inject.Inject
 
@@ -13,6 +13,17 @@ abstract class LogBasedLateInitContainerObject: AbstractLateInitContainerObject(
 
     companion object {
         private val l = loggerFor<LogBasedLateInitContainerObject>()
+
+        private const val REGEX_METACHARACTERS = "\\^$.|?*+()[]{}"
+        private val QUOTED = Regex("""\\Q(.*)\\E""", RegexOption.DOT_MATCHES_ALL)
+
+        // text matched by the pattern if it is a plain literal, as most ready log entries are
+        private fun Pattern.literal(): String? {
+            if (flags() != 0) return null
+            val pattern = pattern()
+            QUOTED.matchEntire(pattern)?.let { return it.groupValues[1].takeIf { "\\E" !in it } }
+            return if (pattern.isNotEmpty() && pattern.none { it in REGEX_METACHARACTERS }) pattern else null
+        }
     }
 
     @Inject
@@ -20,15 +31,17 @@ abstract class LogBasedLateInitContainerObject: AbstractLateInitContainerObject(
 
     abstract protected val serverReadyLogEntry: Pattern
 
+    // literal patterns are looked for in the bytes of the entries, without decoding them
+    private val serverReadyLogBytes: ByteArray? by lazy { serverReadyLogEntry.literal()?.toByteArray(UTF_8) }
+
     @OnLogEntry
     private fun onLogEntry(ctx: ContainerLogEntryContext) {
-        val text = ctx.text
-        l.debug { "inspecting log entry: ${text.trim()}" }
-        if (serverReadyLogEntry.matcher(text).find()) {
+        l.debug { "inspecting log entry: ${ctx.text.trim()}" }
+        val literal = serverReadyLogBytes
+        val ready = if (literal !== null) ctx.contains(literal) else serverReadyLogEntry.matcher(ctx.chars).find()
+        if (ready) {
             ctx.stop()
-            CompletableFuture
-                    .runAsync(Runnable { onBeforeReady() }, environment.executor)
-                    .thenRunAsync(Runnable { markAsReady() }, environment.executor)
+            markAsReadyAsync(environment.executor)
         }
     }
 }
@@ -0,0 +1,40 @@
+package org.dockercontainerobjects.support
+
+import org.dockercontainerobjects.util.debug
+import org.dockercontainerobjects.util.loggerFor
+import java.time.Duration
+import java.util.concurrent.CompletableFuture
+import java.util.concurrent.CompletionStage
+
+/**
+ * Late init container object that becomes ready when the given ports of its container accept connections,
+ * as for databases, brokers or caches. Ports are checked by the environment prober, without blocking a thread.
+ */
+abstract class PortBasedLateInitContainerObject : ScheduledCheckLateInitContainerObject() {
+
+    companion object {
+        private val l = loggerFor<PortBasedLateInitContainerObject>()
+    }
+
+    abstract protected val serverReadyPorts: Collection<Int>
+    /** how long a single check waits for the ports to accept connections */
+    open protected val checkTimeoutMillis get() = minOf(5_000, maxTimeoutMillis) // 5 seconds
+
+    override fun isServerReadyAsync(): CompletionStage<Boolean> {
+        val address = environment.manager.getContainerAddress(this)?.hostAddress
+                ?: return CompletableFuture<Boolean>().also {
+                    it.completeExceptionally(IllegalStateException("Container address is not available"))
+                }
+        val timeout = Duration.ofMillis(checkTimeoutMillis.toLong())
+        l.debug { "checking ports $serverReadyPorts of $address" }
+        val checks = serverReadyPorts.map { environment.prober.probePort(address, it, timeout) }
+        return CompletableFuture.allOf(*checks.toTypedArray()).thenApply { true }
+    }
+
+    override fun isServerReady(): Boolean =
+            try {
+                isServerReadyAsync().toCompletableFuture().get()
+            } catch (e: Exception) {
+                false
+            }
+}
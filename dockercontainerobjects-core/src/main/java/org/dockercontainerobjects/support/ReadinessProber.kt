@@ -0,0 +1,381 @@
+package org.dockercontainerobjects.support
+
+import org.dockercontainerobjects.util.debug
+import org.dockercontainerobjects.util.loggerFor
+import java.io.ByteArrayOutputStream
+import java.io.EOFException
+import java.io.IOException
+import java.net.InetAddress
+import java.net.InetSocketAddress
+import java.net.Proxy
+import java.net.URL
+import java.nio.ByteBuffer
+import java.nio.channels.AsynchronousChannelGroup
+import java.nio.channels.AsynchronousSocketChannel
+import java.nio.channels.CompletionHandler
+import java.nio.charset.StandardCharsets.ISO_8859_1
+import java.time.Duration
+import java.util.concurrent.CompletableFuture
+import java.util.concurrent.CompletionException
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.ConcurrentLinkedDeque
+import java.util.concurrent.ScheduledExecutorService
+import java.util.concurrent.ThreadFactory
+import java.util.concurrent.TimeUnit.MILLISECONDS
+import java.util.concurrent.TimeoutException
+import java.util.concurrent.atomic.AtomicInteger
+
+/**
+ * Checks if servers in containers are ready, without blocking a thread while waiting for them.
+ * It is shared by all the container objects of an environment: every check is done by a couple of threads,
+ * http connections are kept alive between checks of the same server, and the docker network proxy is honored.
+ */
+class ReadinessProber internal constructor(
+        private val proxy: Proxy,
+        private val scheduler: ScheduledExecutorService
+): AutoCloseable {
+
+    companion object {
+        private val l = loggerFor<ReadinessProber>()
+
+        const val THREADS = 2
+        const val MAX_IDLE_CONNECTIONS_PER_SERVER = 2
+        const val MAX_HEADER_BYTES = 16 * 1024
+        // bigger bodies are not read, the connection is closed instead
+        const val MAX_DISCARDED_BODY_BYTES = 64 * 1024L
+
+        private const val SOCKS_VERSION: Byte = 5
+        private val HEADER_END = "\r\n\r\n".toByteArray(ISO_8859_1)
+        private val IPV4 = Regex("""\d{1,3}(\.\d{1,3}){3}""")
+        private val threadCounter = AtomicInteger()
+    }
+
+    private val group = AsynchronousChannelGroup.withFixedThreadPool(THREADS, ThreadFactory {
+        Thread(it, "readiness-prober-${threadCounter.incrementAndGet()}").also { it.isDaemon = true }
+    })
+
+    private val idle: MutableMap<String, ConcurrentLinkedDeque<AsynchronousSocketChannel>> = ConcurrentHashMap()
+
+    /**
+     * Completes with the status code of the response, or exceptionally if the server cannot be reached
+     * or doesn't answer in time.
+     */
+    fun probe(url: URL, method: String, timeout: Duration): CompletableFuture<Int> {
+        if (url.protocol != "http")
+            throw IllegalArgumentException("Only http URLs can be probed without blocking: $url")
+        val exchange = Exchange(url, method, withTimeout(timeout) { "No response from $url in $timeout" })
+        exchange.start(idle[exchange.server]?.pollFirst())
+        return exchange.result
+    }
+
+    /**
+     * Completes once a connection to the port is accepted, or exceptionally if it is refused or not accepted in time.
+     * Through a proxy, the connection is accepted once the proxy is connected to the port.
+     */
+    fun probePort(host: String, port: Int, timeout: Duration): CompletableFuture<Unit> {
+        val check = PortCheck(host, port, withTimeout(timeout) { "Port $port of $host not open in $timeout" })
+        check.start()
+        return check.result
+    }
+
+    override fun close() {
+        idle.values.forEach { it.forEach { it.closeQuietly() } }
+        idle.clear()
+        group.shutdownNow()
+    }
+
+    private fun <T> withTimeout(timeout: Duration, message: () -> String): CompletableFuture<T> {
+        val result = CompletableFuture<T>()
+        val timeoutTask = scheduler.schedule(
+                Runnable { result.completeExceptionally(TimeoutException(message())) }, timeout.toMillis(), MILLISECONDS)
+        result.whenComplete { _, _ -> timeoutTask.cancel(false) }
+        return result
+    }
+
+    private fun release(server: String, channel: AsynchronousSocketChannel) {
+        val channels = idle.computeIfAbsent(server) { ConcurrentLinkedDeque() }
+        if (channels.size < MAX_IDLE_CONNECTIONS_PER_SERVER && !group.isShutdown) channels.addFirst(channel)
+        else channel.closeQuietly()
+    }
+
+    private abstract inner class Probe<T>(
+            protected val host: String,
+            protected val port: Int,
+            val result: CompletableFuture<T>
+    ) {
+        val server = "$host:$port"
+
+        @Volatile protected var channel: AsynchronousSocketChannel? = null
+
+        init {
+            // also stops the probe when timed out
+            result.whenComplete { _, e -> if (e !== null) channel?.closeQuietly() }
+        }
+
+        protected fun fail(e: Throwable) {
+            channel?.closeQuietly()
+            result.completeExceptionally((e as? CompletionException)?.cause ?: e)
+        }
+
+        /** connects to the server, through a tunnel when using an HTTP proxy and [tunnel] is requested */
+        protected fun connect(tunnel: Boolean): CompletableFuture<AsynchronousSocketChannel> =
+                try {
+                    val opened = AsynchronousSocketChannel.open(group)
+                    channel = opened
+                    if (result.isDone) opened.closeQuietly()
+                    val address = when (proxy.type()) {
+                        Proxy.Type.DIRECT -> InetSocketAddress(host, port)
+                        else -> (proxy.address() as InetSocketAddress).let {
+                            if (it.isUnresolved) InetSocketAddress(it.hostString, it.port) else it
+                        }
+                    }
+                    l.debug { "connecting to $server through $proxy" }
+                    val connected = async<Void?> { opened.connect(address, Unit, it) }
+                    when {
+                        proxy.type() == Proxy.Type.SOCKS -> connected.thenCompose { socksConnect(opened) }
+                        proxy.type() == Proxy.Type.HTTP && tunnel -> connected.thenCompose { httpConnect(opened) }
+                        else -> connected
+                    }.thenApply { opened }
+                } catch (e: Exception) {
+                    // also thrown for unresolved addresses or once closed
+                    failed(e)
+                }
+
+        private fun socksConnect(channel: AsynchronousSocketChannel): CompletableFuture<Unit> {
+            val reply = ByteBuffer.allocate(512)
+            return channel.writeFully(ByteBuffer.wrap(byteArrayOf(SOCKS_VERSION, 1, 0)))
+                    .thenCompose { channel.readAtLeast(reply, 2) }
+                    .thenCompose {
+                        if (reply.get(0) != SOCKS_VERSION || reply.get(1) != 0.toByte())
+                            throw IOException("SOCKS proxy $proxy requires an unsupported authentication")
+                        reply.clear()
+                        channel.writeFully(ByteBuffer.wrap(socksRequest()))
+                    }
+                    .thenCompose { channel.readAtLeast(reply, 5) }
+                    .thenCompose {
+                        if (reply.get(1) != 0.toByte())
+                            throw IOException("SOCKS proxy $proxy failed to connect to $server with code ${reply.get(1)}")
+                        val length = when (reply.get(3).toInt()) {
+                            1 -> 10
+                            4 -> 22
+                            3 -> 7 + (reply.get(4).toInt() and 0xFF)
+                            else -> throw IOException("SOCKS proxy $proxy sent an unknown address type")
+                        }
+                        channel.readAtLeast(reply, length)
+                    }
+                    .thenApply { Unit }
+        }
+
+        private fun socksRequest(): ByteArray {
+            val request = ByteArrayOutputStream()
+            request.write(byteArrayOf(SOCKS_VERSION, 1, 0))
+            when {
+                IPV4.matches(host) -> {
+                    request.write(1)
+                    request.write(InetAddress.getByName(host).address)
+                }
+                host.startsWith("[") || ':' in host -> {
+                    request.write(4)
+                    request.write(InetAddress.getByName(host).address)
+                }
+                else -> {
+                    val name = host.toByteArray(ISO_8859_1)
+                    request.write(3)
+                    request.write(name.size)
+                    request.write(name)
+                }
+            }
+            request.write(port shr 8 and 0xFF)
+            request.write(port and 0xFF)
+            return request.toByteArray()
+        }
+
+        private fun httpConnect(channel: AsynchronousSocketChannel): CompletableFuture<Unit> {
+            val reader = ResponseReader(channel)
+            return channel.writeFully(ByteBuffer.wrap("CONNECT $server HTTP/1.1\r\nHost: $server\r\n\r\n".toByteArray(ISO_8859_1)))
+                    .thenCompose { reader.readHeaders() }
+                    .thenApply {
+                        val statusCode = reader.headers(it).statusCode
+                        if (statusCode != 200)
+                            throw IOException("HTTP proxy $proxy failed to connect to $server with status $statusCode")
+                    }
+        }
+
+        protected inner class ResponseReader(private val channel: AsynchronousSocketChannel) {
+
+            var buffer: ByteBuffer = ByteBuffer.allocate(1024)
+                private set
+
+            /** completes with the number of bytes of the response headers, including the empty line after them */
+            fun readHeaders(): CompletableFuture<Int> {
+                val end = indexOfHeaderEnd()
+                if (end >= 0) return CompletableFuture.completedFuture(end + HEADER_END.size)
+                if (!buffer.hasRemaining()) {
+                    if (buffer.capacity() >= MAX_HEADER_BYTES)
+                        return failed(IOException("Response headers from $server are too big"))
+                    buffer.flip()
+                    buffer = ByteBuffer.allocate(buffer.capacity() * 2).put(buffer)
+                }
+                return channel.readSome(buffer).thenCompose { readHeaders() }
+            }
+
+            fun headers(headersLength: Int): ResponseHeaders {
+                val lines = String(buffer.array(), 0, headersLength, ISO_8859_1).split("\r\n")
+                val status = lines[0].split(' ')
+                val statusCode = status.getOrNull(1)?.toIntOrNull()
+                        ?: throw IOException("Invalid response from $server: ${lines[0]}")
+                val headers = lines.drop(1)
+                        .filter { ':' in it }
+                        .associate { it.substringBefore(':').trim().toLowerCase() to it.substringAfter(':').trim().toLowerCase() }
+                return ResponseHeaders(status[0], statusCode, headers)
+            }
+
+            fun discard(remaining: Long): CompletableFuture<Unit> {
+                if (remaining <= 0) return CompletableFuture.completedFuture(Unit)
+                buffer.clear()
+                if (remaining < buffer.capacity()) buffer.limit(remaining.toInt())
+                return channel.readSome(buffer).thenCompose { discard(remaining - it) }
+            }
+
+            private fun indexOfHeaderEnd(): Int {
+                val bytes = buffer.array()
+                for (i in 0..buffer.position() - HEADER_END.size) {
+                    var j = 0
+                    while (j < HEADER_END.size && bytes[i + j] == HEADER_END[j]) j++
+                    if (j == HEADER_END.size) return i
+                }
+                return -1
+            }
+        }
+    }
+
+    private class ResponseHeaders(val version: String, val statusCode: Int, val values: Map<String, String>)
+
+    private class Response(val statusCode: Int, val keepAlive: Boolean)
+
+    private inner class Exchange(
+            private val url: URL,
+            private val method: String,
+            result: CompletableFuture<Int>
+    ): Probe<Int>(url.host, if (url.port >= 0) url.port else url.defaultPort, result) {
+
+        fun start(reused: AsynchronousSocketChannel?) {
+            val response =
+                    if (reused !== null) {
+                        channel = reused
+                        exchange(reused)
+                    } else {
+                        connect(false).thenCompose { exchange(it) }
+                    }
+            response.whenComplete { r, e ->
+                val current = channel
+                when {
+                    e === null -> {
+                        // released before completing, so a probe started right after the answer reuses the connection
+                        if (r.keepAlive && !result.isDone) release(server, current!!) else current?.closeQuietly()
+                        result.complete(r.statusCode)
+                    }
+                    // the server may have closed a kept alive connection in the meantime
+                    reused !== null && !result.isDone -> {
+                        l.debug { "kept alive connection to $server failed, reconnecting" }
+                        reused.closeQuietly()
+                        start(null)
+                    }
+                    else -> fail(e)
+                }
+            }
+        }
+
+        private fun exchange(channel: AsynchronousSocketChannel): CompletableFuture<Response> {
+            val reader = ResponseReader(channel)
+            return channel.writeFully(ByteBuffer.wrap(request().toByteArray(ISO_8859_1)))
+                    .thenCompose { reader.readHeaders() }
+                    .thenCompose { readResponse(reader, it) }
+        }
+
+        // HTTP proxies expect the full URL, any other connection only the path
+        private fun request(): String {
+            val target =
+                    if (proxy.type() == Proxy.Type.HTTP) URL(url.protocol, host, port, url.file).toExternalForm()
+                    else if (url.file.isEmpty()) "/" else url.file
+            return "$method $target HTTP/1.1\r\n" +
+                    "Host: ${url.authority}\r\n" +
+                    "Accept: */*\r\n" +
+                    "Connection: keep-alive\r\n" +
+                    "\r\n"
+        }
+
+        private fun readResponse(reader: ResponseReader, headersLength: Int): CompletableFuture<Response> {
+            val headers = reader.headers(headersLength)
+            val statusCode = headers.statusCode
+            val connection = headers.values["connection"]
+            var keepAlive = if (headers.version == "HTTP/1.0") connection == "keep-alive" else connection != "close"
+            val bodyLength = when {
+                method == "HEAD" || statusCode in 100..199 || statusCode == 204 || statusCode == 304 -> 0L
+                "transfer-encoding" in headers.values -> null
+                else -> headers.values["content-length"]?.toLongOrNull()
+            }
+            val received = reader.buffer.position() - headersLength
+            if (bodyLength === null || bodyLength > MAX_DISCARDED_BODY_BYTES || received > bodyLength) keepAlive = false
+            if (!keepAlive) return CompletableFuture.completedFuture(Response(statusCode, false))
+            return reader.discard(bodyLength!! - received).thenApply { Response(statusCode, true) }
+        }
+    }
+
+    private inner class PortCheck(host: String, port: Int, result: CompletableFuture<Unit>)
+        : Probe<Unit>(host, port, result) {
+
+        fun start() {
+            connect(true).whenComplete { connected, e ->
+                if (e === null) {
+                    connected.closeQuietly()
+                    result.complete(Unit)
+                } else {
+                    fail(e)
+                }
+            }
+        }
+    }
+
+    private fun AsynchronousSocketChannel.writeFully(buffer: ByteBuffer): CompletableFuture<Unit> =
+            async<Int> { write(buffer, Unit, it) }.thenCompose {
+                if (buffer.hasRemaining()) writeFully(buffer) else CompletableFuture.completedFuture(Unit)
+            }
+
+    private fun AsynchronousSocketChannel.readSome(buffer: ByteBuffer): CompletableFuture<Int> =
+            async<Int> { read(buffer, Unit, it) }.thenCompose {
+                if (it < 0) failed(EOFException("Connection closed by the server")) else CompletableFuture.completedFuture(it)
+            }
+
+    private fun AsynchronousSocketChannel.readAtLeast(buffer: ByteBuffer, bytes: Int): CompletableFuture<Unit> =
+            if (buffer.position() >= bytes) CompletableFuture.completedFuture(Unit)
+            else readSome(buffer).thenCompose { readAtLeast(buffer, bytes) }
+
+    private fun <T> async(operation: (CompletionHandler<T, Unit>) -> Unit): CompletableFuture<T> {
+        val future = CompletableFuture<T>()
+        try {
+            operation(object: CompletionHandler<T, Unit> {
+                override fun completed(result: T, attachment: Unit) {
+                    future.complete(result)
+                }
+
+                override fun failed(e: Throwable, attachment: Unit) {
+                    future.completeExceptionally(e)
+                }
+            })
+        } catch (e: Exception) {
+            future.completeExceptionally(e)
+        }
+        return future
+    }
+
+    private fun <T> failed(e: Throwable) = CompletableFuture<T>().also { it.completeExceptionally(e) }
+
+    private fun AsynchronousSocketChannel.closeQuietly() {
+        try {
+            close()
+        } catch (e: IOException) {
+            l.debug { "error closing connection: ${e.localizedMessage}" }
+        }
+    }
+}
@@ -2,12 +2,17 @@ package org.dockercontainerobjects.support
 
 import org.dockercontainerobjects.ContainerObjectsEnvironment
 import org.dockercontainerobjects.annotations.AfterContainerStarted
+import org.dockercontainerobjects.annotations.BeforeStoppingContainer
 import org.dockercontainerobjects.util.debug
 import org.dockercontainerobjects.util.loggerFor
+import java.time.Duration
 import java.time.Instant
 import java.util.concurrent.CompletableFuture
+import java.util.concurrent.CompletionException
+import java.util.concurrent.CompletionStage
 import java.util.concurrent.ScheduledFuture
 import java.util.concurrent.TimeUnit.MILLISECONDS
+import java.util.concurrent.TimeoutException
 import javax.inject.Inject
 
 abstract class ScheduledCheckLateInitContainerObject: AbstractLateInitContainerObject() {
@@ -20,43 +25,114 @@ abstract class ScheduledCheckLateInitContainerObject: AbstractLateInitContainerO
     protected lateinit var environment: ContainerObjectsEnvironment
 
     private lateinit var started: Instant
-    private lateinit var checkfuture: ScheduledFuture<*>
+    private lateinit var schedule: CheckSchedule
+    // checks run one after the other, each one scheduling the next
+    @Volatile private var attempt = 0
+    @Volatile private var checkfuture: ScheduledFuture<*>? = null
+    @Volatile private var checkDone = false
+    // why the last check failed, reported if the time expires
+    @Volatile private var lastCheckFailure: Throwable? = null
     open protected val checkFrequencyMillis get() = 250 // 0.25 seconds
+    /** by default, a burst of checks every [checkFrequencyMillis] that then backs off */
+    open protected val checkSchedule: CheckSchedule
+        get() = BackoffCheckSchedule().withInitialDelay(checkFrequencyMillis.toLong())
 
     protected abstract fun isServerReady(): Boolean
 
+    /**
+     * Checks without blocking the executor, the next check is scheduled once the returned stage completes.
+     * By default, calls [isServerReady] in the executor.
+     */
+    protected open fun isServerReadyAsync(): CompletionStage<Boolean> =
+            try {
+                CompletableFuture.completedFuture(isServerReady())
+            } catch (e: Exception) {
+                CompletableFuture<Boolean>().also { it.completeExceptionally(e) }
+            }
+
     @AfterContainerStarted
     private fun onContainerStarted() {
         started = Instant.now()
+        schedule = checkSchedule
+        attempt = 0
+        checkDone = false
+        lastCheckFailure = null
         l.debug { "server starting at $started" }
-        scheduleCheck()
+        scheduleCheck(schedule.delayMillis(attempt))
+    }
+
+    // checks of a removed container would only hold readiness permits until the time expires
+    @BeforeStoppingContainer
+    private fun onContainerStopping() {
+        if (checkDone) return
+        l.debug { "container stopping before being ready, canceling checks" }
+        checkDone = true
+        checkfuture?.cancel(false)
+        markAsFailed(IllegalStateException("Container stopped before being ready after ${attempt + 1} checks"))
     }
 
-    private fun scheduleCheck() {
-        l.debug { "scheduling a check every $checkFrequencyMillis ms" }
-        checkfuture = environment.executor.scheduleWithFixedDelay(
-                this::checkServerReady, 0, checkFrequencyMillis.toLong(), MILLISECONDS)
+    private fun scheduleCheck(delayMillis: Long) {
+        // the last check is done when the time expires, not after it
+        val delay = minOf(delayMillis, remainingMillis()).coerceAtLeast(0)
+        l.debug { "scheduling check $attempt in $delay ms" }
+        checkfuture = environment.executor.schedule(this::checkServerReady, delay, MILLISECONDS)
+        if (checkDone) checkfuture?.cancel(false)
     }
 
     private fun cancelCheck(successful: Boolean) {
         l.debug { "canceling scheduled check. ready: $successful" }
-        checkfuture.cancel(false)
+        checkDone = true
+        checkfuture?.cancel(false)
         if (successful)
-            CompletableFuture
-                    .runAsync(Runnable { onBeforeReady() }, environment.executor)
-                    .thenRunAsync(Runnable { markAsReady() }, environment.executor)
+            markAsReadyAsync(environment.executor)
+        else
+            markAsFailed(TimeoutException("Server not ready after $maxTimeoutMillis ms and ${attempt + 1} checks")
+                    .also { e -> lastCheckFailure?.let { e.initCause(it) } })
     }
 
-    private fun isCheckExpired() =
-            started.plusMillis(maxTimeoutMillis.toLong()).isBefore(Instant.now())
+    private fun remainingMillis() =
+            Duration.between(Instant.now(), started.plusMillis(maxTimeoutMillis.toLong())).toMillis()
 
     private fun checkServerReady() {
+        if (checkDone) return
+        if (!environment.tryStartReadinessCheck()) {
+            // too many checks in flight in the environment, try again later without counting this one
+            if (remainingMillis() <= 0) {
+                cancelCheck(false)
+                return
+            }
+            l.debug { "readiness checks limit reached, delaying check $attempt" }
+            scheduleCheck(schedule.delayMillis(maxOf(attempt, 1)))
+            return
+        }
+        val check =
+                try {
+                    isServerReadyAsync()
+                } catch (e: Exception) {
+                    CompletableFuture<Boolean>().also { it.completeExceptionally(e) }
+                }
+        check.whenComplete { ready, e ->
+            environment.readinessCheckDone()
+            if (e !== null) {
+                lastCheckFailure = (e as? CompletionException)?.cause ?: e
+                l.debug { "check $attempt failed: ${e.localizedMessage}" }
+            }
+            onCheckDone(e === null && ready)
+        }
+    }
+
+    private fun onCheckDone(ready: Boolean) {
+        environment.metrics.readinessChecked(javaClass, ready)
+        // stopped while checking
+        if (checkDone) return
         // server ready!, stop
-        if (isServerReady())
+        if (ready)
             cancelCheck(true)
         // time expired, stop
-        else if (isCheckExpired())
+        else if (remainingMillis() <= 0)
             cancelCheck(false)
         // if no decision, will try again
+        else
+            scheduleCheck(schedule.delayMillis(++attempt))
     }
 }
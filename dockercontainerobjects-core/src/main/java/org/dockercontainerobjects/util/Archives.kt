@@ -6,12 +6,19 @@ package org.dockercontainerobjects.util
 import org.apache.commons.compress.archivers.tar.TarArchiveEntry
 import org.apache.commons.compress.archivers.tar.TarArchiveOutputStream
 import org.apache.commons.compress.compressors.gzip.GzipCompressorOutputStream
+import java.io.ByteArrayInputStream
 import java.io.ByteArrayOutputStream
+import java.io.File
+import java.io.FileInputStream
+import java.io.FileOutputStream
 import java.io.IOException
 import java.io.InputStream
 import java.io.OutputStream
 import java.net.URI
 import java.net.URL
+import java.security.MessageDigest
+
+const val ARCHIVE_BUFFER_SIZE = 64 * 1024
 
 @Throws(IOException::class)
 fun TarArchiveOutputStream.withEntry(entryname: String, content: ByteArray): TarArchiveOutputStream {
@@ -45,6 +52,62 @@ inline fun TarArchiveOutputStream.withEntry(entryname: String, content: Any) =
             else -> throw IllegalArgumentException("Unsupported type ${content.javaClass.name}")
         }
 
+@Throws(IOException::class)
+fun TarArchiveOutputStream.withEntry(
+        entryname: String,
+        size: Long,
+        content: InputStream,
+        digest: MessageDigest? = null
+): TarArchiveOutputStream {
+    val entry = TarArchiveEntry(entryname)
+    entry.size = size
+    putArchiveEntry(entry)
+    digest?.updateEntryHeader(entryname, size)
+    val buffer = ByteArray(ARCHIVE_BUFFER_SIZE)
+    var copied = 0L
+    while (true) {
+        val read = content.read(buffer)
+        if (read < 0) break
+        write(buffer, 0, read)
+        digest?.update(buffer, 0, read)
+        copied += read
+    }
+    if (copied != size)
+        throw IOException("Entry '$entryname' was expected to have $size bytes, but $copied were read")
+    closeArchiveEntry()
+    return this
+}
+
+/**
+ * Adds an entry copying its content straight into the archive, optionally updating a digest with it.
+ * Only contents with unknown size (plain input streams or URLs not reporting their length) are read in memory first.
+ */
+@Throws(IOException::class)
+fun TarArchiveOutputStream.withStreamedEntry(
+        entryname: String,
+        content: Any,
+        digest: MessageDigest? = null
+): TarArchiveOutputStream =
+        when (content) {
+            is ByteArray -> withEntry(entryname, content.size.toLong(), ByteArrayInputStream(content), digest)
+            is File -> FileInputStream(content).use { withEntry(entryname, content.length(), it, digest) }
+            is URI ->
+                when (content.scheme) {
+                    null -> withStreamedEntry(entryname, File(content.path), digest)
+                    "file" -> withStreamedEntry(entryname, File(content), digest)
+                    else -> withStreamedEntry(entryname, content.toURL(), digest)
+                }
+            is URL -> {
+                val connection = content.openConnection()
+                val size = connection.contentLengthLong
+                connection.getInputStream().use {
+                    if (size >= 0) withEntry(entryname, size, it, digest) else withStreamedEntry(entryname, it.content(), digest)
+                }
+            }
+            is InputStream -> withStreamedEntry(entryname, content.use { it.content() }, digest)
+            else -> throw IllegalArgumentException("Unsupported type ${content.javaClass.name}")
+        }
+
 @Throws(IOException::class)
 fun OutputStream.tar(producer: (TarArchiveOutputStream) -> Unit): OutputStream {
     val archive = TarArchiveOutputStream(this)
@@ -79,6 +142,22 @@ inline fun tar(gzipped: Boolean = false, entries: Map<String, Any>) =
             }
         }
 
+/**
+ * Writes a gzipped TAR archive to a temporary file, so it doesn't need to be kept in memory.
+ * The caller is responsible for deleting the file.
+ */
+@Throws(IOException::class)
+fun targzFile(producer: (TarArchiveOutputStream) -> Unit): File {
+    val file = File.createTempFile("dockercontainerobjects", ".tar.gz")
+    try {
+        GzipCompressorOutputStream(FileOutputStream(file).buffered(ARCHIVE_BUFFER_SIZE)).tar(producer).close()
+    } catch (e: Throwable) {
+        file.delete()
+        throw e
+    }
+    return file
+}
+
 @Throws(IOException::class)
 inline fun targz(noinline producer: (TarArchiveOutputStream) -> Unit) = tar(true, producer)
 
@@ -0,0 +1,50 @@
+@file:JvmName("Digests")
+
+package org.dockercontainerobjects.util
+
+import java.io.File
+import java.io.IOException
+import java.io.InputStream
+import java.nio.ByteBuffer
+import java.nio.file.Files
+import java.security.MessageDigest
+import java.util.stream.Collectors
+
+const val DIGEST_SHA256 = "SHA-256"
+const val DIGEST_BUFFER_SIZE = 64 * 1024
+
+fun sha256Digest(): MessageDigest = MessageDigest.getInstance(DIGEST_SHA256)
+
+fun MessageDigest.updateEntryHeader(name: String, size: Long): MessageDigest {
+    val nameBytes = name.toByteArray(Charsets.UTF_8)
+    update(ByteBuffer.allocate(12).putInt(nameBytes.size).putLong(size).array())
+    update(nameBytes)
+    return this
+}
+
+@Throws(IOException::class)
+fun MessageDigest.update(content: InputStream): MessageDigest {
+    val buffer = ByteArray(DIGEST_BUFFER_SIZE)
+    while (true) {
+        val read = content.read(buffer)
+        if (read < 0) break
+        update(buffer, 0, read)
+    }
+    return this
+}
+
+fun MessageDigest.hex(): String = digest().joinToString("") { String.format("%02x", it) }
+
+@Throws(IOException::class)
+fun File.treeSha256(): String {
+    val root = toPath()
+    val files = Files.walk(root).use {
+        it.filter { Files.isRegularFile(it) }.sorted().collect(Collectors.toList())
+    }
+    val digest = sha256Digest()
+    files.forEach { file ->
+        digest.updateEntryHeader(root.relativize(file).toString().replace(File.separatorChar, '/'), Files.size(file))
+        Files.newInputStream(file).use { digest.update(it) }
+    }
+    return digest.hex()
+}
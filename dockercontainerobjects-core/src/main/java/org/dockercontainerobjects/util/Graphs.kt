@@ -0,0 +1,24 @@
+@file:JvmName("Graphs")
+
+package org.dockercontainerobjects.util
+
+fun <T: Any> Collection<T>.sortedTopologically(dependencies: (T) -> Collection<T>): List<T> {
+    val result = LinkedHashSet<T>()
+    val visiting = mutableSetOf<T>()
+
+    fun visit(node: T) {
+        if (node in result) return
+        if (!visiting.add(node))
+            throw IllegalArgumentException("Dependency cycle detected involving '$node'")
+        dependencies(node).forEach {
+            if (it !in this)
+                throw IllegalArgumentException("Dependency '$it' of '$node' is not part of the graph")
+            visit(it)
+        }
+        visiting.remove(node)
+        result += node
+    }
+
+    forEach { visit(it) }
+    return result.toList()
+}
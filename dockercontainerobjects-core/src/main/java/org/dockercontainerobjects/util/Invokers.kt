@@ -0,0 +1,146 @@
+@file:JvmName("Invokers")
+
+package org.dockercontainerobjects.util
+
+import java.lang.invoke.LambdaMetafactory
+import java.lang.invoke.MethodHandles
+import java.lang.invoke.MethodHandles.Lookup
+import java.lang.invoke.MethodType
+import java.lang.reflect.Constructor
+import java.lang.reflect.InvocationTargetException
+import java.lang.reflect.Method
+import java.lang.reflect.Modifier.isStatic
+import java.util.concurrent.ConcurrentHashMap
+import java.util.function.BiConsumer
+import java.util.function.BiFunction
+import java.util.function.Consumer
+import java.util.function.Function
+
+private val l = loggerFor("org.dockercontainerobjects.util.Invokers")
+
+// Lookup.PUBLIC | Lookup.PRIVATE | Lookup.PROTECTED | Lookup.PACKAGE
+private const val LOOKUP_ALL_MODES = 0x0F
+
+interface MethodInvoker {
+    val method: Method
+    operator fun invoke(instance: Any?, vararg parameters: Any?): Any?
+}
+
+private val invokers = object: ClassValue<MutableMap<Method, MethodInvoker>>() {
+    override fun computeValue(type: Class<*>): MutableMap<Method, MethodInvoker> = ConcurrentHashMap()
+}
+
+private val privateLookupIn: Method? =
+        try {
+            MethodHandles::class.java.getMethod("privateLookupIn", Class::class.java, Lookup::class.java)
+        } catch (e: NoSuchMethodException) {
+            null
+        }
+
+private val lookupConstructor: Constructor<Lookup>? by lazy {
+    try {
+        Lookup::class.java.getDeclaredConstructor(Class::class.java, Int::class.javaPrimitiveType).reachable()
+    } catch (e: Exception) {
+        l.debug { "Private lookups are not available: ${e.localizedMessage}" }
+        null
+    }
+}
+
+/**
+ * Returns an invoker for this method, created once and reused afterwards.
+ * Instance methods with up to one parameter are called through a generated accessor, other methods
+ * (or methods whose class does not allow private lookups) fall back to reflection.
+ */
+fun Method.invoker(): MethodInvoker =
+        invokers.get(declaringClass).computeIfAbsent(this) { it.generatedInvoker() ?: ReflectiveInvoker(it.reachable()) }
+
+private fun Method.generatedInvoker(): MethodInvoker? {
+    if (isStatic(modifiers) || parameterCount > 1) return null
+    try {
+        val lookup = declaringClass.privateLookup() ?: return null
+        val handle = lookup.unreflect(this)
+        val void = returnType == Void.TYPE
+        val (samType, samName) = when {
+            parameterCount == 0 && void -> Consumer::class.java to "accept"
+            parameterCount == 0 -> Function::class.java to "apply"
+            void -> BiConsumer::class.java to "accept"
+            else -> BiFunction::class.java to "apply"
+        }
+        val samMethodType = samType.methods.first { it.name == samName && !it.isDefault }
+                .let { MethodType.methodType(it.returnType, it.parameterTypes) }
+        val instantiatedType = handle.type().wrap().let { if (void) it.changeReturnType(Void.TYPE) else it }
+        val site = LambdaMetafactory.metafactory(
+                lookup, samName, MethodType.methodType(samType), samMethodType, handle, instantiatedType)
+        val target = site.target.invokeWithArguments()
+        @Suppress("UNCHECKED_CAST")
+        return when (target) {
+            is Consumer<*> -> ConsumerInvoker(this, target as Consumer<Any?>)
+            is Function<*, *> -> FunctionInvoker(this, target as Function<Any?, Any?>)
+            is BiConsumer<*, *> -> BiConsumerInvoker(this, target as BiConsumer<Any?, Any?>)
+            else -> BiFunctionInvoker(this, target as BiFunction<Any?, Any?, Any?>)
+        }
+    } catch (e: Throwable) {
+        l.debug { "Method '$this' will be invoked using reflection: ${e.localizedMessage}" }
+        return null
+    }
+}
+
+private fun Class<*>.privateLookup(): Lookup? {
+    val caller = MethodHandles.lookup()
+    return privateLookupIn?.invoke(null, this, caller) as Lookup? ?: lookupConstructor?.newInstance(this, LOOKUP_ALL_MODES)
+}
+
+private class ReflectiveInvoker(override val method: Method): MethodInvoker {
+    override fun invoke(instance: Any?, vararg parameters: Any?): Any? {
+        try {
+            return method.invoke(instance, *parameters)
+        } catch (e: IllegalAccessException) {
+            l.warn(e)
+            throw IllegalArgumentException("Cannot access method '$method' due to: ${e.localizedMessage}", e)
+        } catch (e: InvocationTargetException) {
+            l.warn(e)
+            throw IllegalStateException("Exception invoking method '$method' due to: ${e.localizedMessage}", e)
+        }
+    }
+}
+
+private abstract class GeneratedInvoker(final override val method: Method): MethodInvoker {
+
+    final override fun invoke(instance: Any?, vararg parameters: Any?): Any? {
+        if (parameters.size != method.parameterCount)
+            throw IllegalArgumentException(
+                    "Method '$method' expects ${method.parameterCount} parameters, but ${parameters.size} were provided")
+        try {
+            return call(instance, parameters)
+        } catch (t: Throwable) {
+            // wrapped as reflection does, so callers see the same exceptions whichever invoker is used
+            val e = InvocationTargetException(t)
+            l.warn(e)
+            throw IllegalStateException("Exception invoking method '$method' due to: ${e.localizedMessage}", e)
+        }
+    }
+
+    protected abstract fun call(instance: Any?, parameters: Array<out Any?>): Any?
+}
+
+private class ConsumerInvoker(method: Method, private val target: Consumer<Any?>): GeneratedInvoker(method) {
+    override fun call(instance: Any?, parameters: Array<out Any?>): Any? {
+        target.accept(instance)
+        return null
+    }
+}
+
+private class FunctionInvoker(method: Method, private val target: Function<Any?, Any?>): GeneratedInvoker(method) {
+    override fun call(instance: Any?, parameters: Array<out Any?>) = target.apply(instance)
+}
+
+private class BiConsumerInvoker(method: Method, private val target: BiConsumer<Any?, Any?>): GeneratedInvoker(method) {
+    override fun call(instance: Any?, parameters: Array<out Any?>): Any? {
+        target.accept(instance, parameters[0])
+        return null
+    }
+}
+
+private class BiFunctionInvoker(method: Method, private val target: BiFunction<Any?, Any?, Any?>): GeneratedInvoker(method) {
+    override fun call(instance: Any?, parameters: Array<out Any?>) = target.apply(instance, parameters[0])
+}
@@ -3,7 +3,6 @@
 
 package org.dockercontainerobjects.util
 
-import java.lang.reflect.InvocationTargetException
 import java.lang.reflect.Method
 import java.util.Arrays
 import java.util.function.Predicate
@@ -48,17 +47,7 @@ inline fun expectingParameterCount(parameterCount: Int) = Predicate<Method> { it
 inline fun Method.isExpectingNoParameters() = this.parameterCount == 0
 inline fun expectingNoParameters() = Predicate<Method> { it.isExpectingNoParameters() }
 
-fun Method.call(instance: Any?, vararg parameters: Any): Any? {
-    try {
-        return reachable().invoke(instance, *parameters)
-    } catch (e: IllegalAccessException) {
-        l.warn(e)
-        throw IllegalArgumentException("Cannot access method '$this' due to: ${e.localizedMessage}", e)
-    } catch (e: InvocationTargetException) {
-        l.warn(e)
-        throw IllegalStateException("Exception invoking method '$this' due to: ${e.localizedMessage}", e)
-    }
-}
+fun Method.call(instance: Any?, vararg parameters: Any): Any? = invoker().invoke(instance, *parameters)
 
 fun <C: Any, T: Any, A: Any, R: Any> Class<C>.invokeMethods(
         instance: C?,
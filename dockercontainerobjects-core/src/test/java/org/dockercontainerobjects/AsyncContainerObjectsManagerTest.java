@@ -0,0 +1,91 @@
+package org.dockercontainerobjects;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.dockercontainerobjects.annotations.AfterContainerRemoved;
+import org.dockercontainerobjects.annotations.AfterContainerRestarted;
+import org.dockercontainerobjects.annotations.BeforeCreatingContainer;
+import org.dockercontainerobjects.annotations.RegistryImage;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("Asynchronous container object manager tests")
+@Tag("docker")
+public class AsyncContainerObjectsManagerTest extends ContainerObjectManagerBasedTest {
+
+    @Test
+    @DisplayName("A container object created asynchronously should be fully started when the future completes")
+    void createAsync() {
+        SimpleContainer instance = manager.createAsync(SimpleContainer.class).join();
+        assertNotNull(instance);
+        assertNotNull(manager.getContainerId(instance));
+        assertNotEquals(Thread.currentThread().getName(), instance.creatingThread);
+        manager.destroyAsync(instance).join();
+        assertEquals(1, instance.removed.get());
+    }
+
+    @Test
+    @DisplayName("Several container objects can be created concurrently")
+    void createAsyncConcurrently() {
+        CompletableFuture<SimpleContainer> first = manager.createAsync(SimpleContainer.class);
+        CompletableFuture<SimpleContainer> second = manager.createAsync(SimpleContainer.class);
+        CompletableFuture.allOf(first, second).join();
+        assertNotEquals(manager.getContainerId(first.join()), manager.getContainerId(second.join()));
+        CompletableFuture.allOf(manager.destroyAsync(first.join()), manager.destroyAsync(second.join())).join();
+    }
+
+    @Test
+    @DisplayName("A container object can be restarted asynchronously")
+    void restartAsync() {
+        SimpleContainer instance = manager.createAsync(SimpleContainer.class).join();
+        try {
+            manager.restartAsync(instance).join();
+            assertTrue(instance.restarted);
+        } finally {
+            manager.destroy(instance);
+        }
+    }
+
+    @Test
+    @DisplayName("A failure while creating a container object should complete the future exceptionally")
+    void createAsyncFailure() {
+        CompletionException e = assertThrows(CompletionException.class,
+                () -> manager.createAsync(MissingImageContainer.class).join());
+        assertTrue(e.getCause() instanceof IllegalArgumentException);
+    }
+
+    @RegistryImage("tomcat:jre8")
+    public static class SimpleContainer {
+
+        String creatingThread;
+        boolean restarted;
+        final AtomicInteger removed = new AtomicInteger();
+
+        @BeforeCreatingContainer
+        private void beforeCreatingContainer() {
+            creatingThread = Thread.currentThread().getName();
+        }
+
+        @AfterContainerRestarted
+        private void afterContainerRestarted() {
+            restarted = true;
+        }
+
+        @AfterContainerRemoved
+        private void afterContainerRemoved() {
+            removed.incrementAndGet();
+        }
+    }
+
+    public static class MissingImageContainer {
+        // no image defined, creation will fail
+    }
+}
@@ -0,0 +1,47 @@
+package org.dockercontainerobjects;
+
+import static org.dockercontainerobjects.ContainerObjectBuildingTest.TEST_DOCKERFILE_URL;
+import static org.dockercontainerobjects.ContainerObjectsManager.IMAGE_LABEL_CONTENT_HASH;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.stream.Collectors;
+import org.dockercontainerobjects.annotations.BuildImage;
+import org.dockercontainerobjects.docker.ImageInfo;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("Container object cached building tests")
+@Tag("docker")
+public class ContainerObjectCachedBuildTest extends ContainerObjectManagerBasedTest {
+
+    @Test
+    @DisplayName("An image built with the same content should be reused, and kept after the container is removed")
+    void imageReused() {
+        assertContainerRuns(CachedContainer.class);
+        List<ImageInfo> built = imagesWithContentHash();
+        assertEquals(1, built.size());
+        assertTrue(env.getDocker().getImages().inspect(built.get(0).getId()).getLabels().containsKey(IMAGE_LABEL_CONTENT_HASH));
+
+        assertContainerRuns(CachedContainer.class);
+        List<ImageInfo> reused = imagesWithContentHash();
+        assertEquals(built, reused);
+
+        String tag = reused.get(0).getTags().get(0).getRepository();
+        assertTrue(tag.startsWith("cached_container"));
+    }
+
+    private List<ImageInfo> imagesWithContentHash() {
+        return env.getDocker().getImages().list(null, null)
+                .stream()
+                .filter(info -> info.getTags().stream().anyMatch(it -> it.getRepository().startsWith("cached_container")))
+                .collect(Collectors.toList());
+    }
+
+    @BuildImage(value = TEST_DOCKERFILE_URL, cached = true)
+    public static class CachedContainer {
+        // nothing needed
+    }
+}
@@ -0,0 +1,85 @@
+package org.dockercontainerobjects
+
+import org.dockercontainerobjects.annotations.AfterContainerStarted
+import org.dockercontainerobjects.annotations.BeforeStoppingContainer
+import org.dockercontainerobjects.annotations.ContainerId
+import org.dockercontainerobjects.annotations.ContainerObject
+import org.dockercontainerobjects.annotations.OnLogEntry
+import org.dockercontainerobjects.annotations.RegistryImage
+import org.dockercontainerobjects.util.ofType
+import org.junit.jupiter.api.Assertions.assertEquals
+import org.junit.jupiter.api.Assertions.assertSame
+import org.junit.jupiter.api.Assertions.assertTrue
+import org.junit.jupiter.api.DisplayName
+import org.junit.jupiter.api.Tag
+import org.junit.jupiter.api.Test
+import javax.inject.Inject
+
+@DisplayName("Container object metadata tests")
+@Tag("util")
+class ContainerObjectMetadataTest {
+
+    @Test
+    @DisplayName("given a class, when metadata is requested twice, the same instance is returned")
+    fun metadataShared() {
+        assertSame(ContainerObjectMetadata.of(SampleContainer::class.java), ContainerObjectMetadata.of(SampleContainer::class.java))
+    }
+
+    @Test
+    @DisplayName("given a class hierarchy, lifecycle listeners include the ones declared on superclasses")
+    fun lifecycleListenersFromHierarchy() {
+        val metadata = ContainerObjectMetadata.of(SampleContainer::class.java)
+        assertEquals(
+                setOf("started", "baseStarted"),
+                metadata.lifecycleListeners(AfterContainerStarted::class.java).map { it.method.name }.toSet())
+        assertTrue(metadata.lifecycleListeners(BeforeStoppingContainer::class.java).isEmpty())
+    }
+
+    @Test
+    @DisplayName("given a class, when invoking lifecycle listeners, all of them are called on the instance")
+    fun lifecycleListenersInvoked() {
+        val instance = SampleContainer()
+        ContainerObjectMetadata.of(SampleContainer::class.java).invokeLifecycleListeners(instance, AfterContainerStarted::class.java)
+        assertEquals(2, instance.startedCount)
+    }
+
+    @Test
+    @DisplayName("given a class, image, log and field definitions are collected")
+    fun definitionsCollected() {
+        val metadata = ContainerObjectMetadata.of(SampleContainer::class.java)
+        assertEquals("tomcat:jre8", metadata.registryImage?.value)
+        assertEquals(listOf("log"), metadata.logEntryMethods.map { it.name })
+        assertEquals(listOf("inner"), metadata.instanceContainerFields.map { it.name })
+        assertTrue(metadata.classContainerFields.isEmpty())
+        assertEquals(listOf("id"), metadata.injectFields(ofType(String::class.java)).map { it.name })
+    }
+
+    open class BaseContainer {
+
+        var startedCount = 0
+
+        @AfterContainerStarted
+        fun baseStarted() {
+            startedCount++
+        }
+    }
+
+    @RegistryImage("tomcat:jre8")
+    class SampleContainer: BaseContainer() {
+
+        @Inject @ContainerId
+        var id: String? = null
+
+        @ContainerObject
+        var inner: BaseContainer? = null
+
+        @AfterContainerStarted
+        fun started() {
+            startedCount++
+        }
+
+        @OnLogEntry
+        fun log(entry: String) {
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package org.dockercontainerobjects;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.net.Proxy;
+import java.time.Duration;
+import org.dockercontainerobjects.annotations.AfterContainerStarted;
+import org.dockercontainerobjects.annotations.RegistryImage;
+import org.dockercontainerobjects.docker.impl.inmemory.InMemoryDockerImpl;
+import org.dockercontainerobjects.docker.impl.inmemory.InMemoryDockerOperation;
+import org.dockercontainerobjects.support.AbstractLateInitContainerObject;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("Container objects lifecycle metrics tests")
+@Tag("util")
+public class ContainerObjectsMetricsTest {
+
+    private static final int CONTAINERS = 5;
+
+    private ContainerObjectsEnvironment env;
+
+    @BeforeEach
+    void createEnvironment() {
+        InMemoryDockerImpl docker = new InMemoryDockerImpl(Duration.ZERO)
+                .withLatency(InMemoryDockerOperation.CONTAINER_START, Duration.ofMillis(5));
+        env = ContainerObjectsEnvironmentFactory.newEnvironment(docker, Proxy.NO_PROXY);
+    }
+
+    @AfterEach
+    void closeEnvironment() throws Exception {
+        env.close();
+    }
+
+    @Test
+    @DisplayName("Lifecycle operations should be timed per container class")
+    void operationsTimed() {
+        ContainerObjectsManager manager = env.getManager();
+        for (int i = 0; i < CONTAINERS; i++)
+            manager.destroy(manager.create(ReadyContainer.class));
+
+        ContainerObjectsMetrics metrics = env.getMetrics();
+        assertTrue(metrics.getContainerTypes().contains(ReadyContainer.class));
+        for (ContainerObjectLifecycleOperation operation: new ContainerObjectLifecycleOperation[] {
+                ContainerObjectLifecycleOperation.IMAGE_PULL,
+                ContainerObjectLifecycleOperation.CONTAINER_CREATE,
+                ContainerObjectLifecycleOperation.CONTAINER_START,
+                ContainerObjectLifecycleOperation.CONTAINER_READY,
+                ContainerObjectLifecycleOperation.CONTAINER_STOP,
+                ContainerObjectLifecycleOperation.CONTAINER_REMOVE }) {
+            assertNotNull(metrics.statistics(ReadyContainer.class, operation), operation.name());
+        }
+        // image is pulled only once, then known to the environment
+        assertEquals(1, metrics.statistics(ReadyContainer.class, ContainerObjectLifecycleOperation.IMAGE_PULL).getCount());
+        DurationStatistics start = metrics.statistics(ReadyContainer.class, ContainerObjectLifecycleOperation.CONTAINER_START);
+        assertEquals(CONTAINERS, start.getCount());
+        assertTrue(start.getMin().compareTo(Duration.ofMillis(5)) >= 0);
+        assertTrue(start.percentile(50).compareTo(start.getMax()) <= 0);
+        assertNull(metrics.statistics(ReadyContainer.class, ContainerObjectLifecycleOperation.IMAGE_BUILD));
+        assertTrue(metrics.summary().contains("CONTAINER_READY"));
+    }
+
+    @RegistryImage("inmemory/ready:latest")
+    public static class ReadyContainer extends AbstractLateInitContainerObject {
+
+        @AfterContainerStarted
+        void afterContainerStarted() {
+            markAsReady();
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package org.dockercontainerobjects;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.net.Proxy;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.dockercontainerobjects.annotations.AfterContainerRemoved;
+import org.dockercontainerobjects.annotations.BeforePoolingContainer;
+import org.dockercontainerobjects.annotations.Pooled;
+import org.dockercontainerobjects.annotations.RegistryImage;
+import org.dockercontainerobjects.docker.impl.inmemory.InMemoryDockerImpl;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("Container objects pool tests")
+@Tag("util")
+public class ContainerObjectsPoolTest {
+
+    private ContainerObjectsEnvironment env;
+    private ContainerObjectsManager manager;
+
+    @BeforeEach
+    void createEnvironment() {
+        SlowResetContainer.reset();
+        env = ContainerObjectsEnvironmentFactory.newEnvironment(new InMemoryDockerImpl(Duration.ZERO), Proxy.NO_PROXY);
+        manager = env.getManager();
+    }
+
+    @AfterEach
+    void closeEnvironment() throws Exception {
+        SlowResetContainer.release.countDown();
+        env.close();
+    }
+
+    @Test
+    @DisplayName("A container object beyond the pool size should be destroyed without being reset, even while another is being reset")
+    void slotReservedWhileResetting() throws Exception {
+        SlowResetContainer first = manager.create(SlowResetContainer.class);
+        SlowResetContainer second = manager.create(SlowResetContainer.class);
+
+        CompletableFuture<Void> pooling = manager.destroyAsync(first);
+        assertTrue(SlowResetContainer.resetting.await(5, TimeUnit.SECONDS));
+        manager.destroy(second);
+        assertEquals(0, second.resetCounter.get());
+        assertEquals(1, second.removedCounter.get());
+
+        SlowResetContainer.release.countDown();
+        pooling.get(5, TimeUnit.SECONDS);
+        assertEquals(1, first.resetCounter.get());
+        assertEquals(0, first.removedCounter.get());
+    }
+
+    @RegistryImage("inmemory/pooled:latest")
+    @Pooled(maxSize = 1)
+    public static class SlowResetContainer {
+
+        static CountDownLatch resetting;
+        static CountDownLatch release;
+
+        static void reset() {
+            resetting = new CountDownLatch(1);
+            release = new CountDownLatch(1);
+        }
+
+        final AtomicInteger resetCounter = new AtomicInteger();
+        final AtomicInteger removedCounter = new AtomicInteger();
+
+        @BeforePoolingContainer
+        private void beforePoolingContainer() throws InterruptedException {
+            resetCounter.incrementAndGet();
+            resetting.countDown();
+            release.await(5, TimeUnit.SECONDS);
+        }
+
+        @AfterContainerRemoved
+        private void afterContainerRemoved() {
+            removedCounter.incrementAndGet();
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package org.dockercontainerobjects;
+
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import org.dockercontainerobjects.annotations.AfterContainerStarted;
+import org.dockercontainerobjects.annotations.BeforeCreatingContainer;
+import org.dockercontainerobjects.annotations.BeforeStoppingContainer;
+import org.dockercontainerobjects.annotations.ContainerObject;
+import org.dockercontainerobjects.annotations.DependsOn;
+import org.dockercontainerobjects.annotations.ParallelSetup;
+import org.dockercontainerobjects.annotations.RegistryImage;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("Dependent container objects tests")
+@Tag("docker")
+public class DependentContainerObjectsTest extends ContainerObjectManagerBasedTest {
+
+    public static final AtomicInteger lifecycleIdGenerator = new AtomicInteger(0);
+
+    @Test
+    @DisplayName("A container should be created after its dependencies are started, and stopped before them")
+    void dependenciesRespected() {
+        OuterContainer outer = manager.create(OuterContainer.class);
+        ServiceContainer db = outer.db;
+        ServiceContainer app = outer.app;
+        assertNotNull(db);
+        assertNotNull(app);
+        assertNotNull(outer.cache);
+        assertTrue(db.started.get() < app.creating.get());
+        manager.destroy(outer);
+        assertTrue(app.stopping.get() < db.stopping.get());
+    }
+
+    @Test
+    @DisplayName("A dependency cycle should fail before any container is created")
+    void dependencyCycleFails() {
+        assertThrows(IllegalArgumentException.class, () -> manager.create(CyclicContainer.class));
+    }
+
+    @RegistryImage("tomcat:jre8")
+    @ParallelSetup
+    public static class OuterContainer {
+
+        @ContainerObject
+        @DependsOn("db")
+        ServiceContainer app;
+
+        @ContainerObject
+        ServiceContainer db;
+
+        @ContainerObject
+        ServiceContainer cache;
+    }
+
+    @RegistryImage("tomcat:jre8")
+    public static class CyclicContainer {
+
+        @ContainerObject
+        @DependsOn("second")
+        ServiceContainer first;
+
+        @ContainerObject
+        @DependsOn("first")
+        ServiceContainer second;
+    }
+
+    @RegistryImage("tomcat:jre8")
+    public static class ServiceContainer {
+
+        public final AtomicInteger creating = new AtomicInteger();
+        public final AtomicInteger started = new AtomicInteger();
+        public final AtomicInteger stopping = new AtomicInteger();
+
+        @BeforeCreatingContainer
+        private void beforeCreatingContainer() {
+            creating.set(lifecycleIdGenerator.incrementAndGet());
+        }
+
+        @AfterContainerStarted
+        private void afterContainerStarted() {
+            started.set(lifecycleIdGenerator.incrementAndGet());
+        }
+
+        @BeforeStoppingContainer
+        private void beforeStoppingContainer() {
+            stopping.set(lifecycleIdGenerator.incrementAndGet());
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package org.dockercontainerobjects
+
+import org.dockercontainerobjects.ContainerObjectLifecycleOperation.CONTAINER_START
+import org.dockercontainerobjects.ContainerObjectLifecycleOperation.CONTAINER_STOP
+import org.junit.jupiter.api.Assertions.assertEquals
+import org.junit.jupiter.api.Assertions.assertNull
+import org.junit.jupiter.api.Assertions.assertThrows
+import org.junit.jupiter.api.DisplayName
+import org.junit.jupiter.api.Tag
+import org.junit.jupiter.api.Test
+import java.time.Duration
+
+@DisplayName("Duration statistics tests")
+@Tag("util")
+class DurationStatisticsTest {
+
+    @Test
+    @DisplayName("given durations of several container classes, when aggregated, the statistics cover all of them")
+    fun statisticsAggregated() {
+        val metrics = ContainerObjectsMetrics()
+        metrics.record(String::class.java, CONTAINER_STOP, 10)
+        metrics.record(Int::class.java, CONTAINER_STOP, 30)
+        metrics.record(Int::class.java, CONTAINER_STOP, 20)
+
+        val stop = metrics.statistics(CONTAINER_STOP)!!
+        assertEquals(3, stop.count)
+        assertEquals(Duration.ofNanos(60), stop.total)
+        assertEquals(Duration.ofNanos(20), stop.mean)
+        assertEquals(Duration.ofNanos(10), stop.min)
+        assertEquals(Duration.ofNanos(30), stop.max)
+        assertEquals(Duration.ofNanos(20), stop.percentile(50.0))
+        assertEquals(Duration.ofNanos(30), stop.percentile(100.0))
+        assertEquals(2, metrics.statistics(Int::class.java, CONTAINER_STOP)!!.count)
+        assertNull(metrics.statistics(CONTAINER_START))
+    }
+
+    @Test
+    @DisplayName("given more durations than samples kept, when recorded, count and extremes are still exact")
+    fun samplesBounded() {
+        val metrics = ContainerObjectsMetrics()
+        val recorded = ContainerObjectsMetrics.MAX_SAMPLES * 3L
+        (1..recorded).forEach { metrics.record(String::class.java, CONTAINER_START, it) }
+
+        val start = metrics.statistics(String::class.java, CONTAINER_START)!!
+        assertEquals(recorded, start.count)
+        assertEquals(Duration.ofNanos(1), start.min)
+        assertEquals(Duration.ofNanos(recorded), start.max)
+        assertEquals(ContainerObjectsMetrics.MAX_SAMPLES, start.samplesNanos.size)
+    }
+
+    @Test
+    @DisplayName("given container classes sampled at different rates, when aggregated, each one weighs by its count")
+    fun aggregatedSamplesWeighted() {
+        val metrics = ContainerObjectsMetrics()
+        val busy = ContainerObjectsMetrics.MAX_SAMPLES * 3L
+        (1..busy).forEach { metrics.record(String::class.java, CONTAINER_START, 1000) }
+        (1..100).forEach { metrics.record(Int::class.java, CONTAINER_START, 1) }
+
+        // the quiet class is 0.33% of the durations, not the 0.99% its whole reservoir would make it
+        val start = metrics.statistics(CONTAINER_START)!!
+        assertEquals(busy + 100, start.count)
+        assertEquals(Duration.ofNanos(1), start.percentile(0.3))
+        assertEquals(Duration.ofNanos(1000), start.percentile(0.9))
+    }
+
+    @Test
+    @DisplayName("given an invalid percentage, when percentile requested, an exception is thrown")
+    fun invalidPercentile() {
+        val metrics = ContainerObjectsMetrics()
+        metrics.record(String::class.java, CONTAINER_START, 1)
+        assertThrows(IllegalArgumentException::class.java) { metrics.statistics(CONTAINER_START)!!.percentile(101.0) }
+    }
+}
@@ -0,0 +1,94 @@
+package org.dockercontainerobjects;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.net.Proxy;
+import java.time.Duration;
+import javax.inject.Inject;
+import org.dockercontainerobjects.annotations.AfterImagePrepared;
+import org.dockercontainerobjects.annotations.RegistryImage;
+import org.dockercontainerobjects.docker.Docker;
+import org.dockercontainerobjects.docker.ImageName;
+import org.dockercontainerobjects.docker.impl.inmemory.InMemoryDockerImpl;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("Image availability cache of an environment tests")
+@Tag("util")
+public class ImageAvailabilityCacheTest {
+
+    private static final ImageName IMAGE = new ImageName("inmemory/cached:latest");
+
+    private InMemoryDockerImpl docker;
+    private ContainerObjectsEnvironment env;
+    private ContainerObjectsManager manager;
+
+    @BeforeEach
+    void createEnvironment() {
+        docker = new InMemoryDockerImpl(Duration.ZERO);
+        env = ContainerObjectsEnvironmentFactory.newEnvironment(docker, Proxy.NO_PROXY);
+        manager = env.getManager();
+    }
+
+    @AfterEach
+    void closeEnvironment() throws Exception {
+        env.close();
+    }
+
+    @Test
+    @DisplayName("An image known to be available should not be pulled again")
+    void availableImageNotPulled() {
+        manager.destroy(manager.create(CachedContainer.class));
+        manager.destroy(manager.create(CachedContainer.class));
+        assertEquals(1, pulls());
+    }
+
+    @Test
+    @DisplayName("An image auto-removed by the environment should be pulled again while preparing the next creation")
+    void imageAutoRemovedPulledAgain() {
+        manager.destroy(manager.create(AutoRemovedContainer.class));
+        assertFalse(docker.getImages().isAvailable(IMAGE));
+        AutoRemovedContainer instance = manager.create(AutoRemovedContainer.class);
+        try {
+            assertTrue(instance.imagePresentWhenPrepared);
+        } finally {
+            manager.destroy(instance);
+        }
+    }
+
+    @Test
+    @DisplayName("An image removed outside the environment should be pulled again on the next creation")
+    void imageRemovedOutsideEnvironmentPulledAgain() {
+        manager.destroy(manager.create(CachedContainer.class));
+        docker.getImages().remove(IMAGE, false);
+        manager.destroy(manager.create(CachedContainer.class));
+        assertEquals(2, pulls());
+    }
+
+    private long pulls() {
+        return env.getMetrics().statistics(CachedContainer.class, ContainerObjectLifecycleOperation.IMAGE_PULL).getCount();
+    }
+
+    @RegistryImage("inmemory/cached:latest")
+    public static class CachedContainer {}
+
+    @RegistryImage(value = "inmemory/cached:latest", autoRemove = true)
+    public static class AutoRemovedContainer {
+
+        @Inject
+        private Docker docker;
+
+        boolean imagePresentWhenPrepared;
+
+        @AfterImagePrepared
+        void imagePrepared() {
+            // an image still believed available would only be pulled again after failing to create the container
+            imagePresentWhenPrepared = docker.getImages().isAvailable(IMAGE);
+        }
+    }
+}
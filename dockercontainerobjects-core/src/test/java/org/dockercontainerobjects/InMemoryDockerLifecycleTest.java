@@ -0,0 +1,159 @@
+package org.dockercontainerobjects;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.net.Proxy;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.dockercontainerobjects.annotations.AfterContainerStarted;
+import org.dockercontainerobjects.annotations.BuildImage;
+import org.dockercontainerobjects.annotations.BuildImageContent;
+import org.dockercontainerobjects.annotations.OnLogEntry;
+import org.dockercontainerobjects.annotations.RegistryImage;
+import org.dockercontainerobjects.docker.ImageId;
+import org.dockercontainerobjects.docker.ImageName;
+import org.dockercontainerobjects.docker.impl.inmemory.InMemoryDockerImpl;
+import org.dockercontainerobjects.docker.impl.inmemory.InMemoryLogScript;
+import org.dockercontainerobjects.support.ReadinessProberTest.TestServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("Container object lifecycle against an in memory docker tests")
+@Tag("util")
+public class InMemoryDockerLifecycleTest {
+
+    private static final int CONTAINERS = 50;
+
+    private InMemoryDockerImpl docker;
+    private ContainerObjectsEnvironment env;
+    private ContainerObjectsManager manager;
+
+    @BeforeEach
+    void createEnvironment() {
+        docker = new InMemoryDockerImpl(Duration.ofMillis(1));
+        env = ContainerObjectsEnvironmentFactory.newEnvironment(docker, Proxy.NO_PROXY);
+        manager = env.getManager();
+    }
+
+    @AfterEach
+    void closeEnvironment() throws Exception {
+        env.close();
+    }
+
+    @Test
+    @DisplayName("Many container objects created and destroyed concurrently should leave no container behind")
+    void concurrentLifecycles() {
+        List<CompletableFuture<SimpleContainer>> created = IntStream.range(0, CONTAINERS)
+                .mapToObj(i -> manager.createAsync(SimpleContainer.class))
+                .collect(Collectors.toList());
+        List<SimpleContainer> instances = created.stream().map(CompletableFuture::join).collect(Collectors.toList());
+        assertTrue(instances.stream().allMatch(it -> it.started));
+        assertEquals(CONTAINERS, docker.getContainers().list(null, null, null, null, null, false).size());
+        CompletableFuture.allOf(instances.stream().map(manager::destroyAsync).toArray(CompletableFuture[]::new)).join();
+        assertTrue(docker.getContainers().list(null, null, null, null, null, true).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Scripted log entries should be delivered to the container object")
+    void scriptedLogsDelivered() throws InterruptedException {
+        docker.withLogScript(new ImageName("inmemory/logging:latest"), new InMemoryLogScript()
+                .stdout("first", Duration.ZERO)
+                .stdout("second", Duration.ZERO));
+        LoggingContainer instance = manager.create(LoggingContainer.class);
+        try {
+            synchronized (instance.entries) {
+                long deadline = System.currentTimeMillis() + 5000;
+                while (instance.entries.size() < 2 && System.currentTimeMillis() < deadline)
+                    instance.entries.wait(100);
+            }
+            assertEquals(2, instance.entries.size());
+            assertEquals("first", instance.entries.get(0));
+        } finally {
+            manager.destroy(instance);
+        }
+    }
+
+    @Test
+    @DisplayName("Image content entries with an http URL should be downloaded from it")
+    void httpContentDownloaded() {
+        try (TestServer server = new TestServer(200, "content")) {
+            DownloadingContainer.url = server.url("/app.txt").toString();
+            manager.destroy(manager.create(DownloadingContainer.class));
+            assertEquals(Collections.singletonList("GET /app.txt HTTP/1.1"), server.getRequests());
+        }
+    }
+
+    @Test
+    @DisplayName("Cached images with a declared tag should keep it, and be reused by it")
+    void cachedImageTagKept() {
+        ImageName tag = new ImageName("myapp:it");
+        manager.destroy(manager.create(TaggedCachedContainer.class));
+        ImageId built = docker.getImages().getId(tag);
+        manager.destroy(manager.create(TaggedCachedContainer.class));
+        assertEquals(built, docker.getImages().getId(tag));
+        assertEquals(1, docker.getImages().list(null, null).size());
+    }
+
+    @Test
+    @DisplayName("Asynchronous operations on an unknown container object should fail through the future")
+    void unknownInstanceFailsFuture() {
+        SimpleContainer unknown = new SimpleContainer();
+        CompletableFuture<Void> destroyed = manager.destroyAsync(unknown);
+        CompletableFuture<Void> restarted = manager.restartAsync(unknown);
+        assertTrue(assertThrows(CompletionException.class, destroyed::join).getCause() instanceof IllegalArgumentException);
+        assertTrue(assertThrows(CompletionException.class, restarted::join).getCause() instanceof IllegalArgumentException);
+    }
+
+    @RegistryImage("inmemory/simple:latest")
+    public static class SimpleContainer {
+
+        volatile boolean started;
+
+        @AfterContainerStarted
+        void afterContainerStarted() {
+            started = true;
+        }
+    }
+
+    @BuildImage("classpath:///ContainerObjectBuildingIncludingResourcesTest_Dockerfile")
+    public static class DownloadingContainer {
+
+        static volatile String url;
+
+        @BuildImageContent
+        Map<String, Object> dockerImageContent() {
+            return Collections.singletonMap("app.txt", url);
+        }
+    }
+
+    @BuildImage(value = "classpath:///ContainerObjectBuildingIncludingResourcesTest_Dockerfile", tag = "myapp:it", cached = true)
+    public static class TaggedCachedContainer {
+        // nothing needed
+    }
+
+    @RegistryImage("inmemory/logging:latest")
+    public static class LoggingContainer {
+
+        final List<String> entries = new CopyOnWriteArrayList<>();
+
+        @OnLogEntry
+        void onLogEntry(String entry) {
+            synchronized (entries) {
+                entries.add(entry);
+                entries.notifyAll();
+            }
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package org.dockercontainerobjects;
+
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.net.Proxy;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import org.dockercontainerobjects.annotations.ContainerObject;
+import org.dockercontainerobjects.annotations.ParallelSetup;
+import org.dockercontainerobjects.annotations.ParallelTeardown;
+import org.dockercontainerobjects.annotations.RegistryImage;
+import org.dockercontainerobjects.docker.impl.inmemory.InMemoryDockerImpl;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("Nested parallel setup of container objects with a caller supplied executor tests")
+@Tag("util")
+public class NestedParallelSetupTest {
+
+    private InMemoryDockerImpl docker;
+    private ContainerObjectsEnvironment env;
+
+    @BeforeEach
+    void createEnvironment() {
+        docker = new InMemoryDockerImpl(Duration.ZERO);
+        // a single thread, so any task blocked waiting for another one in the same executor never finishes
+        env = new ContainerObjectsEnvironment(docker, Proxy.NO_PROXY, Executors.newScheduledThreadPool(1));
+    }
+
+    @AfterEach
+    void closeEnvironment() throws Exception {
+        env.close();
+        env.getExecutor().shutdownNow();
+    }
+
+    @Test
+    @DisplayName("Nested container objects with @ParallelSetup should be created and destroyed without blocking the executor")
+    void nestedParallelSetup() {
+        ContainerObjectsManager manager = env.getManager();
+        assertTimeoutPreemptively(Duration.ofSeconds(10), () -> {
+            OuterContainer outer = manager.create(OuterContainer.class);
+            assertNotNull(outer.middle1.inner1);
+            assertNotNull(outer.middle2.inner2);
+            manager.destroy(outer);
+        });
+        assertTrue(docker.getContainers().list(null, null, null, null, null, true).isEmpty());
+    }
+
+    @RegistryImage("inmemory/outer:latest")
+    @ParallelSetup
+    @ParallelTeardown
+    public static class OuterContainer {
+
+        @ContainerObject
+        MiddleContainer middle1;
+
+        @ContainerObject
+        MiddleContainer middle2;
+    }
+
+    @RegistryImage("inmemory/middle:latest")
+    @ParallelSetup
+    @ParallelTeardown
+    public static class MiddleContainer {
+
+        @ContainerObject
+        InnerContainer inner1;
+
+        @ContainerObject
+        InnerContainer inner2;
+    }
+
+    @RegistryImage("inmemory/inner:latest")
+    public static class InnerContainer {}
+}
@@ -0,0 +1,92 @@
+package org.dockercontainerobjects;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import org.dockercontainerobjects.annotations.AfterContainerRemoved;
+import org.dockercontainerobjects.annotations.BeforeCreatingContainer;
+import org.dockercontainerobjects.annotations.ContainerObject;
+import org.dockercontainerobjects.annotations.ParallelSetup;
+import org.dockercontainerobjects.annotations.RegistryImage;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("Parallel setup of container objects tests")
+@Tag("docker")
+public class ParallelSetupContainerObjectTest extends ContainerObjectManagerBasedTest {
+
+    public static final AtomicInteger removedCounter = new AtomicInteger(0);
+
+    @Test
+    @DisplayName("Containers in a class annotated with @ParallelSetup should be created outside the caller thread")
+    void containersCreatedInParallel() {
+        assertWithContainerInstance(OuterContainer.class, outer -> {
+            assertNotNull(outer.inner1);
+            assertNotNull(outer.inner2);
+            assertNotNull(outer.inner3);
+            assertNotEquals(Thread.currentThread().getName(), outer.inner1.creatingThread);
+            assertNotEquals(Thread.currentThread().getName(), outer.inner2.creatingThread);
+            assertNotEquals(Thread.currentThread().getName(), outer.inner3.creatingThread);
+        });
+    }
+
+    @Test
+    @DisplayName("If any container fails to be created, the already created ones should be destroyed")
+    void containersDestroyedOnFailure() {
+        removedCounter.set(0);
+        assertThrows(IllegalArgumentException.class, () -> manager.create(FailingOuterContainer.class));
+        assertEquals(2, removedCounter.get());
+    }
+
+    @RegistryImage("tomcat:jre8")
+    @ParallelSetup
+    public static class OuterContainer {
+
+        @ContainerObject
+        InnerContainer inner1;
+
+        @ContainerObject
+        InnerContainer inner2;
+
+        @ContainerObject
+        InnerContainer inner3;
+    }
+
+    @RegistryImage("tomcat:jre8")
+    @ParallelSetup
+    public static class FailingOuterContainer {
+
+        @ContainerObject
+        InnerContainer inner1;
+
+        @ContainerObject
+        InnerContainer inner2;
+
+        @ContainerObject
+        MissingImageContainer missing;
+    }
+
+    @RegistryImage("tomcat:jre8")
+    public static class InnerContainer {
+
+        String creatingThread;
+
+        @BeforeCreatingContainer
+        private void beforeCreatingContainer() {
+            creatingThread = Thread.currentThread().getName();
+        }
+
+        @AfterContainerRemoved
+        private void afterContainerRemoved() {
+            removedCounter.incrementAndGet();
+        }
+    }
+
+    public static class MissingImageContainer {
+        // no image defined, creation will fail
+    }
+}
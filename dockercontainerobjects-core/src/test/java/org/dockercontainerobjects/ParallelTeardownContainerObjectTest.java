@@ -0,0 +1,164 @@
+package org.dockercontainerobjects;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.net.Proxy;
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.dockercontainerobjects.annotations.AfterContainerStopped;
+import org.dockercontainerobjects.annotations.BeforeStoppingContainer;
+import org.dockercontainerobjects.annotations.ContainerObject;
+import org.dockercontainerobjects.annotations.DependsOn;
+import org.dockercontainerobjects.annotations.ParallelTeardown;
+import org.dockercontainerobjects.annotations.RegistryImage;
+import org.dockercontainerobjects.docker.impl.inmemory.InMemoryDockerImpl;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("Parallel teardown of container objects tests")
+@Tag("util")
+public class ParallelTeardownContainerObjectTest {
+
+    static final AtomicInteger sequence = new AtomicInteger();
+    static volatile CountDownLatch stopping;
+
+    private ScheduledExecutorService executor;
+    private InMemoryDockerImpl docker;
+    private ContainerObjectsEnvironment env;
+    private ContainerObjectsManager manager;
+
+    @BeforeEach
+    void createEnvironment() {
+        docker = new InMemoryDockerImpl(Duration.ZERO);
+        // enough threads to stop all containers at once, whatever the number of processors
+        executor = Executors.newScheduledThreadPool(4);
+        env = new ContainerObjectsEnvironment(docker, Proxy.NO_PROXY, executor);
+        manager = env.getManager();
+    }
+
+    @AfterEach
+    void closeEnvironment() throws Exception {
+        env.close();
+        executor.shutdown();
+    }
+
+    @Test
+    @DisplayName("Containers in a class annotated with @ParallelTeardown should be stopped concurrently")
+    void containersStoppedInParallel() {
+        stopping = new CountDownLatch(3);
+        OuterContainer outer = manager.create(OuterContainer.class);
+        InnerContainer[] inners = { outer.inner1, outer.inner2, outer.inner3 };
+        manager.destroy(outer);
+        for (InnerContainer inner: inners)
+            assertTrue(inner.allStoppingTogether);
+        assertTrue(docker.getContainers().list(null, null, null, null, null, true).isEmpty());
+    }
+
+    @Test
+    @DisplayName("A container should be stopped only after the containers depending on it are stopped")
+    void dependenciesRespected() {
+        DependentOuterContainer outer = manager.create(DependentOuterContainer.class);
+        ServiceContainer app = outer.app;
+        ServiceContainer db = outer.db;
+        manager.destroy(outer);
+        assertTrue(app.stopped.get() < db.stopping.get());
+    }
+
+    @Test
+    @DisplayName("All containers should be destroyed even if some fail, with all failures reported")
+    void failuresAggregated() {
+        FailingOuterContainer outer = manager.create(FailingOuterContainer.class);
+        ServiceContainer healthy = outer.healthy;
+        RuntimeException failure = assertThrows(RuntimeException.class, () -> manager.destroy(outer));
+        assertEquals(1, failure.getSuppressed().length);
+        assertTrue(healthy.stopped.get() > 0);
+    }
+
+    @RegistryImage("inmemory/outer:latest")
+    @ParallelTeardown
+    public static class OuterContainer {
+
+        @ContainerObject
+        InnerContainer inner1;
+
+        @ContainerObject
+        InnerContainer inner2;
+
+        @ContainerObject
+        InnerContainer inner3;
+    }
+
+    @RegistryImage("inmemory/outer:latest")
+    @ParallelTeardown
+    public static class DependentOuterContainer {
+
+        @ContainerObject
+        @DependsOn("db")
+        ServiceContainer app;
+
+        @ContainerObject
+        ServiceContainer db;
+    }
+
+    @RegistryImage("inmemory/outer:latest")
+    @ParallelTeardown
+    public static class FailingOuterContainer {
+
+        @ContainerObject
+        FailingContainer failing1;
+
+        @ContainerObject
+        FailingContainer failing2;
+
+        @ContainerObject
+        ServiceContainer healthy;
+    }
+
+    @RegistryImage("inmemory/inner:latest")
+    public static class InnerContainer {
+
+        volatile boolean allStoppingTogether;
+
+        @BeforeStoppingContainer
+        void beforeStoppingContainer() throws InterruptedException {
+            stopping.countDown();
+            allStoppingTogether = stopping.await(5, TimeUnit.SECONDS);
+        }
+    }
+
+    @RegistryImage("inmemory/inner:latest")
+    public static class ServiceContainer {
+
+        final AtomicInteger stopping = new AtomicInteger();
+        final AtomicInteger stopped = new AtomicInteger();
+
+        @BeforeStoppingContainer
+        void beforeStoppingContainer() throws InterruptedException {
+            stopping.set(sequence.incrementAndGet());
+            Thread.sleep(50);
+        }
+
+        @AfterContainerStopped
+        void afterContainerStopped() {
+            stopped.set(sequence.incrementAndGet());
+        }
+    }
+
+    @RegistryImage("inmemory/inner:latest")
+    public static class FailingContainer {
+
+        @BeforeStoppingContainer
+        void beforeStoppingContainer() {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package org.dockercontainerobjects;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import org.dockercontainerobjects.annotations.AfterContainerRemoved;
+import org.dockercontainerobjects.annotations.AfterContainerReused;
+import org.dockercontainerobjects.annotations.BeforePoolingContainer;
+import org.dockercontainerobjects.annotations.Pooled;
+import org.dockercontainerobjects.annotations.RegistryImage;
+import org.dockercontainerobjects.docker.ContainerLocator;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("Pooled container objects tests")
+@Tag("docker")
+public class PooledContainerObjectTest extends ContainerObjectManagerBasedTest {
+
+    @Test
+    @DisplayName("A destroyed pooled container object should be reused by the next creation")
+    void containerReused() {
+        PooledContainer first = manager.create(PooledContainer.class);
+        ContainerLocator containerId = manager.getContainerId(first);
+        manager.destroy(first);
+        assertEquals(1, first.resetCounter.get());
+        assertEquals(0, first.removedCounter.get());
+
+        PooledContainer second = manager.create(PooledContainer.class);
+        try {
+            assertSame(first, second);
+            assertEquals(containerId, manager.getContainerId(second));
+            assertEquals(1, second.reusedCounter.get());
+        } finally {
+            manager.destroy(second);
+        }
+    }
+
+    @Test
+    @DisplayName("Container objects beyond the pool size should be destroyed")
+    void poolSizeRespected() {
+        PooledContainer first = manager.create(PooledContainer.class);
+        PooledContainer second = manager.create(PooledContainer.class);
+        assertNotSame(first, second);
+        manager.destroy(first);
+        manager.destroy(second);
+        assertEquals(0, first.removedCounter.get());
+        assertEquals(1, second.removedCounter.get());
+
+        PooledContainer third = manager.create(PooledContainer.class);
+        assertSame(first, third);
+        manager.destroy(third);
+    }
+
+    @Test
+    @DisplayName("Idle pooled container objects should be destroyed after the idle time")
+    void idleContainerEvicted() throws InterruptedException {
+        ShortLivedPooledContainer instance = manager.create(ShortLivedPooledContainer.class);
+        manager.destroy(instance);
+        for (int i = 0; i < 100 && instance.removedCounter.get() == 0; i++) {
+            Thread.sleep(100);
+        }
+        assertEquals(1, instance.removedCounter.get());
+    }
+
+    @RegistryImage("tomcat:jre8")
+    @Pooled
+    public static class PooledContainer {
+
+        final AtomicInteger resetCounter = new AtomicInteger();
+        final AtomicInteger reusedCounter = new AtomicInteger();
+        final AtomicInteger removedCounter = new AtomicInteger();
+
+        @BeforePoolingContainer
+        private void beforePoolingContainer() {
+            resetCounter.incrementAndGet();
+        }
+
+        @AfterContainerReused
+        private void afterContainerReused() {
+            reusedCounter.incrementAndGet();
+        }
+
+        @AfterContainerRemoved
+        private void afterContainerRemoved() {
+            removedCounter.incrementAndGet();
+        }
+    }
+
+    @RegistryImage("tomcat:jre8")
+    @Pooled(maxIdleMillis = 500)
+    public static class ShortLivedPooledContainer {
+
+        final AtomicInteger removedCounter = new AtomicInteger();
+
+        @AfterContainerRemoved
+        private void afterContainerRemoved() {
+            removedCounter.incrementAndGet();
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package org.dockercontainerobjects;
+
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.net.Proxy;
+import java.time.Duration;
+import org.dockercontainerobjects.annotations.RegistryImage;
+import org.dockercontainerobjects.annotations.Teardown;
+import org.dockercontainerobjects.docker.impl.inmemory.InMemoryDockerImpl;
+import org.dockercontainerobjects.docker.impl.inmemory.InMemoryDockerOperation;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("Container teardown policies tests")
+@Tag("util")
+public class TeardownPolicyTest {
+
+    // a graceful stop takes much longer than the time allowed to the teardown
+    private static final Duration GRACEFUL_STOP = Duration.ofSeconds(30);
+    private static final Duration FAST_TEARDOWN = Duration.ofSeconds(5);
+
+    private InMemoryDockerImpl docker;
+    private ContainerObjectsEnvironment env;
+    private ContainerObjectsManager manager;
+
+    @BeforeEach
+    void createEnvironment() {
+        docker = new InMemoryDockerImpl(Duration.ZERO)
+                .withLatency(InMemoryDockerOperation.CONTAINER_STOP, GRACEFUL_STOP);
+        env = ContainerObjectsEnvironmentFactory.newEnvironment(docker, Proxy.NO_PROXY);
+        manager = env.getManager();
+    }
+
+    @AfterEach
+    void closeEnvironment() throws Exception {
+        env.close();
+    }
+
+    @Test
+    @DisplayName("A container of a class with the kill policy should be killed instead of stopped")
+    void killPolicy() {
+        KilledContainer instance = manager.create(KilledContainer.class);
+        assertTimeoutPreemptively(FAST_TEARDOWN, () -> manager.destroy(instance));
+        assertNoContainers();
+    }
+
+    @Test
+    @DisplayName("A container of a class with the kill policy that already exited should still be removed")
+    void killPolicyExited() {
+        KilledContainer instance = manager.create(KilledContainer.class);
+        docker.getContainers().kill(manager.getContainerId(instance));
+        assertTimeoutPreemptively(FAST_TEARDOWN, () -> manager.destroy(instance));
+        assertNoContainers();
+    }
+
+    @Test
+    @DisplayName("A container of a class with the force remove policy should be removed while running")
+    void forceRemovePolicy() {
+        RemovedContainer instance = manager.create(RemovedContainer.class);
+        assertTimeoutPreemptively(FAST_TEARDOWN, () -> manager.destroy(instance));
+        assertNoContainers();
+    }
+
+    @Test
+    @DisplayName("A container of a class without policy should use the environment policy")
+    void environmentPolicy() {
+        env.setTeardownPolicy(TeardownPolicy.KILL);
+        PlainContainer instance = manager.create(PlainContainer.class);
+        assertTimeoutPreemptively(FAST_TEARDOWN, () -> manager.destroy(instance));
+        assertNoContainers();
+    }
+
+    @Test
+    @DisplayName("A container of a class with the force remove policy should be restarted")
+    void forceRemovePolicyRestart() {
+        RemovedContainer instance = manager.create(RemovedContainer.class);
+        try {
+            assertTimeoutPreemptively(FAST_TEARDOWN, () -> manager.restart(instance));
+            assertTrue(manager.isContainerRunning(instance));
+        } finally {
+            manager.destroy(instance);
+        }
+    }
+
+    private void assertNoContainers() {
+        assertTrue(docker.getContainers().list(null, null, null, null, null, true).isEmpty());
+    }
+
+    @RegistryImage("inmemory/teardown:latest")
+    @Teardown(policy = TeardownPolicy.KILL)
+    public static class KilledContainer {
+    }
+
+    @RegistryImage("inmemory/teardown:latest")
+    @Teardown(policy = TeardownPolicy.FORCE_REMOVE)
+    public static class RemovedContainer {
+    }
+
+    @RegistryImage("inmemory/teardown:latest")
+    public static class PlainContainer {
+    }
+}
@@ -0,0 +1,46 @@
+package org.dockercontainerobjects.support
+
+import org.junit.jupiter.api.Assertions.assertEquals
+import org.junit.jupiter.api.Assertions.assertTrue
+import org.junit.jupiter.api.DisplayName
+import org.junit.jupiter.api.Tag
+import org.junit.jupiter.api.Test
+
+@DisplayName("Check schedule util tests")
+@Tag("util")
+class CheckScheduleTest {
+
+    @Test
+    @DisplayName("given a fixed schedule, when delays are requested, the first check is immediate and the rest periodic")
+    fun fixedSchedule() {
+        val schedule = FixedCheckSchedule(100)
+        assertEquals(listOf(0L, 100L, 100L, 100L), (0..3).map { schedule.delayMillis(it) })
+    }
+
+    @Test
+    @DisplayName("given a backoff schedule without jitter, when delays are requested, a burst is followed by a capped exponential backoff")
+    fun backoffSchedule() {
+        val schedule = BackoffCheckSchedule()
+                .withInitialDelay(100).withMaxDelay(500).withMultiplier(2.0).withJitter(0.0).withFastStartChecks(2)
+        assertEquals(listOf(0L, 100L, 100L, 200L, 400L, 500L, 500L), (0..6).map { schedule.delayMillis(it) })
+    }
+
+    @Test
+    @DisplayName("given a backoff schedule with jitter, when delays are requested, they are spread around the expected delay")
+    fun jitteredSchedule() {
+        val schedule = BackoffCheckSchedule().withInitialDelay(1_000).withJitter(0.2).withFastStartChecks(1)
+        val delays = (1..200).map { schedule.delayMillis(1) }
+        assertTrue(delays.all { it in 800..1_200 })
+        assertTrue(delays.distinct().size > 1)
+    }
+
+    @Test
+    @DisplayName("given the default backoff schedule, when waiting five minutes, far fewer checks than with a fixed period are done")
+    fun fewerChecks() {
+        val schedule = BackoffCheckSchedule()
+        var elapsed = 0L
+        var checks = 0
+        while (elapsed < 300_000) elapsed += schedule.delayMillis(checks++)
+        assertTrue(checks < 100, "$checks checks")
+    }
+}
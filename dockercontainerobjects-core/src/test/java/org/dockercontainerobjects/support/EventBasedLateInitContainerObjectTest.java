@@ -0,0 +1,134 @@
+package org.dockercontainerobjects.support;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.net.Proxy;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.dockercontainerobjects.ContainerObjectsEnvironment;
+import org.dockercontainerobjects.ContainerObjectsEnvironmentFactory;
+import org.dockercontainerobjects.ContainerObjectsManager;
+import org.dockercontainerobjects.annotations.RegistryImage;
+import org.dockercontainerobjects.docker.ContainerEvent;
+import org.dockercontainerobjects.docker.ContainerEventType;
+import org.dockercontainerobjects.docker.ContainerHealthStatus;
+import org.dockercontainerobjects.docker.impl.inmemory.InMemoryDockerImpl;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("extending EventBasedLateInitContainerObject tests")
+@Tag("util")
+public class EventBasedLateInitContainerObjectTest {
+
+    private InMemoryDockerImpl docker;
+    private ContainerObjectsEnvironment env;
+    private ContainerObjectsManager manager;
+
+    @BeforeEach
+    void createEnvironment() {
+        docker = new InMemoryDockerImpl(Duration.ZERO);
+        env = ContainerObjectsEnvironmentFactory.newEnvironment(docker, Proxy.NO_PROXY);
+        manager = env.getManager();
+    }
+
+    @AfterEach
+    void closeEnvironment() throws Exception {
+        env.close();
+    }
+
+    @Test
+    @DisplayName("Container ready once the expected event is received")
+    void readyOnEvent() {
+        try (ContainerObjectReference<StartedContainer> ref = ContainerObjectReference.newReference(env, StartedContainer.class)) {
+            assertTimeoutPreemptively(Duration.ofSeconds(5), () -> ref.getInstance().waitForReady());
+            assertTrue(ref.getInstance().isReady());
+            assertTrue(ref.getInstance().beforeReadyCalled.get());
+        }
+    }
+
+    @Test
+    @DisplayName("Container dying before being ready fails right away instead of timing out")
+    void failedOnDie() {
+        try (ContainerObjectReference<HealthyContainer> ref = ContainerObjectReference.newReference(env, HealthyContainer.class)) {
+            docker.getContainers().kill(manager.getContainerId(ref.getInstance()));
+            assertTimeoutPreemptively(Duration.ofSeconds(5), () ->
+                    assertThrows(IllegalStateException.class, () -> ref.getInstance().waitForReady(60_000)));
+            assertFalse(ref.getInstance().isReady());
+        }
+    }
+
+    @Test
+    @DisplayName("Container without a ready event fails once the time expires")
+    void failedOnTimeout() {
+        try (ContainerObjectReference<NeverReadyContainer> ref = ContainerObjectReference.newReference(env, NeverReadyContainer.class)) {
+            CompletableFuture<Void> ready = ref.getInstance().readyFuture();
+            ExecutionException e = assertThrows(ExecutionException.class, () -> ready.get(5, TimeUnit.SECONDS));
+            assertTrue(e.getCause() instanceof TimeoutException);
+            assertFalse(ref.getInstance().isReady());
+        }
+    }
+
+    @Test
+    @DisplayName("Container whose events end before being ready fails with the error of the stream")
+    void failedOnEventsEnded() {
+        try (ContainerObjectReference<HealthyContainer> ref = ContainerObjectReference.newReference(env, HealthyContainer.class)) {
+            IOException error = new IOException("Connection reset");
+            docker.endEventStreams(error);
+            CompletableFuture<Void> ready = ref.getInstance().readyFuture();
+            ExecutionException e = assertThrows(ExecutionException.class, () -> ready.get(5, TimeUnit.SECONDS));
+            assertTrue(e.getCause() instanceof IllegalStateException);
+            assertSame(error, e.getCause().getCause());
+        }
+    }
+
+    @RegistryImage("inmemory/events:latest")
+    public static class StartedContainer extends EventBasedLateInitContainerObject {
+
+        final AtomicBoolean beforeReadyCalled = new AtomicBoolean(false);
+
+        @Override
+        protected boolean isReadyEvent(ContainerEvent event) {
+            return event.getType() == ContainerEventType.START;
+        }
+
+        @Override
+        protected void onBeforeReady() {
+            beforeReadyCalled.set(true);
+        }
+    }
+
+    @RegistryImage("inmemory/events:latest")
+    public static class HealthyContainer extends EventBasedLateInitContainerObject {
+
+        @Override
+        protected boolean isReadyEvent(ContainerEvent event) {
+            return event.getHealthStatus() == ContainerHealthStatus.HEALTHY;
+        }
+    }
+
+    @RegistryImage("inmemory/events:latest")
+    public static class NeverReadyContainer extends EventBasedLateInitContainerObject {
+
+        @Override
+        protected int getMaxTimeoutMillis() {
+            return 100;
+        }
+
+        @Override
+        protected boolean isReadyEvent(ContainerEvent event) {
+            return false;
+        }
+    }
+}
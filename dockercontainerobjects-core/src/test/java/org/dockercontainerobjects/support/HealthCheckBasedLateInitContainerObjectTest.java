@@ -0,0 +1,71 @@
+package org.dockercontainerobjects.support;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.net.Proxy;
+import java.time.Duration;
+import org.dockercontainerobjects.ContainerObjectsEnvironment;
+import org.dockercontainerobjects.ContainerObjectsEnvironmentFactory;
+import org.dockercontainerobjects.ContainerObjectsManager;
+import org.dockercontainerobjects.annotations.RegistryImage;
+import org.dockercontainerobjects.docker.ContainerHealthStatus;
+import org.dockercontainerobjects.docker.ImageName;
+import org.dockercontainerobjects.docker.impl.inmemory.InMemoryDockerImpl;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("extending HealthCheckBasedLateInitContainerObject tests")
+@Tag("util")
+public class HealthCheckBasedLateInitContainerObjectTest {
+
+    private InMemoryDockerImpl docker;
+    private ContainerObjectsEnvironment env;
+    private ContainerObjectsManager manager;
+
+    @BeforeEach
+    void createEnvironment() {
+        docker = new InMemoryDockerImpl(Duration.ZERO)
+                .withHealthCheck(new ImageName("inmemory/healthcheck:latest"), Duration.ofMillis(100));
+        env = ContainerObjectsEnvironmentFactory.newEnvironment(docker, Proxy.NO_PROXY);
+        manager = env.getManager();
+    }
+
+    @AfterEach
+    void closeEnvironment() throws Exception {
+        env.close();
+    }
+
+    @Test
+    @DisplayName("Container ready once its health check reports it as healthy")
+    void readyWhenHealthy() {
+        try (ContainerObjectReference<HealthCheckedContainer> ref = ContainerObjectReference.newReference(env, HealthCheckedContainer.class)) {
+            assertTimeoutPreemptively(Duration.ofSeconds(5), () -> ref.getInstance().waitForReady());
+            assertTrue(ref.getInstance().isReady());
+            assertEquals(ContainerHealthStatus.HEALTHY,
+                    docker.getContainers().inspect(manager.getContainerId(ref.getInstance())).getHealth());
+        }
+    }
+
+    @Test
+    @DisplayName("Container without health check fails right away instead of timing out")
+    void failedWithoutHealthCheck() {
+        try (ContainerObjectReference<UncheckedContainer> ref = ContainerObjectReference.newReference(env, UncheckedContainer.class)) {
+            assertTimeoutPreemptively(Duration.ofSeconds(5), () ->
+                    assertThrows(IllegalStateException.class, () -> ref.getInstance().waitForReady(60_000)));
+            assertFalse(ref.getInstance().isReady());
+        }
+    }
+
+    @RegistryImage("inmemory/healthcheck:latest")
+    public static class HealthCheckedContainer extends HealthCheckBasedLateInitContainerObject {}
+
+    @RegistryImage("inmemory/unchecked:latest")
+    public static class UncheckedContainer extends HealthCheckBasedLateInitContainerObject {}
+}
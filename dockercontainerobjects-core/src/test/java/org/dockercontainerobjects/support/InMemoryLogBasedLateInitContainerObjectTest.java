@@ -0,0 +1,135 @@
+package org.dockercontainerobjects.support;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.net.Proxy;
+import java.time.Duration;
+import java.util.concurrent.TimeoutException;
+import java.util.regex.Pattern;
+import org.dockercontainerobjects.ContainerObjectsEnvironment;
+import org.dockercontainerobjects.ContainerObjectsEnvironmentFactory;
+import org.dockercontainerobjects.annotations.RegistryImage;
+import org.dockercontainerobjects.docker.ImageName;
+import org.dockercontainerobjects.docker.impl.inmemory.InMemoryDockerImpl;
+import org.dockercontainerobjects.docker.impl.inmemory.InMemoryLogScript;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("extending LogBasedLateInitContainerObject against an in memory docker tests")
+@Tag("util")
+public class InMemoryLogBasedLateInitContainerObjectTest {
+
+    private ContainerObjectsEnvironment env;
+
+    @BeforeEach
+    void createEnvironment() {
+        InMemoryDockerImpl docker = new InMemoryDockerImpl(Duration.ZERO)
+                .withLogScript(new ImageName("inmemory/server:latest"), new InMemoryLogScript()
+                        .stdout("Inicializando el servidor \u00f1 \u2026", Duration.ZERO)
+                        .stdout("Server startup in 42 ms", Duration.ofMillis(50)));
+        env = ContainerObjectsEnvironmentFactory.newEnvironment(docker, Proxy.NO_PROXY);
+    }
+
+    @AfterEach
+    void closeEnvironment() throws Exception {
+        env.close();
+    }
+
+    @Test
+    @DisplayName("Container ready once a log entry contains the literal pattern")
+    void readyOnLiteral() {
+        assertReady(LiteralContainer.class);
+    }
+
+    @Test
+    @DisplayName("Container ready once a log entry contains the quoted pattern")
+    void readyOnQuotedLiteral() {
+        assertReady(QuotedContainer.class);
+    }
+
+    @Test
+    @DisplayName("Container ready once a log entry matches the regular expression")
+    void readyOnRegex() {
+        assertReady(RegexContainer.class);
+    }
+
+    @Test
+    @DisplayName("Container ready once a non ASCII log entry matches the regular expression")
+    void readyOnNonAsciiRegex() {
+        assertReady(NonAsciiContainer.class);
+    }
+
+    @Test
+    @DisplayName("Container not ready if no log entry matches the pattern")
+    void notReadyWithoutMatch() {
+        try (ContainerObjectReference<WrongContainer> ref = ContainerObjectReference.newReference(env, WrongContainer.class)) {
+            assertTimeoutPreemptively(Duration.ofSeconds(5), () -> {
+                RuntimeException ex = assertThrows(RuntimeException.class, () -> ref.getInstance().waitForReady());
+                assertTrue(ex.getCause() instanceof TimeoutException);
+            });
+            assertFalse(ref.getInstance().isReady());
+        }
+    }
+
+    private <T extends LogBasedLateInitContainerObject> void assertReady(Class<T> type) {
+        try (ContainerObjectReference<T> ref = ContainerObjectReference.newReference(env, type)) {
+            assertTimeoutPreemptively(Duration.ofSeconds(5), () -> ref.getInstance().waitForReady());
+            assertTrue(ref.getInstance().isReady());
+        }
+    }
+
+    @RegistryImage("inmemory/server:latest")
+    public static abstract class ServerContainer extends LogBasedLateInitContainerObject {
+
+        @Override
+        protected int getMaxTimeoutMillis() {
+            return 1000;
+        }
+    }
+
+    public static class LiteralContainer extends ServerContainer {
+
+        @Override
+        protected Pattern getServerReadyLogEntry() {
+            return Pattern.compile("Server startup");
+        }
+    }
+
+    public static class QuotedContainer extends ServerContainer {
+
+        @Override
+        protected Pattern getServerReadyLogEntry() {
+            return Pattern.compile(Pattern.quote("startup in 42 ms"));
+        }
+    }
+
+    public static class RegexContainer extends ServerContainer {
+
+        @Override
+        protected Pattern getServerReadyLogEntry() {
+            return Pattern.compile("Server startup in \\d+ ms");
+        }
+    }
+
+    public static class NonAsciiContainer extends ServerContainer {
+
+        @Override
+        protected Pattern getServerReadyLogEntry() {
+            return Pattern.compile("servidor \u00f1", Pattern.CASE_INSENSITIVE);
+        }
+    }
+
+    public static class WrongContainer extends ServerContainer {
+
+        @Override
+        protected Pattern getServerReadyLogEntry() {
+            return Pattern.compile("This will never be matched");
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package org.dockercontainerobjects.support;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.net.Proxy;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeoutException;
+import org.dockercontainerobjects.ContainerObjectsEnvironment;
+import org.dockercontainerobjects.annotations.RegistryImage;
+import org.dockercontainerobjects.docker.impl.inmemory.InMemoryDockerImpl;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("extending PortBasedLateInitContainerObject tests")
+@Tag("util")
+public class PortBasedLateInitContainerObjectTest {
+
+    private ReadinessProberTest.TestServer proxy;
+    private ContainerObjectsEnvironment env;
+
+    @AfterEach
+    void closeEnvironment() throws Exception {
+        env.close();
+        env.getExecutor().shutdownNow();
+        proxy.close();
+    }
+
+    @Test
+    @DisplayName("Container ready once all its ports accept connections through the docker network proxy")
+    void readyWhenPortsOpen() {
+        proxy = new ReadinessProberTest.TestServer(200, "", false, false, true);
+        createEnvironment();
+        try (ContainerObjectReference<DatabaseContainer> ref = ContainerObjectReference.newReference(env, DatabaseContainer.class)) {
+            assertTimeoutPreemptively(Duration.ofSeconds(5), () -> ref.getInstance().waitForReady());
+            String address = env.getManager().getContainerAddress(ref.getInstance()).getHostAddress();
+            assertEquals(new HashSet<>(Arrays.asList(address + ":5432", address + ":6379")), new HashSet<>(proxy.getSocksTargets()));
+        }
+    }
+
+    @Test
+    @DisplayName("Container never ready when its ports cannot be reached")
+    void notReadyWhenPortsClosed() {
+        proxy = new ReadinessProberTest.TestServer();
+        proxy.close();
+        createEnvironment();
+        try (ContainerObjectReference<DatabaseContainer> ref = ContainerObjectReference.newReference(env, DatabaseContainer.class)) {
+            assertTimeoutPreemptively(Duration.ofSeconds(5), () ->
+                    assertThrows(TimeoutException.class, () -> ref.getInstance().waitForReady(5_000)));
+            assertTrue(!ref.getInstance().isReady());
+        }
+    }
+
+    private void createEnvironment() {
+        env = new ContainerObjectsEnvironment(new InMemoryDockerImpl(Duration.ZERO),
+                new Proxy(Proxy.Type.SOCKS, proxy.getAddress()), Executors.newScheduledThreadPool(2));
+    }
+
+    @RegistryImage("inmemory/database:latest")
+    public static class DatabaseContainer extends PortBasedLateInitContainerObject {
+
+        @Override
+        protected int getMaxTimeoutMillis() {
+            return 500;
+        }
+
+        @Override
+        protected Collection<Integer> getServerReadyPorts() {
+            return Arrays.asList(5432, 6379);
+        }
+    }
+}
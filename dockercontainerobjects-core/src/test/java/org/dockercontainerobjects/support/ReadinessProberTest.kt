@@ -0,0 +1,219 @@
+package org.dockercontainerobjects.support
+
+import org.junit.jupiter.api.AfterEach
+import org.junit.jupiter.api.Assertions.assertEquals
+import org.junit.jupiter.api.Assertions.assertThrows
+import org.junit.jupiter.api.Assertions.assertTrue
+import org.junit.jupiter.api.DisplayName
+import org.junit.jupiter.api.Tag
+import org.junit.jupiter.api.Test
+import java.io.DataInputStream
+import java.io.IOException
+import java.net.InetAddress
+import java.net.InetSocketAddress
+import java.net.Proxy
+import java.net.ServerSocket
+import java.net.Socket
+import java.net.URL
+import java.nio.charset.StandardCharsets.ISO_8859_1
+import java.time.Duration
+import java.util.concurrent.CopyOnWriteArrayList
+import java.util.concurrent.ExecutionException
+import java.util.concurrent.Executors
+import java.util.concurrent.TimeUnit.SECONDS
+import java.util.concurrent.TimeoutException
+import java.util.concurrent.atomic.AtomicInteger
+import kotlin.concurrent.thread
+
+@DisplayName("Readiness prober tests")
+@Tag("util")
+class ReadinessProberTest {
+
+    companion object {
+        private val TIMEOUT = Duration.ofSeconds(5)
+    }
+
+    private val scheduler = Executors.newSingleThreadScheduledExecutor()
+    private val servers = mutableListOf<TestServer>()
+    private val probers = mutableListOf<ReadinessProber>()
+
+    @AfterEach
+    fun close() {
+        probers.forEach { it.close() }
+        servers.forEach { it.close() }
+        scheduler.shutdownNow()
+    }
+
+    @Test
+    @DisplayName("given a server, when probed twice, both status codes are returned using a single connection")
+    fun connectionReused() {
+        val server = server(TestServer(body = "ready"))
+        val prober = prober(Proxy.NO_PROXY)
+        assertEquals(200, prober.probe(server.url("/health"), "GET", TIMEOUT).get(5, SECONDS))
+        assertEquals(200, prober.probe(server.url("/health"), "HEAD", TIMEOUT).get(5, SECONDS))
+        assertEquals(1, server.connections.get())
+        assertEquals(listOf("GET /health HTTP/1.1", "HEAD /health HTTP/1.1"), server.requests)
+    }
+
+    @Test
+    @DisplayName("given a server closing connections after answering, when probed twice, a new connection is opened")
+    fun staleConnectionReplaced() {
+        val server = server(TestServer(closeAfterResponse = true))
+        val prober = prober(Proxy.NO_PROXY)
+        assertEquals(200, prober.probe(server.url("/"), "HEAD", TIMEOUT).get(5, SECONDS))
+        assertEquals(200, prober.probe(server.url("/"), "HEAD", TIMEOUT).get(5, SECONDS))
+        assertEquals(2, server.connections.get())
+    }
+
+    @Test
+    @DisplayName("given a server not ready yet, when probed, its status code is returned")
+    fun statusCodeReturned() {
+        val server = server(TestServer(status = 503))
+        assertEquals(503, prober(Proxy.NO_PROXY).probe(server.url("/"), "HEAD", TIMEOUT).get(5, SECONDS))
+    }
+
+    @Test
+    @DisplayName("given a server that never answers, when probed, the probe fails once its timeout expires")
+    fun timeoutExpired() {
+        val server = server(TestServer(silent = true))
+        val probe = prober(Proxy.NO_PROXY).probe(server.url("/"), "HEAD", Duration.ofMillis(100))
+        val e = assertThrows(ExecutionException::class.java) { probe.get(5, SECONDS) }
+        assertTrue(e.cause is TimeoutException)
+    }
+
+    @Test
+    @DisplayName("given no server listening, when probed, the probe fails")
+    fun connectionRefused() {
+        val server = TestServer().also { it.close() }
+        val probe = prober(Proxy.NO_PROXY).probe(server.url("/"), "HEAD", TIMEOUT)
+        val e = assertThrows(ExecutionException::class.java) { probe.get(5, SECONDS) }
+        assertTrue(e.cause is IOException)
+    }
+
+    @Test
+    @DisplayName("given a SOCKS proxy, when probed, the server is reached through the proxy")
+    fun socksProxy() {
+        val proxy = server(TestServer(socks = true))
+        val prober = prober(Proxy(Proxy.Type.SOCKS, proxy.address))
+        assertEquals(200, prober.probe(URL("http://10.1.2.3:8080/health"), "HEAD", TIMEOUT).get(5, SECONDS))
+        assertEquals(listOf("10.1.2.3:8080"), proxy.socksTargets)
+        assertEquals(listOf("HEAD /health HTTP/1.1"), proxy.requests)
+    }
+
+    @Test
+    @DisplayName("given an HTTP proxy, when probed, the full URL is requested to the proxy")
+    fun httpProxy() {
+        val proxy = server(TestServer())
+        val prober = prober(Proxy(Proxy.Type.HTTP, proxy.address))
+        assertEquals(200, prober.probe(URL("http://10.1.2.3:8080/health"), "HEAD", TIMEOUT).get(5, SECONDS))
+        assertEquals(listOf("HEAD http://10.1.2.3:8080/health HTTP/1.1"), proxy.requests)
+    }
+
+    @Test
+    @DisplayName("given a listening port, when probed, the probe completes, and fails once the port is closed")
+    fun portProbed() {
+        val server = server(TestServer())
+        val prober = prober(Proxy.NO_PROXY)
+        prober.probePort(server.address.hostString, server.address.port, TIMEOUT).get(5, SECONDS)
+        server.close()
+        val probe = prober.probePort(server.address.hostString, server.address.port, TIMEOUT)
+        val e = assertThrows(ExecutionException::class.java) { probe.get(5, SECONDS) }
+        assertTrue(e.cause is IOException)
+    }
+
+    @Test
+    @DisplayName("given proxies, when a port is probed, the proxies are asked to connect to it")
+    fun portProbedThroughProxies() {
+        val socks = server(TestServer(socks = true))
+        prober(Proxy(Proxy.Type.SOCKS, socks.address)).probePort("10.1.2.3", 5432, TIMEOUT).get(5, SECONDS)
+        assertEquals(listOf("10.1.2.3:5432"), socks.socksTargets)
+        val http = server(TestServer())
+        prober(Proxy(Proxy.Type.HTTP, http.address)).probePort("10.1.2.3", 5432, TIMEOUT).get(5, SECONDS)
+        assertEquals(listOf("CONNECT 10.1.2.3:5432 HTTP/1.1"), http.requests)
+    }
+
+    private fun server(server: TestServer) = server.also { servers += it }
+
+    private fun prober(proxy: Proxy) = ReadinessProber(proxy, scheduler).also { probers += it }
+
+    class TestServer @JvmOverloads constructor(
+            private val status: Int = 200,
+            private val body: String = "",
+            private val closeAfterResponse: Boolean = false,
+            private val silent: Boolean = false,
+            private val socks: Boolean = false
+    ) : AutoCloseable {
+
+        private val socket = ServerSocket(0, 50, InetAddress.getLoopbackAddress())
+        val address = InetSocketAddress(socket.inetAddress, socket.localPort)
+        val connections = AtomicInteger()
+        val requests: MutableList<String> = CopyOnWriteArrayList()
+        val socksTargets: MutableList<String> = CopyOnWriteArrayList()
+
+        private val acceptor = thread(isDaemon = true) {
+            try {
+                while (true) {
+                    val connection = socket.accept()
+                    connections.incrementAndGet()
+                    thread(isDaemon = true) { serve(connection) }
+                }
+            } catch (e: IOException) {
+                // closed
+            }
+        }
+
+        fun url(path: String) = URL("http", address.hostString, address.port, path)
+
+        private fun serve(connection: Socket) {
+            try {
+                connection.use {
+                    val input = DataInputStream(it.getInputStream())
+                    val output = it.getOutputStream()
+                    if (silent) {
+                        while (input.read() >= 0) continue
+                        return
+                    }
+                    if (socks) {
+                        input.readFully(ByteArray(input.readUnsignedShort() and 0xFF))
+                        output.write(byteArrayOf(5, 0))
+                        input.readFully(ByteArray(3))
+                        val host = when (input.readUnsignedByte()) {
+                            1 -> ByteArray(4).also { input.readFully(it) }.joinToString(".") { (it.toInt() and 0xFF).toString() }
+                            else -> String(ByteArray(input.readUnsignedByte()).also { input.readFully(it) }, ISO_8859_1)
+                        }
+                        socksTargets += "$host:${input.readUnsignedShort()}"
+                        output.write(byteArrayOf(5, 0, 0, 1, 0, 0, 0, 0, 0, 0))
+                    }
+                    while (true) {
+                        val request = generateSequence { readLine(input) }.takeWhile { it.isNotEmpty() }.toList()
+                        if (request.isEmpty()) return
+                        requests += request[0]
+                        val head = request[0].startsWith("HEAD")
+                        output.write(("HTTP/1.1 $status Status\r\nContent-Length: ${body.length}\r\n\r\n" +
+                                (if (head) "" else body)).toByteArray(ISO_8859_1))
+                        output.flush()
+                        if (closeAfterResponse) return
+                    }
+                }
+            } catch (e: IOException) {
+                // closed
+            }
+        }
+
+        private fun readLine(input: DataInputStream): String? {
+            val line = StringBuilder()
+            while (true) {
+                val c = input.read()
+                if (c < 0) return null
+                if (c == '\n'.toInt()) return line.toString().trimEnd('\r')
+                line.append(c.toChar())
+            }
+        }
+
+        override fun close() {
+            socket.close()
+            // the port keeps accepting connections until the thread blocked accepting them is woken up
+            acceptor.join()
+        }
+    }
+}
@@ -0,0 +1,163 @@
+package org.dockercontainerobjects.support;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.Proxy;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import org.dockercontainerobjects.ContainerObjectsEnvironment;
+import org.dockercontainerobjects.annotations.RegistryImage;
+import org.dockercontainerobjects.docker.impl.inmemory.InMemoryDockerImpl;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("late init container objects ready future tests")
+@Tag("util")
+public class ReadyFutureTest {
+
+    private ContainerObjectsEnvironment env;
+
+    @BeforeEach
+    void createEnvironment() {
+        env = new ContainerObjectsEnvironment(new InMemoryDockerImpl(Duration.ZERO), Proxy.NO_PROXY, Executors.newScheduledThreadPool(2));
+    }
+
+    @AfterEach
+    void closeEnvironment() throws Exception {
+        env.close();
+        env.getExecutor().shutdownNow();
+    }
+
+    @Test
+    @DisplayName("Ready future completes once the container is ready")
+    void readyFutureCompleted() throws Exception {
+        try (ContainerObjectReference<ReadyContainer> ref = ContainerObjectReference.newReference(env, ReadyContainer.class)) {
+            ref.getInstance().readyFuture().get(5, TimeUnit.SECONDS);
+            assertTrue(ref.getInstance().isReady());
+        }
+    }
+
+    @Test
+    @DisplayName("Ready future fails with a timeout caused by the last check failure when the checks expire")
+    void expiredCheckCauseReported() {
+        try (ContainerObjectReference<NeverReadyContainer> ref = ContainerObjectReference.newReference(env, NeverReadyContainer.class)) {
+            CompletableFuture<Void> ready = ref.getInstance().readyFuture();
+            ExecutionException e = assertThrows(ExecutionException.class, () -> ready.get(5, TimeUnit.SECONDS));
+            assertTrue(e.getCause() instanceof TimeoutException);
+            assertTrue(e.getCause().getCause() instanceof UncheckedIOException);
+            assertThrows(TimeoutException.class, () -> ref.getInstance().waitForReady(5_000));
+        }
+    }
+
+    @Test
+    @DisplayName("Ready future fails with the cause when preparing the container before being ready fails")
+    void failedBeforeReadyReported() {
+        try (ContainerObjectReference<FailingBeforeReadyContainer> ref = ContainerObjectReference.newReference(env, FailingBeforeReadyContainer.class)) {
+            CompletableFuture<Void> ready = ref.getInstance().readyFuture();
+            ExecutionException e = assertThrows(ExecutionException.class, () -> ready.get(5, TimeUnit.SECONDS));
+            assertTrue(e.getCause() instanceof IllegalStateException);
+            assertFalse(ref.getInstance().isReady());
+            ExecutionException all = assertThrows(ExecutionException.class, () -> env.allReady(ref.getInstance()).get(5, TimeUnit.SECONDS));
+            assertSame(e.getCause(), all.getCause());
+        }
+    }
+
+    @Test
+    @DisplayName("All ready completes once every container of the environment is ready")
+    void allReadyCompleted() throws Exception {
+        try (ContainerObjectReference<ReadyContainer> first = ContainerObjectReference.newReference(env, ReadyContainer.class);
+             ContainerObjectReference<ReadyContainer> second = ContainerObjectReference.newReference(env, ReadyContainer.class)) {
+            env.allReady().get(5, TimeUnit.SECONDS);
+            assertTrue(first.getInstance().isReady());
+            assertTrue(second.getInstance().isReady());
+        }
+    }
+
+    @Test
+    @DisplayName("All ready fails as soon as one container fails, without waiting for the rest")
+    void allReadyFailsFast() {
+        try (ContainerObjectReference<NeverReadyContainer> failing = ContainerObjectReference.newReference(env, NeverReadyContainer.class);
+             ContainerObjectReference<SlowContainer> slow = ContainerObjectReference.newReference(env, SlowContainer.class)) {
+            CompletableFuture<Void> all = env.allReady(failing.getInstance(), slow.getInstance());
+            ExecutionException e = assertThrows(ExecutionException.class, () -> all.get(5, TimeUnit.SECONDS));
+            assertTrue(e.getCause() instanceof TimeoutException);
+        }
+    }
+
+    @Test
+    @DisplayName("Any ready completes with the first container to be ready")
+    void anyReadyCompleted() throws Exception {
+        try (ContainerObjectReference<NeverReadyContainer> failing = ContainerObjectReference.newReference(env, NeverReadyContainer.class);
+             ContainerObjectReference<ReadyContainer> ready = ContainerObjectReference.newReference(env, ReadyContainer.class)) {
+            assertSame(ready.getInstance(), env.anyReady(failing.getInstance(), ready.getInstance()).get(5, TimeUnit.SECONDS));
+        }
+    }
+
+    @RegistryImage("inmemory/ready:latest")
+    public static class ReadyContainer extends ScheduledCheckLateInitContainerObject {
+
+        @Override
+        protected boolean isServerReady() {
+            return true;
+        }
+    }
+
+    @RegistryImage("inmemory/ready:latest")
+    public static class FailingBeforeReadyContainer extends ScheduledCheckLateInitContainerObject {
+
+        @Override
+        protected boolean isServerReady() {
+            return true;
+        }
+
+        @Override
+        protected void onBeforeReady() {
+            throw new IllegalStateException("Schema not loaded");
+        }
+    }
+
+    @RegistryImage("inmemory/ready:latest")
+    public static class NeverReadyContainer extends ScheduledCheckLateInitContainerObject {
+
+        @Override
+        protected int getMaxTimeoutMillis() {
+            return 100;
+        }
+
+        @Override
+        protected CheckSchedule getCheckSchedule() {
+            return new FixedCheckSchedule(20);
+        }
+
+        @Override
+        protected boolean isServerReady() {
+            throw new UncheckedIOException(new IOException("Connection refused"));
+        }
+    }
+
+    @RegistryImage("inmemory/ready:latest")
+    public static class SlowContainer extends ScheduledCheckLateInitContainerObject {
+
+        @Override
+        protected CheckSchedule getCheckSchedule() {
+            return new FixedCheckSchedule(60_000);
+        }
+
+        @Override
+        protected boolean isServerReady() {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,204 @@
+package org.dockercontainerobjects.support;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.net.Proxy;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.dockercontainerobjects.ContainerObjectsEnvironment;
+import org.dockercontainerobjects.annotations.RegistryImage;
+import org.dockercontainerobjects.docker.impl.inmemory.InMemoryDockerImpl;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("extending ScheduledCheckLateInitContainerObject tests")
+@Tag("util")
+public class ScheduledCheckLateInitContainerObjectTest {
+
+    private static final AtomicInteger inFlight = new AtomicInteger();
+    private static final AtomicInteger maxInFlight = new AtomicInteger();
+
+    private ContainerObjectsEnvironment env;
+
+    @BeforeEach
+    void createEnvironment() {
+        inFlight.set(0);
+        maxInFlight.set(0);
+        env = new ContainerObjectsEnvironment(new InMemoryDockerImpl(Duration.ZERO), Proxy.NO_PROXY, Executors.newScheduledThreadPool(4));
+    }
+
+    @AfterEach
+    void closeEnvironment() throws Exception {
+        env.close();
+        env.getExecutor().shutdownNow();
+    }
+
+    @Test
+    @DisplayName("Container ready after some checks following its schedule")
+    void readyAfterChecks() {
+        try (ContainerObjectReference<SlowContainer> ref = ContainerObjectReference.newReference(env, SlowContainer.class)) {
+            assertTimeoutPreemptively(Duration.ofSeconds(5), () -> ref.getInstance().waitForReady());
+            assertEquals(SlowContainer.CHECKS_UNTIL_READY, ref.getInstance().checks.get());
+        }
+    }
+
+    @Test
+    @DisplayName("Readiness checks of many containers never exceed the environment limit")
+    void concurrentChecksLimited() throws Exception {
+        env.setMaxConcurrentReadinessChecks(1);
+        List<ContainerObjectReference<SlowContainer>> refs = new ArrayList<>();
+        try {
+            for (int i = 0; i < 4; i++)
+                refs.add(ContainerObjectReference.newReference(env, SlowContainer.class));
+            assertTimeoutPreemptively(Duration.ofSeconds(10), () -> {
+                for (ContainerObjectReference<SlowContainer> ref : refs)
+                    ref.getInstance().waitForReady();
+            });
+            assertEquals(1, maxInFlight.get());
+            for (ContainerObjectReference<SlowContainer> ref : refs)
+                assertTrue(ref.getInstance().isReady());
+        } finally {
+            for (ContainerObjectReference<SlowContainer> ref : refs)
+                ref.close();
+        }
+    }
+
+    @Test
+    @DisplayName("Container waiting for the environment limit fails once its time expires")
+    void timeoutWhileLimited() throws Exception {
+        env.setMaxConcurrentReadinessChecks(1);
+        BlockingContainer.checking = new CountDownLatch(1);
+        BlockingContainer.release = new CountDownLatch(1);
+        try (ContainerObjectReference<BlockingContainer> blocking = ContainerObjectReference.newReference(env, BlockingContainer.class)) {
+            try {
+                assertTrue(BlockingContainer.checking.await(5, TimeUnit.SECONDS));
+                try (ContainerObjectReference<ShortLivedContainer> ref = ContainerObjectReference.newReference(env, ShortLivedContainer.class)) {
+                    ExecutionException ex = assertThrows(ExecutionException.class,
+                            () -> ref.getInstance().readyFuture().get(5, TimeUnit.SECONDS));
+                    assertTrue(ex.getCause() instanceof TimeoutException);
+                    assertEquals(0, ref.getInstance().checks.get());
+                }
+            } finally {
+                BlockingContainer.release.countDown();
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Container destroyed before being ready stops checking and fails right away")
+    void checksCanceledOnStop() throws Exception {
+        NeverReadyContainer container;
+        CompletableFuture<Void> ready;
+        try (ContainerObjectReference<NeverReadyContainer> ref = ContainerObjectReference.newReference(env, NeverReadyContainer.class)) {
+            container = ref.getInstance();
+            ready = container.readyFuture();
+            assertTrue(container.checking.await(5, TimeUnit.SECONDS));
+        }
+        ExecutionException ex = assertThrows(ExecutionException.class, () -> ready.get(1, TimeUnit.SECONDS));
+        assertTrue(ex.getCause() instanceof IllegalStateException);
+        int checks = container.checks.get();
+        Thread.sleep(100);
+        // at most the check in flight while stopping
+        assertTrue(container.checks.get() <= checks + 1);
+    }
+
+    @RegistryImage("inmemory/scheduled:latest")
+    public static class SlowContainer extends ScheduledCheckLateInitContainerObject {
+
+        static final int CHECKS_UNTIL_READY = 3;
+
+        final AtomicInteger checks = new AtomicInteger();
+
+        @Override
+        protected CheckSchedule getCheckSchedule() {
+            return new FixedCheckSchedule(10);
+        }
+
+        @Override
+        protected boolean isServerReady() {
+            int current = inFlight.incrementAndGet();
+            maxInFlight.accumulateAndGet(current, Math::max);
+            try {
+                Thread.sleep(20);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                inFlight.decrementAndGet();
+            }
+            return checks.incrementAndGet() == CHECKS_UNTIL_READY;
+        }
+    }
+
+    @RegistryImage("inmemory/scheduled:latest")
+    public static class BlockingContainer extends ScheduledCheckLateInitContainerObject {
+
+        static volatile CountDownLatch checking;
+        static volatile CountDownLatch release;
+
+        @Override
+        protected boolean isServerReady() {
+            checking.countDown();
+            try {
+                return release.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+    }
+
+    @RegistryImage("inmemory/scheduled:latest")
+    public static class ShortLivedContainer extends ScheduledCheckLateInitContainerObject {
+
+        final AtomicInteger checks = new AtomicInteger();
+
+        @Override
+        protected int getMaxTimeoutMillis() {
+            return 300;
+        }
+
+        @Override
+        protected CheckSchedule getCheckSchedule() {
+            return new FixedCheckSchedule(10);
+        }
+
+        @Override
+        protected boolean isServerReady() {
+            checks.incrementAndGet();
+            return true;
+        }
+    }
+
+    @RegistryImage("inmemory/scheduled:latest")
+    public static class NeverReadyContainer extends ScheduledCheckLateInitContainerObject {
+
+        final AtomicInteger checks = new AtomicInteger();
+        final CountDownLatch checking = new CountDownLatch(1);
+
+        @Override
+        protected CheckSchedule getCheckSchedule() {
+            return new FixedCheckSchedule(10);
+        }
+
+        @Override
+        protected boolean isServerReady() {
+            checks.incrementAndGet();
+            checking.countDown();
+            return false;
+        }
+    }
+}
@@ -1,7 +1,9 @@
 package org.dockercontainerobjects.util;
 
 import static org.dockercontainerobjects.util.Archives.tar;
+import static org.dockercontainerobjects.util.Archives.targzFile;
 import static org.dockercontainerobjects.util.Archives.withEntry;
+import static org.dockercontainerobjects.util.Archives.withStreamedEntry;
 import static org.junit.jupiter.api.Assertions.assertAll;
 import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -12,8 +14,12 @@ import static org.junit.jupiter.api.Assertions.fail;
 
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.security.MessageDigest;
 import kotlin.Unit;
 import org.apache.commons.compress.archivers.ArchiveEntry;
 import org.apache.commons.compress.archivers.ArchiveException;
@@ -22,6 +28,8 @@ import org.apache.commons.compress.archivers.ArchiveStreamFactory;
 import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
 import org.apache.commons.compress.archivers.tar.TarArchiveInputStream;
 import org.apache.commons.compress.archivers.tar.TarArchiveOutputStream;
+import org.apache.commons.compress.compressors.gzip.GzipCompressorInputStream;
+import org.apache.commons.io.IOUtils;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Tag;
 import org.junit.jupiter.api.Test;
@@ -101,4 +109,39 @@ public class ArchivesTest {
             fail(e);
         }
     }
+
+    @Test
+    @DisplayName("TAR file with streamed entries should work, and hash the entries while writing them")
+    void targzFileWithStreamedEntriesShouldWork() {
+        File file = null;
+        try {
+            File source = File.createTempFile("archives", ".txt");
+            source.deleteOnExit();
+            Files.write(source.toPath(), TEST_CONTENT.getBytes(StandardCharsets.UTF_8));
+            MessageDigest digest = Digests.sha256Digest();
+            file = targzFile(tar -> {
+                try {
+                    withStreamedEntry(tar, TEST_FILENAME, source, digest);
+                } catch (IOException e) {
+                    throw new RuntimeException(e);
+                }
+                return Unit.INSTANCE;
+            });
+            byte[] content = TEST_CONTENT.getBytes(StandardCharsets.UTF_8);
+            MessageDigest expected = Digests.updateEntryHeader(Digests.sha256Digest(), TEST_FILENAME, content.length);
+            expected.update(content);
+            assertEquals(Digests.hex(expected), Digests.hex(digest));
+            try (TarArchiveInputStream in = new TarArchiveInputStream(
+                    new GzipCompressorInputStream(new FileInputStream(file)))) {
+                ArchiveEntry entry = in.getNextEntry();
+                assertNotNull(entry);
+                assertEquals(TEST_FILENAME, entry.getName());
+                assertEquals(TEST_CONTENT, new String(IOUtils.toByteArray(in), StandardCharsets.UTF_8));
+            }
+        } catch (IOException e) {
+            fail(e);
+        } finally {
+            if (file != null) file.delete();
+        }
+    }
 }
@@ -0,0 +1,53 @@
+package org.dockercontainerobjects.util
+
+import org.junit.jupiter.api.Assertions.assertEquals
+import org.junit.jupiter.api.Assertions.assertNotEquals
+import org.junit.jupiter.api.DisplayName
+import org.junit.jupiter.api.Tag
+import org.junit.jupiter.api.Test
+import java.io.File
+import java.nio.file.Files
+
+@DisplayName("Digests util tests")
+@Tag("util")
+class DigestsTest {
+
+    @Test
+    @DisplayName("given files with the content moved between names, when treeSha256, the hash is different")
+    fun entryBoundariesHashed() {
+        val first = directory("a" to "bc")
+        val second = directory("ab" to "c")
+        try {
+            assertNotEquals(first.treeSha256(), second.treeSha256())
+        } finally {
+            first.deleteRecursively()
+            second.deleteRecursively()
+        }
+    }
+
+    @Test
+    @DisplayName("given a directory, when treeSha256, the hash matches the one of its files")
+    fun directoryTreeHashed() {
+        val dir = directory("Dockerfile" to "FROM scratch", "sub/a.txt" to "a")
+        try {
+            val digest = sha256Digest()
+            digest.updateEntryHeader("Dockerfile", 12).update("FROM scratch".toByteArray())
+            digest.updateEntryHeader("sub/a.txt", 1).update("a".toByteArray())
+            val expected = digest.hex()
+            assertEquals(64, expected.length)
+            assertEquals(expected, dir.treeSha256())
+        } finally {
+            dir.deleteRecursively()
+        }
+    }
+
+    private fun directory(vararg files: Pair<String, String>): File {
+        val dir = Files.createTempDirectory("digests").toFile()
+        files.forEach { (name, content) ->
+            val file = dir.resolve(name)
+            file.parentFile.mkdirs()
+            file.writeText(content)
+        }
+        return dir
+    }
+}
@@ -0,0 +1,44 @@
+package org.dockercontainerobjects.util
+
+import org.junit.jupiter.api.Assertions.assertEquals
+import org.junit.jupiter.api.Assertions.assertThrows
+import org.junit.jupiter.api.DisplayName
+import org.junit.jupiter.api.Tag
+import org.junit.jupiter.api.Test
+
+@DisplayName("Graphs util tests")
+@Tag("util")
+class GraphsTest {
+
+    @Test
+    @DisplayName("given nodes without dependencies, when sortedTopologically, the order does not change")
+    fun noDependenciesIdentity() {
+        assertEquals(listOf("a", "b", "c"), listOf("a", "b", "c").sortedTopologically { emptyList() })
+    }
+
+    @Test
+    @DisplayName("given nodes with dependencies, when sortedTopologically, dependencies come first")
+    fun dependenciesFirst() {
+        val dependencies = mapOf("app" to listOf("db", "cache"), "cache" to listOf("db"))
+        assertEquals(
+                listOf("db", "cache", "app"),
+                listOf("app", "cache", "db").sortedTopologically { dependencies[it].orEmpty() })
+    }
+
+    @Test
+    @DisplayName("given nodes with a dependency cycle, when sortedTopologically, it fails")
+    fun cycleFails() {
+        val dependencies = mapOf("a" to listOf("b"), "b" to listOf("a"))
+        assertThrows(IllegalArgumentException::class.java) {
+            listOf("a", "b").sortedTopologically { dependencies[it].orEmpty() }
+        }
+    }
+
+    @Test
+    @DisplayName("given a dependency not part of the nodes, when sortedTopologically, it fails")
+    fun unknownDependencyFails() {
+        assertThrows(IllegalArgumentException::class.java) {
+            listOf("a").sortedTopologically { listOf("b") }
+        }
+    }
+}
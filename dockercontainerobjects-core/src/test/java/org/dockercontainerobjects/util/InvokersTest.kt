@@ -0,0 +1,97 @@
+package org.dockercontainerobjects.util
+
+import org.junit.jupiter.api.Assertions.assertEquals
+import org.junit.jupiter.api.Assertions.assertNull
+import org.junit.jupiter.api.Assertions.assertSame
+import org.junit.jupiter.api.Assertions.assertThrows
+import org.junit.jupiter.api.Assertions.assertTrue
+import org.junit.jupiter.api.DisplayName
+import org.junit.jupiter.api.Tag
+import org.junit.jupiter.api.Test
+import java.lang.reflect.InvocationTargetException
+
+@DisplayName("Invokers util tests")
+@Tag("util")
+class InvokersTest {
+
+    @Test
+    @DisplayName("given a method, when invoker is requested twice, the same invoker is returned")
+    fun invokerCached() {
+        val method = Sample::class.java.getDeclaredMethod("greet", String::class.java)
+        assertSame(method.invoker(), method.invoker())
+    }
+
+    @Test
+    @DisplayName("given private instance methods, when invoked, the results and side effects are the expected ones")
+    fun privateMethodsInvoked() {
+        val sample = Sample()
+        assertEquals("hi there", method("greet", String::class.java).invoker()(sample, "there"))
+        assertEquals(42, method("answer").invoker()(sample))
+        assertNull(method("touch").invoker()(sample))
+        assertNull(method("add", Int::class.javaPrimitiveType!!).invoker()(sample, 3))
+        assertEquals(4, sample.counter)
+    }
+
+    @Test
+    @DisplayName("given a static method, when invoked, the result is the expected one")
+    fun staticMethodInvoked() {
+        assertEquals("static", method("staticValue").invoker()(null))
+    }
+
+    @Test
+    @DisplayName("given a method throwing an exception, when invoked, the exception is wrapped as reflection does")
+    fun exceptionWrapped() {
+        assertWrapped<UnsupportedOperationException>(method("fail").invoker()) { it(Sample()) }
+        assertWrapped<UnsupportedOperationException>(ReflectiveSample.failing()) { it(null) }
+    }
+
+    @Test
+    @DisplayName("given a method throwing an error, when invoked, the error is wrapped as reflection does")
+    fun errorWrapped() {
+        assertWrapped<AssertionError>(method("assertFail").invoker()) { it(Sample()) }
+        assertWrapped<AssertionError>(ReflectiveSample.asserting()) { it(null) }
+    }
+
+    private inline fun <reified T: Throwable> assertWrapped(invoker: MethodInvoker, crossinline call: (MethodInvoker) -> Unit) {
+        val e = assertThrows(IllegalStateException::class.java) { call(invoker) }
+        assertTrue(e.cause is InvocationTargetException)
+        assertTrue(e.cause!!.cause is T)
+    }
+
+    @Test
+    @DisplayName("given a method, when invoked with the wrong number of parameters, an exception is thrown")
+    fun wrongParameterCount() {
+        assertThrows(IllegalArgumentException::class.java) { method("answer").invoker()(Sample(), "extra") }
+    }
+
+    private fun method(name: String, vararg parameterTypes: Class<*>) =
+            Sample::class.java.getDeclaredMethod(name, *parameterTypes)
+
+    @Suppress("unused")
+    class Sample {
+
+        companion object {
+            @JvmStatic private fun staticValue() = "static"
+        }
+
+        var counter = 0
+
+        private fun greet(name: String) = "hi $name"
+        private fun answer() = 42
+        private fun touch() { counter++ }
+        private fun add(amount: Int) { counter += amount }
+        private fun fail(): Unit = throw UnsupportedOperationException()
+        private fun assertFail(): Unit = throw AssertionError("failed")
+    }
+
+    // static methods are always invoked using reflection
+    @Suppress("unused")
+    object ReflectiveSample {
+
+        @JvmStatic private fun fail(): Unit = throw UnsupportedOperationException()
+        @JvmStatic private fun assertFail(): Unit = throw AssertionError("failed")
+
+        fun failing() = javaClass.getDeclaredMethod("fail").invoker()
+        fun asserting() = javaClass.getDeclaredMethod("assertFail").invoker()
+    }
+}
@@ -3,6 +3,7 @@ package org.dockercontainerobjects.docker
 interface ContainerDetailedInfo : ContainerInfo {
 
     val status: ContainerStatus
+    val health: ContainerHealthStatus
     val environment: Map<String, String>
     val labels: Map<String, String>
     val network: NetworkSettings
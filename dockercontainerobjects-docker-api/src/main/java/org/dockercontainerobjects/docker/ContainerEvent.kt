@@ -0,0 +1,45 @@
+package org.dockercontainerobjects.docker
+
+import java.time.Instant
+
+enum class ContainerEventType(val action: String) {
+
+    CREATE("create"),
+    START("start"),
+    RESTART("restart"),
+    KILL("kill"),
+    DIE("die"),
+    STOP("stop"),
+    PAUSE("pause"),
+    UNPAUSE("unpause"),
+    DESTROY("destroy"),
+    HEALTH_STATUS("health_status"),
+    OTHER("");
+
+    companion object {
+
+        // health status actions include the new status, as in "health_status: healthy"
+        @JvmStatic
+        fun of(action: String) =
+                values().firstOrNull { it != OTHER && action.substringBefore(':').trim() == it.action } ?: OTHER
+    }
+}
+
+class ContainerEvent(
+        val container: ContainerId,
+        val action: String,
+        val time: Instant,
+        val attributes: Map<String, String> = emptyMap()
+) {
+    companion object {
+        const val ATTRIBUTE_EXIT_CODE = "exitCode"
+    }
+
+    val type = ContainerEventType.of(action)
+
+    val healthStatus: ContainerHealthStatus? get() =
+            if (type == ContainerEventType.HEALTH_STATUS) ContainerHealthStatus.of(action.substringAfter(':')) else null
+    val exitCode: Int? get() = attributes[ATTRIBUTE_EXIT_CODE]?.toIntOrNull()
+
+    override fun toString() = "$action $container at $time"
+}
@@ -0,0 +1,40 @@
+package org.dockercontainerobjects.docker
+
+import java.time.Instant
+
+class ContainerEventsSpec(
+        var container: ContainerLocator? = null,
+        var labels: Map<String, String> = emptyMap(),
+        var types: Set<ContainerEventType> = emptySet(),
+        /** events since this time are replayed, so none is missed while the stream is being attached */
+        var since: Instant? = null
+) {
+    var eventHandler: ContainerEventHandler = {}
+    /** called if docker ends the stream before it is closed, with the error if it failed */
+    var eventsDoneHandler: ContainerEventsDoneHandler = {}
+
+    fun forContainer(container: ContainerLocator) =
+            this.also { this.container = container }
+    fun withLabels(labels: Map<String, String>) =
+            this.also { this.labels = labels }
+    fun withTypes(vararg types: ContainerEventType) =
+            this.also { this.types = types.toSet() }
+    fun since(since: Instant) =
+            this.also { this.since = since }
+
+    fun onEvent(handler: ContainerEventHandler) =
+            this.also { eventHandler = handler }
+    fun onEventsDone(handler: ContainerEventsDoneHandler) =
+            this.also { eventsDoneHandler = handler }
+
+    /** labels and container are expected to be filtered by docker already, types may need to be filtered here */
+    fun accepts(event: ContainerEvent) = types.isEmpty() || event.type in types
+}
+
+typealias ContainerEventHandler = (ContainerEvent) -> Unit
+typealias ContainerEventsDoneHandler = (Throwable?) -> Unit
+
+interface ContainerEventsSubscription: AutoCloseable {
+
+    override fun close()
+}
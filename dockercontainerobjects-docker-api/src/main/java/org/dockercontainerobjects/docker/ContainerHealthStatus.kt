@@ -0,0 +1,16 @@
+package org.dockercontainerobjects.docker
+
+/** health reported by docker for containers with a HEALTHCHECK, [NONE] for containers without one */
+enum class ContainerHealthStatus(val status: String) {
+
+    NONE("none"),
+    STARTING("starting"),
+    HEALTHY("healthy"),
+    UNHEALTHY("unhealthy");
+
+    companion object {
+
+        @JvmStatic
+        fun of(status: String?) = values().firstOrNull { it.status.equals(status?.trim(), ignoreCase = true) } ?: NONE
+    }
+}
@@ -1,5 +1,8 @@
 package org.dockercontainerobjects.docker
 
+import java.nio.ByteBuffer
+import java.nio.charset.Charset
+import java.nio.charset.StandardCharsets.UTF_8
 import java.time.Instant
 import java.util.function.Consumer
 
@@ -39,8 +42,30 @@ interface ContainerLogEntryContext {
     fun stop()
 
     val bytes: ByteArray
-    val text: String get() = String(bytes)
+    /** read-only view of the entry, sharing its bytes instead of copying them */
+    val buffer: ByteBuffer get() = ByteBuffer.wrap(bytes).asReadOnlyBuffer()
+    /** entry decoded as UTF-8 */
+    val text: String get() = text(UTF_8)
+    /** entry as characters, a view of its bytes when they are plain ASCII */
+    val chars: CharSequence get() = text
+
+    fun text(charset: Charset): String = String(bytes, charset)
+
+    /** whether the entry contains the given bytes, without decoding it */
+    fun contains(sequence: ByteArray) = bytes.indexOf(sequence) >= 0
 
     val fromStandardOutput: Boolean
     val fromStandardError: Boolean
 }
+
+internal fun ByteArray.indexOf(sequence: ByteArray): Int {
+    if (sequence.isEmpty()) return 0
+    val first = sequence[0]
+    for (i in 0..size - sequence.size) {
+        if (this[i] != first) continue
+        var j = 1
+        while (j < sequence.size && this[i + j] == sequence[j]) j++
+        if (j == sequence.size) return i
+    }
+    return -1
+}
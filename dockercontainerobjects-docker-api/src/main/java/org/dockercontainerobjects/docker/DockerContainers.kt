@@ -2,6 +2,7 @@ package org.dockercontainerobjects.docker
 
 import java.net.Inet4Address
 import java.net.InetAddress
+import java.time.Duration
 
 interface DockerContainers {
 
@@ -36,6 +37,10 @@ interface DockerContainers {
     @Throws(ContainerNotFoundException::class)
     fun stop(locator: ContainerLocator): Int
     @Throws(ContainerNotFoundException::class)
+    fun stop(locator: ContainerLocator, timeout: Duration): Int
+    @Throws(ContainerNotFoundException::class)
+    fun kill(locator: ContainerLocator): Int
+    @Throws(ContainerNotFoundException::class)
     fun restart(locator: ContainerLocator)
 
     @Throws(ContainerNotFoundException::class)
@@ -48,4 +53,6 @@ interface DockerContainers {
 
     @Throws(ContainerNotFoundException::class)
     fun logs(locator: ContainerLocator, spec: ContainerLogSpec)
+
+    fun events(spec: ContainerEventsSpec): ContainerEventsSubscription
 }
@@ -1,6 +1,9 @@
 package org.dockercontainerobjects.docker
 
+import java.io.ByteArrayInputStream
 import java.io.File
+import java.io.IOException
+import java.io.InputStream
 
 class ImageSpec private constructor() {
 
@@ -8,6 +11,7 @@ class ImageSpec private constructor() {
     private val _labels = mutableMapOf<String, String>()
     private var _descriptorFile: File? = null
     private var _imageContent: ByteArray? = null
+    private var _imageContentProvider: (() -> InputStream)? = null
 
     constructor(descriptorFile: File): this() {
         _descriptorFile = descriptorFile
@@ -17,6 +21,11 @@ class ImageSpec private constructor() {
         _imageContent = imageContent
     }
 
+    /** the provider is invoked once per build, and the stream is closed once the build finishes */
+    constructor(imageContentProvider: () -> InputStream): this() {
+        _imageContentProvider = imageContentProvider
+    }
+
     val dockerFile: File? get() = _descriptorFile
     val imageContent: ByteArray? get() = _imageContent
     val tags: Set<ImageName> get() = _tags
@@ -31,4 +40,8 @@ class ImageSpec private constructor() {
     fun withLabels(labels: Map<String, String>) = this.also { _labels += labels }
 
     fun withPull(pull: Boolean = true) = this.also { it.pull = pull }
+
+    @Throws(IOException::class)
+    fun openImageContent(): InputStream? =
+            _imageContentProvider?.invoke() ?: _imageContent?.let { ByteArrayInputStream(it) }
 }
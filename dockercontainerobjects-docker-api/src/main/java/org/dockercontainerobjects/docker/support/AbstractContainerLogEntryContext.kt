@@ -0,0 +1,45 @@
+package org.dockercontainerobjects.docker.support
+
+import org.dockercontainerobjects.docker.ContainerLogEntryContext
+import java.nio.charset.Charset
+
+/**
+ * Decodes the entry at most once, for the last charset requested, no matter how many times its text is used.
+ * Entries made only of ASCII bytes are not decoded at all to be seen as characters.
+ */
+abstract class AbstractContainerLogEntryContext : ContainerLogEntryContext {
+
+    @Volatile private var decoded: Pair<Charset, String>? = null
+
+    @Volatile private var ascii: Boolean? = null
+
+    override fun text(charset: Charset): String {
+        val current = decoded
+        if (current !== null && current.first == charset) return current.second
+        return String(bytes, charset).also { decoded = charset to it }
+    }
+
+    override val chars: CharSequence get() = if (isAscii()) AsciiCharSequence(bytes, 0, bytes.size) else text
+
+    private fun isAscii() = ascii ?: bytes.all { it >= 0 }.also { ascii = it }
+
+    private class AsciiCharSequence(
+            private val bytes: ByteArray,
+            private val start: Int,
+            override val length: Int
+    ) : CharSequence {
+
+        override fun get(index: Int): Char {
+            if (index < 0 || index >= length) throw IndexOutOfBoundsException("Index: $index, length: $length")
+            return bytes[start + index].toChar()
+        }
+
+        override fun subSequence(startIndex: Int, endIndex: Int): CharSequence {
+            if (startIndex < 0 || endIndex > length || startIndex > endIndex)
+                throw IndexOutOfBoundsException("Start: $startIndex, end: $endIndex, length: $length")
+            return AsciiCharSequence(bytes, start + startIndex, endIndex - startIndex)
+        }
+
+        override fun toString() = String(bytes, start, length, Charsets.US_ASCII)
+    }
+}
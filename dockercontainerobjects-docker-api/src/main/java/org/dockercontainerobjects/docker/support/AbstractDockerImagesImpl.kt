@@ -22,9 +22,22 @@ abstract class AbstractDockerImagesImpl<out C: AbstractDockerImpl>(protected val
 
     override fun getId(name: ImageName) = info(name).id
 
-    protected fun locate(locator: ImageLocator) =
-            list(nameFilter = (locator as? ImageName)?.toString())
-                    .filter(infoFilter(locator))
+    /**
+     * Locates images with a single inspect request, which docker resolves by name, id or partial id.
+     * Images are only listed when the inspected image doesn't match the locator (e.g. names without tag,
+     * or ids that docker resolved as a name), never when docker reports the image as not found.
+     */
+    protected fun locate(locator: ImageLocator): List<ImageInfo> {
+        val filter = infoFilter(locator)
+        try {
+            val info = inspect(locator)
+            if (filter(info)) return listOf(info)
+        } catch (e: ImageNotFoundException) {
+            return emptyList()
+        }
+        return list(nameFilter = (locator as? ImageName)?.toString())
+                .filter(filter)
+    }
 
     override fun isAvailable(locator: ImageLocator) =
             locate(locator).isNotEmpty()
@@ -1,24 +1,32 @@
 package org.dockercontainerobjects.docker.impl.dockerjava
 
+import com.github.dockerjava.api.exception.ConflictException
 import com.github.dockerjava.api.exception.NotFoundException
+import com.github.dockerjava.api.model.Event
+import com.github.dockerjava.api.model.EventType
 import com.github.dockerjava.api.model.Frame
 import com.github.dockerjava.api.model.StreamType.STDERR
 import com.github.dockerjava.api.model.StreamType.STDOUT
 import com.github.dockerjava.core.async.ResultCallbackTemplate
 import com.github.dockerjava.core.command.WaitContainerResultCallback
+import org.dockercontainerobjects.docker.ContainerEvent
+import org.dockercontainerobjects.docker.ContainerEventsSpec
+import org.dockercontainerobjects.docker.ContainerEventsSubscription
 import org.dockercontainerobjects.docker.ContainerId
 import org.dockercontainerobjects.docker.ContainerLocator
-import org.dockercontainerobjects.docker.ContainerLogEntryContext
 import org.dockercontainerobjects.docker.ContainerLogSpec
 import org.dockercontainerobjects.docker.ContainerNotFoundException
 import org.dockercontainerobjects.docker.ContainerSpec
 import org.dockercontainerobjects.docker.ContainerStatus
 import org.dockercontainerobjects.docker.ImageLocator
 import org.dockercontainerobjects.docker.ImageNotFoundException
+import org.dockercontainerobjects.docker.support.AbstractContainerLogEntryContext
 import org.dockercontainerobjects.docker.support.AbstractDockerContainersImpl
 import java.io.Closeable
+import java.io.IOException
 import java.time.Duration
 import java.time.Instant
+import java.util.concurrent.atomic.AtomicBoolean
 import javax.ws.rs.ProcessingException
 
 class DockerJavaDockerContainersImpl(docker: DockerJavaDockerImpl)
@@ -91,13 +99,39 @@ class DockerJavaDockerContainersImpl(docker: DockerJavaDockerImpl)
     override fun stop(locator: ContainerLocator): Int =
         try {
             docker.client.stopContainerCmd(locator.toString()).exec()
-            docker.client.waitContainerCmd(locator.toString())
-                    .exec(WaitContainerResultCallback())
-                    .awaitStatusCode()
+            awaitExit(locator)
+        } catch (e: NotFoundException) {
+            throw ContainerNotFoundException(e)
+        }
+
+    override fun stop(locator: ContainerLocator, timeout: Duration): Int =
+        try {
+            docker.client.stopContainerCmd(locator.toString())
+                    // docker only takes whole seconds, rounded up so a short timeout doesn't become an immediate kill
+                    .withTimeout(timeout.plusNanos(999_999_999).seconds.toInt())
+                    .exec()
+            awaitExit(locator)
+        } catch (e: NotFoundException) {
+            throw ContainerNotFoundException(e)
+        }
+
+    override fun kill(locator: ContainerLocator): Int =
+        try {
+            docker.client.killContainerCmd(locator.toString()).exec()
+            awaitExit(locator)
         } catch (e: NotFoundException) {
             throw ContainerNotFoundException(e)
+        } catch (e: ConflictException) {
+            // docker refuses to kill a container that is not running, which is already where the kill would leave it
+            if (status(locator) == ContainerStatus.RUNNING) throw e
+            awaitExit(locator)
         }
 
+    private fun awaitExit(locator: ContainerLocator) =
+            docker.client.waitContainerCmd(locator.toString())
+                    .exec(WaitContainerResultCallback())
+                    .awaitStatusCode()
+
     override fun restart(locator: ContainerLocator) {
         try {
             docker.client.restartContainerCmd(locator.toString()).exec()
@@ -148,6 +182,59 @@ class DockerJavaDockerContainersImpl(docker: DockerJavaDockerImpl)
         }
     }
 
+    override fun events(spec: ContainerEventsSpec): ContainerEventsSubscription =
+            docker.client.eventsCmd()
+                    .also {
+                        // other types of events are discarded by the callback
+                        spec.since?.let { since -> it.withSince("${since.epochSecond}.${"%09d".format(since.nano)}") }
+                        spec.container?.let { container -> it.withContainerFilter(container.toString()) }
+                        if (spec.labels.isNotEmpty()) it.withLabelFilter(spec.labels)
+                    }
+                    .exec(EventsResultCallback(spec))
+
+    class EventsResultCallback(
+            private val spec: ContainerEventsSpec
+    ): ResultCallbackTemplate<EventsResultCallback, Event>(), ContainerEventsSubscription {
+
+        private val ended = AtomicBoolean()
+
+        override fun onNext(event: Event) {
+            // daemons older than the 1.22 API report neither type nor actor
+            if (event.type !== null && event.type != EventType.CONTAINER) return
+            val id = event.actor?.id ?: event.id ?: return
+            val action = event.action ?: event.status ?: return
+            val time = event.timeNano?.let { Instant.EPOCH.plusNanos(it) } ?: Instant.ofEpochSecond(event.time ?: 0)
+            val containerEvent = ContainerEvent(ContainerId(id), action, time, event.actor?.attributes.orEmpty())
+            if (spec.accepts(containerEvent)) spec.eventHandler(containerEvent)
+        }
+
+        override fun onError(throwable: Throwable) {
+            done(throwable)
+            super.onError(throwable)
+        }
+
+        override fun onComplete() {
+            done(null)
+            super.onComplete()
+        }
+
+        // the subscriber is told only once, and only if it did not close the stream itself
+        private fun done(error: Throwable?) {
+            if (ended.compareAndSet(false, true)) spec.eventsDoneHandler(error)
+        }
+
+        override fun close() {
+            ended.set(true)
+            try {
+                super.close()
+            } catch (e: IOException) {
+                // ignore any errors closing the events stream
+            } catch (e: ProcessingException) {
+                // ignore any errors closing the events stream
+            }
+        }
+    }
+
     class AdapterResultCallback(
             private val spec: ContainerLogSpec
     ): ResultCallbackTemplate<AdapterResultCallback, Frame>() {
@@ -170,7 +257,7 @@ class DockerJavaDockerContainersImpl(docker: DockerJavaDockerImpl)
     class FrameLogEntryContext(
             private val frame: Frame,
             private val adapter: AdapterResultCallback
-    ): ContainerLogEntryContext {
+    ): AbstractContainerLogEntryContext() {
 
         override fun stop() {
             try {
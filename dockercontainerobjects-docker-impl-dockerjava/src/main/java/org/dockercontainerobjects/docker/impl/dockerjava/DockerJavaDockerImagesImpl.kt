@@ -9,7 +9,6 @@ import org.dockercontainerobjects.docker.ImageName
 import org.dockercontainerobjects.docker.ImageNotFoundException
 import org.dockercontainerobjects.docker.ImageSpec
 import org.dockercontainerobjects.docker.support.AbstractDockerImagesImpl
-import java.io.ByteArrayInputStream
 
 class DockerJavaDockerImagesImpl(docker: DockerJavaDockerImpl)
         : AbstractDockerImagesImpl<DockerJavaDockerImpl>(docker) {
@@ -43,24 +42,28 @@ class DockerJavaDockerImagesImpl(docker: DockerJavaDockerImpl)
         }
     }
 
-    override fun build(spec: ImageSpec) =
-        docker.client.buildImageCmd().apply {
-            spec.dockerFile.let {
-                if (it != null) withDockerfile(it)
-            }
-            spec.imageContent.let {
-                if (it != null) withTarInputStream(ByteArrayInputStream(it))
-            }
-            if (spec.tags.isNotEmpty()) {
-                withTags(spec.tags.mapTo(mutableSetOf(), ImageName::toString))
-            }
-            if (spec.labels.isNotEmpty()) {
-                withLabels(spec.labels)
-            }
-            withPull(spec.pull)
-        }.exec(BuildImageResultCallback())
-                .awaitImageId()
-                .let { ImageId(it) }
+    override fun build(spec: ImageSpec): ImageId {
+        val imageContent = spec.openImageContent()
+        try {
+            return docker.client.buildImageCmd().apply {
+                spec.dockerFile.let {
+                    if (it != null) withDockerfile(it)
+                }
+                if (imageContent != null) withTarInputStream(imageContent)
+                if (spec.tags.isNotEmpty()) {
+                    withTags(spec.tags.mapTo(mutableSetOf(), ImageName::toString))
+                }
+                if (spec.labels.isNotEmpty()) {
+                    withLabels(spec.labels)
+                }
+                withPull(spec.pull)
+            }.exec(BuildImageResultCallback())
+                    .awaitImageId()
+                    .let { ImageId(it) }
+        } finally {
+            imageContent?.close()
+        }
+    }
 
     override fun remove(locator: ImageLocator, force: Boolean) {
         try {
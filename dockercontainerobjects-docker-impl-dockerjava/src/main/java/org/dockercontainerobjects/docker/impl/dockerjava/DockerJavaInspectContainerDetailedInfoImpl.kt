@@ -1,6 +1,7 @@
 package org.dockercontainerobjects.docker.impl.dockerjava
 
 import com.github.dockerjava.api.command.InspectContainerResponse
+import org.dockercontainerobjects.docker.ContainerHealthStatus
 import org.dockercontainerobjects.docker.ContainerId
 import org.dockercontainerobjects.docker.ContainerName
 import org.dockercontainerobjects.docker.ContainerStatus
@@ -33,6 +34,9 @@ class DockerJavaInspectContainerDetailedInfoImpl(private val response: InspectCo
                 response.state.status?.toUpperCase() ?: throw IllegalStateException()
         )
 
+    override val health
+        get() = ContainerHealthStatus.of(response.state.health?.status)
+
     override val environment by lazy {
         response.config?.env?.map {
             it.substringBefore(SEPARATOR, it) to it.substringAfter(SEPARATOR, "")
@@ -104,4 +104,18 @@ class DockerContainersTest {
             assertThrows<ContainerNotFoundException> { status(id) }
         }
     }
+
+    @Test
+    fun testKillExitedWithId() {
+        val spec = ContainerSpec(UPSTREAM_IMAGE_NAME)
+        docker.containers.run {
+            val id = create(spec)
+            start(id)
+            stop(id)
+            assertEquals(EXITED, status(id))
+            kill(id)
+            assertEquals(EXITED, status(id))
+            remove(id)
+        }
+    }
 }
@@ -0,0 +1,96 @@
+package org.dockercontainerobjects.docker.impl.inmemory
+
+import org.dockercontainerobjects.docker.Addresses
+import org.dockercontainerobjects.docker.ContainerHealthStatus
+import org.dockercontainerobjects.docker.ContainerHealthStatus.NONE
+import org.dockercontainerobjects.docker.ContainerHealthStatus.STARTING
+import org.dockercontainerobjects.docker.ContainerId
+import org.dockercontainerobjects.docker.ContainerName
+import org.dockercontainerobjects.docker.ContainerStatus
+import org.dockercontainerobjects.docker.ContainerStatus.CREATED
+import org.dockercontainerobjects.docker.ImageId
+import org.dockercontainerobjects.docker.NetworkInfo
+import org.dockercontainerobjects.docker.NetworkSettings
+import org.dockercontainerobjects.docker.support.AbstractContainerDetailedInfo
+import java.net.Inet4Address
+import java.net.Inet6Address
+import java.net.InetAddress
+import java.time.Duration
+import java.time.Instant
+import java.util.concurrent.CompletableFuture
+
+internal class InMemoryContainer(
+        val image: ImageId,
+        val name: ContainerName?,
+        val environment: Map<String, String>,
+        val labels: Map<String, String>,
+        address: Inet4Address,
+        /** time the health check takes to report the container as healthy, if the image has one */
+        val healthyAfter: Duration? = null
+) {
+    val id = ContainerId(randomHash())
+    val created: Instant = Instant.now()
+    val network: NetworkSettings = InMemoryNetworkSettings(InMemoryAddresses(address))
+
+    // guarded by this
+    var status: ContainerStatus = CREATED
+        private set
+    // guarded by this
+    var health: ContainerHealthStatus = NONE
+    // completed every time the container stops running, replaced when it starts again
+    private var running = CompletableFuture<Unit>().also { it.complete(Unit) }
+
+    @Synchronized
+    fun transition(status: ContainerStatus) {
+        if (status in RUNNING_STATUSES && this.status !in RUNNING_STATUSES) {
+            running = CompletableFuture()
+            if (healthyAfter !== null) health = STARTING
+        }
+        this.status = status
+        if (status !in RUNNING_STATUSES) running.complete(Unit)
+    }
+
+    /** completes once the container is no longer running */
+    @Synchronized
+    fun stopped(): CompletableFuture<Unit> = running
+
+    @Synchronized
+    fun info() = InMemoryContainerDetailedInfoImpl(
+            id, created, listOfNotNull(name), status, health, environment, labels, network)
+
+    companion object {
+        val RUNNING_STATUSES = setOf(ContainerStatus.RUNNING, ContainerStatus.PAUSED, ContainerStatus.RESTARTING)
+    }
+}
+
+class InMemoryContainerDetailedInfoImpl internal constructor(
+        override val id: ContainerId,
+        override val created: Instant,
+        override val names: List<ContainerName>,
+        override val status: ContainerStatus,
+        override val health: ContainerHealthStatus,
+        override val environment: Map<String, String>,
+        override val labels: Map<String, String>,
+        override val network: NetworkSettings
+) : AbstractContainerDetailedInfo()
+
+class InMemoryNetworkSettings internal constructor(override val addresses: Addresses) : NetworkSettings {
+
+    override val networks: Map<String, NetworkInfo> = mapOf(BRIDGE_NETWORK to InMemoryNetworkInfo(addresses))
+
+    companion object {
+        const val BRIDGE_NETWORK = "bridge"
+    }
+}
+
+class InMemoryNetworkInfo internal constructor(override val addresses: Addresses) : NetworkInfo {
+
+    override val id = InMemoryNetworkSettings.BRIDGE_NETWORK
+    override val name = InMemoryNetworkSettings.BRIDGE_NETWORK
+}
+
+class InMemoryAddresses internal constructor(override val ip4: Inet4Address) : Addresses {
+
+    override val preferred: InetAddress get() = ip4
+    override val ip6: Inet6Address? = null
+}
@@ -0,0 +1,329 @@
+package org.dockercontainerobjects.docker.impl.inmemory
+
+import org.dockercontainerobjects.docker.ContainerEvent
+import org.dockercontainerobjects.docker.ContainerEventType
+import org.dockercontainerobjects.docker.ContainerEventType.CREATE
+import org.dockercontainerobjects.docker.ContainerEventType.DESTROY
+import org.dockercontainerobjects.docker.ContainerEventType.DIE
+import org.dockercontainerobjects.docker.ContainerEventType.HEALTH_STATUS
+import org.dockercontainerobjects.docker.ContainerEventType.KILL
+import org.dockercontainerobjects.docker.ContainerEventType.START
+import org.dockercontainerobjects.docker.ContainerEventType.STOP
+import org.dockercontainerobjects.docker.ContainerEventsSpec
+import org.dockercontainerobjects.docker.ContainerEventsSubscription
+import org.dockercontainerobjects.docker.ContainerHealthStatus
+import org.dockercontainerobjects.docker.ContainerHealthStatus.HEALTHY
+import org.dockercontainerobjects.docker.ContainerId
+import org.dockercontainerobjects.docker.ContainerLocator
+import org.dockercontainerobjects.docker.ContainerLogSpec
+import org.dockercontainerobjects.docker.ContainerName
+import org.dockercontainerobjects.docker.ContainerNotFoundException
+import org.dockercontainerobjects.docker.ContainerSpec
+import org.dockercontainerobjects.docker.ContainerStatus
+import org.dockercontainerobjects.docker.ContainerStatus.CREATED
+import org.dockercontainerobjects.docker.ContainerStatus.EXITED
+import org.dockercontainerobjects.docker.ContainerStatus.PAUSED
+import org.dockercontainerobjects.docker.ContainerStatus.RUNNING
+import org.dockercontainerobjects.docker.ImageId
+import org.dockercontainerobjects.docker.ImageLocator
+import org.dockercontainerobjects.docker.impl.inmemory.InMemoryDockerOperation.CONTAINER_CREATE
+import org.dockercontainerobjects.docker.impl.inmemory.InMemoryDockerOperation.CONTAINER_EVENTS
+import org.dockercontainerobjects.docker.impl.inmemory.InMemoryDockerOperation.CONTAINER_INSPECT
+import org.dockercontainerobjects.docker.impl.inmemory.InMemoryDockerOperation.CONTAINER_KILL
+import org.dockercontainerobjects.docker.impl.inmemory.InMemoryDockerOperation.CONTAINER_LIST
+import org.dockercontainerobjects.docker.impl.inmemory.InMemoryDockerOperation.CONTAINER_LOGS
+import org.dockercontainerobjects.docker.impl.inmemory.InMemoryDockerOperation.CONTAINER_PAUSE
+import org.dockercontainerobjects.docker.impl.inmemory.InMemoryDockerOperation.CONTAINER_REMOVE
+import org.dockercontainerobjects.docker.impl.inmemory.InMemoryDockerOperation.CONTAINER_RESTART
+import org.dockercontainerobjects.docker.impl.inmemory.InMemoryDockerOperation.CONTAINER_START
+import org.dockercontainerobjects.docker.impl.inmemory.InMemoryDockerOperation.CONTAINER_STOP
+import org.dockercontainerobjects.docker.impl.inmemory.InMemoryDockerOperation.CONTAINER_UNPAUSE
+import org.dockercontainerobjects.docker.support.AbstractContainerLogEntryContext
+import org.dockercontainerobjects.docker.support.AbstractDockerContainersImpl
+import java.net.Inet4Address
+import java.net.InetAddress
+import java.time.Duration
+import java.time.Instant
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.CopyOnWriteArrayList
+import java.util.concurrent.ExecutionException
+import java.util.concurrent.TimeUnit.NANOSECONDS
+import java.util.concurrent.TimeoutException
+import java.util.concurrent.atomic.AtomicInteger
+
+class InMemoryDockerContainersImpl(docker: InMemoryDockerImpl)
+        : AbstractDockerContainersImpl<InMemoryDockerImpl>(docker) {
+
+    companion object {
+        // 128 + SIGKILL, as reported by docker for killed containers
+        const val KILLED_EXIT_CODE = 137
+    }
+
+    private val containers: MutableMap<ContainerId, InMemoryContainer> = ConcurrentHashMap()
+    private val addresses = AtomicInteger()
+    private val eventStreams: MutableList<InMemoryEventStream> = CopyOnWriteArrayList()
+
+    override fun list(
+            nameFilter: String?,
+            idFilter: String?,
+            fromImage: ImageLocator?,
+            status: ContainerStatus?,
+            labels: Map<String, String>?,
+            includeAll: Boolean
+    ): List<InMemoryContainerDetailedInfoImpl> {
+        docker.simulate(CONTAINER_LIST)
+        val imageId = fromImage?.let { docker.images.find(it).id }
+        return containers.values
+                .map { it to it.info() }
+                .filter { (container, info) ->
+                    (nameFilter === null || info.names.any { it.name.contains(nameFilter) }) &&
+                            (idFilter === null || info.id.id.startsWith(idFilter)) &&
+                            (imageId === null || container.image == imageId) &&
+                            (status === null || info.status == status) &&
+                            (labels === null || labels.all { (name, value) -> info.labels[name] == value }) &&
+                            (includeAll || info.status == RUNNING)
+                }
+                .map { it.second }
+    }
+
+    override fun inspect(locator: ContainerLocator): InMemoryContainerDetailedInfoImpl {
+        docker.simulate(CONTAINER_INSPECT)
+        return find(locator).info()
+    }
+
+    override fun create(spec: ContainerSpec): ContainerId {
+        docker.simulate(CONTAINER_CREATE)
+        val image = docker.images.find(spec.image)
+        val name = spec.name?.let { ContainerName(it) }
+        synchronized(containers) {
+            if (name !== null && containers.values.any { it.name == name })
+                throw IllegalStateException("Container name '$name' is already in use")
+            val container = InMemoryContainer(
+                    image.id, name, spec.environment.toMap(), spec.labels.toMap(), nextAddress(), docker.healthCheck(image))
+            containers[container.id] = container
+            container.publish(CREATE)
+            return container.id
+        }
+    }
+
+    override fun start(locator: ContainerLocator) {
+        docker.simulate(CONTAINER_START)
+        val container = find(locator)
+        val started = synchronized(container) {
+            when (container.status) {
+                CREATED, EXITED -> { container.transition(RUNNING); true }
+                RUNNING -> false // already started
+                else -> throw IllegalStateException("Container '$locator' cannot be started while ${container.status}")
+            }
+        }
+        if (started) {
+            container.publish(START)
+            container.checkHealth()
+        }
+    }
+
+    override fun stop(locator: ContainerLocator): Int {
+        docker.simulate(CONTAINER_STOP)
+        return exit(locator, 0, STOP)
+    }
+
+    // a graceful stop always finishes in time in memory, the timeout only matters to a real daemon
+    override fun stop(locator: ContainerLocator, timeout: Duration) = stop(locator)
+
+    override fun kill(locator: ContainerLocator): Int {
+        docker.simulate(CONTAINER_KILL)
+        return exit(locator, KILLED_EXIT_CODE, KILL)
+    }
+
+    private fun exit(locator: ContainerLocator, exitCode: Int, type: ContainerEventType): Int {
+        val container = find(locator)
+        val exited = synchronized(container) {
+            val running = container.status != CREATED && container.status != EXITED
+            if (running) container.transition(EXITED)
+            running
+        }
+        if (exited) {
+            // docker reports the kill before the container dies, and the stop once it died
+            if (type == KILL) container.publish(KILL)
+            container.publish(DIE, exitCode)
+            if (type == STOP) container.publish(STOP)
+        }
+        return exitCode
+    }
+
+    override fun restart(locator: ContainerLocator) {
+        docker.simulate(CONTAINER_RESTART)
+        val container = find(locator)
+        synchronized(container) {
+            container.transition(EXITED)
+            container.transition(RUNNING)
+        }
+        container.publish(DIE, 0)
+        container.publish(START)
+        container.publish(ContainerEventType.RESTART)
+        container.checkHealth()
+    }
+
+    /** changes the health reported for the container, as a HEALTHCHECK would */
+    fun health(locator: ContainerLocator, health: ContainerHealthStatus) {
+        val container = find(locator)
+        val changed = synchronized(container) {
+            if (container.status != RUNNING)
+                throw IllegalStateException("Container '$locator' cannot report health while ${container.status}")
+            (container.health != health).also { container.health = health }
+        }
+        if (changed) container.publish(HEALTH_STATUS, action = "${HEALTH_STATUS.action}: ${health.status}")
+    }
+
+    // reports the container as healthy if it keeps running for the time configured for its image
+    private fun InMemoryContainer.checkHealth() {
+        val healthyAfter = healthyAfter ?: return
+        val running = stopped()
+        docker.streamExecutor.execute {
+            try {
+                running.get(healthyAfter.toNanos(), NANOSECONDS)
+            } catch (e: TimeoutException) {
+                val changed = synchronized(this) {
+                    (stopped() === running && health != HEALTHY).also { if (it) health = HEALTHY }
+                }
+                if (changed) publish(HEALTH_STATUS, action = "${HEALTH_STATUS.action}: ${HEALTHY.status}")
+            } catch (e: InterruptedException) {
+                // docker closed
+            }
+        }
+    }
+
+    override fun pause(locator: ContainerLocator) {
+        docker.simulate(CONTAINER_PAUSE)
+        val container = find(locator)
+        synchronized(container) {
+            if (container.status != RUNNING)
+                throw IllegalStateException("Container '$locator' cannot be paused while ${container.status}")
+            container.transition(PAUSED)
+        }
+    }
+
+    override fun unpause(locator: ContainerLocator) {
+        docker.simulate(CONTAINER_UNPAUSE)
+        val container = find(locator)
+        synchronized(container) {
+            if (container.status != PAUSED)
+                throw IllegalStateException("Container '$locator' cannot be unpaused while ${container.status}")
+            container.transition(RUNNING)
+        }
+    }
+
+    override fun remove(locator: ContainerLocator, force: Boolean, removeVolumes: Boolean) {
+        docker.simulate(CONTAINER_REMOVE)
+        val container = find(locator)
+        val killed = synchronized(container) {
+            val running = container.status in InMemoryContainer.RUNNING_STATUSES
+            if (running && !force)
+                throw IllegalStateException("Container '$locator' cannot be removed while ${container.status}")
+            container.transition(EXITED)
+            containers.remove(container.id)
+            running
+        }
+        if (killed) {
+            container.publish(KILL)
+            container.publish(DIE, KILLED_EXIT_CODE)
+        }
+        container.publish(DESTROY)
+    }
+
+    /**
+     * Emits the log script configured for the container image, if any, on a separate thread.
+     * As docker does when following logs, the log is done only once the container stops running.
+     */
+    override fun logs(locator: ContainerLocator, spec: ContainerLogSpec) {
+        docker.simulate(CONTAINER_LOGS)
+        val container = find(locator)
+        val script = docker.images.findOrNull(container.image)?.let { docker.logScript(it) }
+        docker.streamExecutor.execute(LogStream(container, script, spec))
+    }
+
+    override fun events(spec: ContainerEventsSpec): ContainerEventsSubscription {
+        docker.simulate(CONTAINER_EVENTS)
+        // the stream receives events as soon as it is returned, so there is nothing to replay since spec.since
+        val stream = InMemoryEventStream(spec) { eventStreams.remove(it) }
+        eventStreams += stream
+        docker.streamExecutor.execute(stream)
+        return stream
+    }
+
+    internal fun endEventStreams(cause: Throwable?) {
+        eventStreams.forEach { it.end(cause) }
+    }
+
+    private fun InMemoryContainer.publish(type: ContainerEventType, exitCode: Int? = null, action: String = type.action) {
+        if (eventStreams.isEmpty()) return
+        val attributes = labels.toMutableMap()
+        name?.let { attributes["name"] = it.name }
+        attributes["image"] = image.toString()
+        exitCode?.let { attributes[ContainerEvent.ATTRIBUTE_EXIT_CODE] = it.toString() }
+        val event = ContainerEvent(id, action, Instant.now(), attributes)
+        eventStreams.forEach { it.publish(this, event) }
+    }
+
+    internal fun isUsingImage(image: ImageId) = containers.values.any { it.image == image }
+
+    private fun find(locator: ContainerLocator) =
+            when (locator) {
+                is ContainerId -> containers.values.firstOrNull { locator.matches(it.id) }
+                is ContainerName -> containers.values.firstOrNull { it.name == locator }
+            } ?: throw ContainerNotFoundException("Container '$locator' not found")
+
+    private fun nextAddress(): Inet4Address {
+        val n = addresses.incrementAndGet()
+        val address = byteArrayOf(172.toByte(), 17, (n shr 8 and 0xFF).toByte(), (n and 0xFF).toByte())
+        return InetAddress.getByAddress(address) as Inet4Address
+    }
+
+    private class LogStream(
+            private val container: InMemoryContainer,
+            private val script: InMemoryLogScript?,
+            private val spec: ContainerLogSpec
+    ) : Runnable {
+
+        @Volatile private var stopped = false
+
+        override fun run() {
+            try {
+                spec.logStartHandler()
+                val start = System.nanoTime()
+                var elapsed = 0L
+                script?.entries?.forEach { entry ->
+                    elapsed += entry.delay.toNanos()
+                    val wait = start + elapsed - System.nanoTime()
+                    if (wait > 0) NANOSECONDS.sleep(wait)
+                    if (stopped) return@run
+                    if (entry.fromStandardError && !spec.standarErrorIncluded) return@forEach
+                    if (!entry.fromStandardError && !spec.standartOutputIncluded) return@forEach
+                    spec.logEntryHandler(Entry(entry, spec.timestampsIncluded))
+                    if (stopped) return@run
+                }
+                container.stopped().get()
+                spec.logDoneHandler()
+            } catch (e: InterruptedException) {
+                // docker closed
+            } catch (e: ExecutionException) {
+                // never completed exceptionally
+            }
+        }
+
+        private inner class Entry(
+                entry: InMemoryLogScript.Entry,
+                timestampsIncluded: Boolean
+        ) : AbstractContainerLogEntryContext() {
+
+            override val bytes =
+                    if (timestampsIncluded) "${Instant.now()} ".toByteArray() + entry.bytes else entry.bytes
+            override val fromStandardOutput = !entry.fromStandardError
+            override val fromStandardError = entry.fromStandardError
+
+            override fun stop() {
+                stopped = true
+            }
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package org.dockercontainerobjects.docker.impl.inmemory
+
+import org.dockercontainerobjects.docker.ImageId
+import org.dockercontainerobjects.docker.ImageLocator
+import org.dockercontainerobjects.docker.ImageName
+import org.dockercontainerobjects.docker.ImageNotFoundException
+import org.dockercontainerobjects.docker.ImageSpec
+import org.dockercontainerobjects.docker.impl.inmemory.InMemoryDockerOperation.IMAGE_BUILD
+import org.dockercontainerobjects.docker.impl.inmemory.InMemoryDockerOperation.IMAGE_INSPECT
+import org.dockercontainerobjects.docker.impl.inmemory.InMemoryDockerOperation.IMAGE_LIST
+import org.dockercontainerobjects.docker.impl.inmemory.InMemoryDockerOperation.IMAGE_PULL
+import org.dockercontainerobjects.docker.impl.inmemory.InMemoryDockerOperation.IMAGE_REMOVE
+import org.dockercontainerobjects.docker.support.AbstractDockerImagesImpl
+import java.io.InputStream
+import java.util.concurrent.ConcurrentHashMap
+
+class InMemoryDockerImagesImpl(docker: InMemoryDockerImpl) : AbstractDockerImagesImpl<InMemoryDockerImpl>(docker) {
+
+    private val images: MutableMap<ImageId, InMemoryImage> = ConcurrentHashMap()
+
+    override fun list(nameFilter: String?, labels: Map<String, String>?): List<InMemoryImageDetailedInfoImpl> {
+        docker.simulate(IMAGE_LIST)
+        return images.values
+                .filter { image ->
+                    (nameFilter === null || image.tags.any { it.repository == nameFilter || it.name == nameFilter }) &&
+                            (labels === null || labels.all { (name, value) -> image.labels[name] == value })
+                }
+                .map { it.info() }
+    }
+
+    override fun inspect(locator: ImageLocator): InMemoryImageDetailedInfoImpl {
+        docker.simulate(IMAGE_INSPECT)
+        return find(locator).info()
+    }
+
+    override fun pull(name: ImageName) {
+        docker.simulate(IMAGE_PULL)
+        val tag = name.normalized()
+        synchronized(images) {
+            if (images.values.none { tag in it.tags }) add(InMemoryImage(listOf(tag), emptyMap(), 0L))
+        }
+    }
+
+    override fun build(spec: ImageSpec): ImageId {
+        docker.simulate(IMAGE_BUILD)
+        // the build context is consumed, as docker would do when receiving it
+        val size = spec.openImageContent()?.use { it.drain() } ?: spec.dockerFile?.length() ?: 0L
+        val tags = spec.tags.map { it.normalized() }
+        synchronized(images) {
+            images.values.forEach { it.tags.removeAll(tags) }
+            return add(InMemoryImage(tags, spec.labels.toMap(), size)).id
+        }
+    }
+
+    override fun remove(locator: ImageLocator, force: Boolean) {
+        docker.simulate(IMAGE_REMOVE)
+        synchronized(images) {
+            val image = find(locator)
+            if (!force && docker.containers.isUsingImage(image.id))
+                throw IllegalStateException("Image '$locator' is being used by a container")
+            images.remove(image.id)
+        }
+    }
+
+    internal fun find(locator: ImageLocator): InMemoryImage =
+            when (locator) {
+                is ImageId -> images.values.firstOrNull { locator.matches(it.id) }
+                is ImageName -> locator.normalized().let { tag -> images.values.firstOrNull { tag in it.tags } }
+            } ?: throw ImageNotFoundException("Image '$locator' not found")
+
+    internal fun findOrNull(id: ImageId) = images[id]
+
+    private fun add(image: InMemoryImage) = image.also { images[it.id] = it }
+
+    private fun InputStream.drain(): Long {
+        val buffer = ByteArray(DRAIN_BUFFER_SIZE)
+        var total = 0L
+        while (true) {
+            val read = read(buffer)
+            if (read < 0) return total
+            total += read
+        }
+    }
+
+    companion object {
+        private const val DRAIN_BUFFER_SIZE = 64 * 1024
+    }
+}
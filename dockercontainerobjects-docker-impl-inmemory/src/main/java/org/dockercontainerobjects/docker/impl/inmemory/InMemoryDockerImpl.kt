@@ -0,0 +1,84 @@
+package org.dockercontainerobjects.docker.impl.inmemory
+
+import org.dockercontainerobjects.docker.ImageLocator
+import org.dockercontainerobjects.docker.ImageName
+import org.dockercontainerobjects.docker.support.AbstractDockerImpl
+import java.time.Duration
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.ExecutorService
+import java.util.concurrent.Executors
+import java.util.concurrent.ThreadFactory
+import java.util.concurrent.atomic.AtomicInteger
+import java.util.concurrent.locks.LockSupport
+
+/**
+ * Simulated docker daemon keeping images and containers in memory.
+ * Every operation waits the latency configured for it, or the default latency, before being applied.
+ */
+class InMemoryDockerImpl(defaultLatency: Duration = Duration.ZERO) : AbstractDockerImpl() {
+
+    @Volatile var defaultLatency: Duration = defaultLatency
+    private val latencies: MutableMap<InMemoryDockerOperation, Duration> = ConcurrentHashMap()
+    private val logScripts: MutableMap<ImageLocator, InMemoryLogScript> = ConcurrentHashMap()
+    private val healthChecks: MutableMap<ImageLocator, Duration> = ConcurrentHashMap()
+
+    override val images = InMemoryDockerImagesImpl(this)
+    override val containers = InMemoryDockerContainersImpl(this)
+
+    // follows container logs and events streams
+    internal val streamExecutor: ExecutorService = Executors.newCachedThreadPool(StreamThreadFactory)
+
+    fun withLatency(latency: Duration) = this.also { defaultLatency = latency }
+    fun withLatency(operation: InMemoryDockerOperation, latency: Duration) = this.also { latencies[operation] = latency }
+
+    fun latency(operation: InMemoryDockerOperation) = latencies[operation] ?: defaultLatency
+
+    /** the script is used for containers created from the image, either by the given name or by id */
+    fun withLogScript(image: ImageLocator, script: InMemoryLogScript) =
+            this.also { logScripts[if (image is ImageName) image.normalized() else image] = script }
+
+    internal fun logScript(image: InMemoryImage) =
+            logScripts[image.id] ?: image.tags.asSequence().mapNotNull { logScripts[it] }.firstOrNull()
+
+    /**
+     * Containers created from the image report a health status, as if it declared a HEALTHCHECK.
+     * They start as starting and become healthy once running for the given time.
+     */
+    fun withHealthCheck(image: ImageLocator, healthyAfter: Duration) =
+            this.also { healthChecks[if (image is ImageName) image.normalized() else image] = healthyAfter }
+
+    internal fun healthCheck(image: InMemoryImage) =
+            healthChecks[image.id] ?: image.tags.asSequence().mapNotNull { healthChecks[it] }.firstOrNull()
+
+    /** ends all the open events streams, with the given error if any, as when the connection to docker is lost */
+    fun endEventStreams(cause: Throwable? = null) {
+        containers.endEventStreams(cause)
+    }
+
+    internal fun simulate(operation: InMemoryDockerOperation) {
+        val latency = latency(operation)
+        if (latency.isZero || latency.isNegative) return
+        val deadline = System.nanoTime() + latency.toNanos()
+        while (true) {
+            val remaining = deadline - System.nanoTime()
+            if (remaining <= 0) return
+            LockSupport.parkNanos(remaining)
+        }
+    }
+
+    override fun close() {
+        streamExecutor.shutdownNow()
+    }
+
+    private object StreamThreadFactory : ThreadFactory {
+
+        private val counter = AtomicInteger()
+
+        override fun newThread(r: Runnable) =
+                Thread(r, "inmemory-docker-streams-${counter.incrementAndGet()}").also { it.isDaemon = true }
+    }
+}
+
+internal fun ImageName.normalized() =
+        if (name.substringAfterLast('/').contains(ImageName.SEPARATOR)) this
+        else ImageName("$name${ImageName.SEPARATOR}${ImageName.LATEST}")
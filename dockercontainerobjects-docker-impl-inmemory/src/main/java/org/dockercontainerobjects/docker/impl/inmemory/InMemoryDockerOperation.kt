@@ -0,0 +1,7 @@
+package org.dockercontainerobjects.docker.impl.inmemory
+
+enum class InMemoryDockerOperation {
+    IMAGE_LIST, IMAGE_INSPECT, IMAGE_PULL, IMAGE_BUILD, IMAGE_REMOVE,
+    CONTAINER_LIST, CONTAINER_INSPECT, CONTAINER_CREATE, CONTAINER_START, CONTAINER_STOP, CONTAINER_KILL, CONTAINER_RESTART,
+    CONTAINER_PAUSE, CONTAINER_UNPAUSE, CONTAINER_REMOVE, CONTAINER_LOGS, CONTAINER_EVENTS
+}
@@ -0,0 +1,86 @@
+package org.dockercontainerobjects.docker.impl.inmemory
+
+import org.dockercontainerobjects.docker.ContainerEvent
+import org.dockercontainerobjects.docker.ContainerEventsSpec
+import org.dockercontainerobjects.docker.ContainerEventsSubscription
+import org.dockercontainerobjects.docker.ContainerId
+import org.dockercontainerobjects.docker.ContainerName
+import org.slf4j.LoggerFactory
+import java.time.Instant
+import java.util.concurrent.LinkedBlockingQueue
+
+/**
+ * Delivers the events accepted by a subscription in order, on its own thread, as docker does for each events stream.
+ */
+internal class InMemoryEventStream(
+        private val spec: ContainerEventsSpec,
+        private val onClose: (InMemoryEventStream) -> Unit
+) : ContainerEventsSubscription, Runnable {
+
+    private val queue = LinkedBlockingQueue<ContainerEvent>()
+    @Volatile private var closed = false
+    // set when the stream is ended by docker instead of by the subscriber
+    @Volatile private var ended = false
+    @Volatile private var endCause: Throwable? = null
+
+    fun publish(container: InMemoryContainer, event: ContainerEvent) {
+        if (closed || !spec.accepts(event)) return
+        val locator = spec.container
+        val matches = when (locator) {
+            null -> true
+            is ContainerId -> locator.matches(container.id)
+            is ContainerName -> locator == container.name
+        }
+        if (matches && spec.labels.all { (name, value) -> container.labels[name] == value }) queue.put(event)
+    }
+
+    override fun run() {
+        try {
+            while (!closed) {
+                val event = queue.take()
+                if (!closed) deliver(event)
+            }
+        } catch (e: InterruptedException) {
+            // docker closed, which ends the stream unless the subscriber closed it already
+            if (!closed) ended = true
+        }
+        if (ended) done()
+    }
+
+    fun end(cause: Throwable?) {
+        if (closed) return
+        endCause = cause
+        ended = true
+        close()
+    }
+
+    private fun done() {
+        try {
+            spec.eventsDoneHandler(endCause)
+        } catch (e: Exception) {
+            l.warn("events done handler failed", e)
+        }
+    }
+
+    private fun deliver(event: ContainerEvent) {
+        try {
+            spec.eventHandler(event)
+        } catch (e: Exception) {
+            // a failing handler must not stop the delivery of the events that follow
+            l.warn("event handler failed for event ${event.action} of container ${event.container}", e)
+        }
+    }
+
+    override fun close() {
+        closed = true
+        onClose(this)
+        // wakes up the delivery thread, the event itself is discarded
+        queue.offer(CLOSED)
+    }
+
+    companion object {
+        @JvmStatic private val l = LoggerFactory.getLogger(InMemoryEventStream::class.java)
+
+        private val CLOSED = ContainerEvent(ContainerId("closed"), "", Instant.EPOCH)
+    }
+}
@@ -0,0 +1,39 @@
+package org.dockercontainerobjects.docker.impl.inmemory
+
+import org.dockercontainerobjects.docker.ImageId
+import org.dockercontainerobjects.docker.ImageName
+import org.dockercontainerobjects.docker.support.AbstractImageDetailedInfo
+import java.time.Instant
+import java.util.concurrent.CopyOnWriteArraySet
+import java.util.concurrent.ThreadLocalRandom
+
+internal class InMemoryImage(
+        tags: Collection<ImageName>,
+        val labels: Map<String, String>,
+        val size: Long
+) {
+    val id = ImageId("${ImageId.ALGORITHM_SHA256}${ImageId.SEPARATOR}${randomHash()}")
+    val created: Instant = Instant.now()
+    val tags: MutableSet<ImageName> = CopyOnWriteArraySet(tags)
+
+    fun info() = InMemoryImageDetailedInfoImpl(id, created, size, tags.toList(), labels)
+}
+
+class InMemoryImageDetailedInfoImpl internal constructor(
+        override val id: ImageId,
+        override val created: Instant,
+        override val size: Long,
+        override val tags: List<ImageName>,
+        override val labels: Map<String, String>
+) : AbstractImageDetailedInfo() {
+
+    override val author = ""
+    override val os = "linux"
+    override val architecture = "amd64"
+    override val environment = emptyMap<String, String>()
+}
+
+internal fun randomHash(): String {
+    val random = ThreadLocalRandom.current()
+    return (1..4).joinToString("") { "%016x".format(random.nextLong()) }
+}
@@ -0,0 +1,24 @@
+package org.dockercontainerobjects.docker.impl.inmemory
+
+import java.time.Duration
+
+/**
+ * Log output produced by containers, emitted entry by entry after the configured delays,
+ * counted from the moment the log is requested.
+ */
+class InMemoryLogScript {
+
+    class Entry(val bytes: ByteArray, val fromStandardError: Boolean, val delay: Duration)
+
+    private val _entries = mutableListOf<Entry>()
+
+    val entries: List<Entry> get() = synchronized(_entries) { _entries.toList() }
+
+    fun stdout(text: String, delay: Duration = Duration.ZERO) = stdout(text.toByteArray(), delay)
+    fun stdout(bytes: ByteArray, delay: Duration = Duration.ZERO) = add(Entry(bytes, false, delay))
+
+    fun stderr(text: String, delay: Duration = Duration.ZERO) = stderr(text.toByteArray(), delay)
+    fun stderr(bytes: ByteArray, delay: Duration = Duration.ZERO) = add(Entry(bytes, true, delay))
+
+    private fun add(entry: Entry) = this.also { synchronized(_entries) { _entries += entry } }
+}
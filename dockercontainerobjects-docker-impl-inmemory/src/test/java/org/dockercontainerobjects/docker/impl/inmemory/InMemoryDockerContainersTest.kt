@@ -0,0 +1,289 @@
+package org.dockercontainerobjects.docker.impl.inmemory
+
+import org.dockercontainerobjects.docker.ContainerEventType
+import org.dockercontainerobjects.docker.ContainerEventType.CREATE
+import org.dockercontainerobjects.docker.ContainerEventType.DESTROY
+import org.dockercontainerobjects.docker.ContainerEventType.DIE
+import org.dockercontainerobjects.docker.ContainerEventType.HEALTH_STATUS
+import org.dockercontainerobjects.docker.ContainerEventType.KILL
+import org.dockercontainerobjects.docker.ContainerEventType.START
+import org.dockercontainerobjects.docker.ContainerEventType.STOP
+import org.dockercontainerobjects.docker.ContainerEventsSpec
+import org.dockercontainerobjects.docker.ContainerHealthStatus
+import org.dockercontainerobjects.docker.ContainerHealthStatus.HEALTHY
+import org.dockercontainerobjects.docker.ContainerHealthStatus.NONE
+import org.dockercontainerobjects.docker.ContainerHealthStatus.STARTING
+import org.dockercontainerobjects.docker.ContainerHealthStatus.UNHEALTHY
+import org.dockercontainerobjects.docker.ContainerLogEntryContext
+import org.dockercontainerobjects.docker.ContainerLogSpec
+import org.dockercontainerobjects.docker.ContainerName
+import org.dockercontainerobjects.docker.ContainerNotFoundException
+import org.dockercontainerobjects.docker.ContainerSpec
+import org.dockercontainerobjects.docker.ContainerStatus.CREATED
+import org.dockercontainerobjects.docker.ContainerStatus.EXITED
+import org.dockercontainerobjects.docker.ContainerStatus.PAUSED
+import org.dockercontainerobjects.docker.ContainerStatus.RUNNING
+import org.dockercontainerobjects.docker.ImageName
+import org.dockercontainerobjects.docker.ImageNotFoundException
+import org.dockercontainerobjects.docker.impl.inmemory.InMemoryDockerOperation.CONTAINER_CREATE
+import org.junit.jupiter.api.AfterEach
+import org.junit.jupiter.api.Assertions.assertEquals
+import org.junit.jupiter.api.Assertions.assertFalse
+import org.junit.jupiter.api.Assertions.assertNotSame
+import org.junit.jupiter.api.Assertions.assertSame
+import org.junit.jupiter.api.Assertions.assertThrows
+import org.junit.jupiter.api.Assertions.assertTrue
+import org.junit.jupiter.api.BeforeEach
+import org.junit.jupiter.api.DisplayName
+import org.junit.jupiter.api.Tag
+import org.junit.jupiter.api.Test
+import java.nio.charset.StandardCharsets.ISO_8859_1
+import java.nio.charset.StandardCharsets.UTF_8
+import java.time.Duration
+import java.util.concurrent.CopyOnWriteArrayList
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.Executors
+import java.util.concurrent.TimeUnit.SECONDS
+
+@DisplayName("In memory docker containers tests")
+@Tag("util")
+class InMemoryDockerContainersTest {
+
+    companion object {
+        private val IMAGE = ImageName("tomcat:8")
+    }
+
+    private val docker = InMemoryDockerImpl()
+
+    @BeforeEach
+    fun pullImage() {
+        docker.images.pull(IMAGE)
+    }
+
+    @AfterEach
+    fun close() {
+        docker.close()
+    }
+
+    @Test
+    @DisplayName("given a container, when going through its lifecycle, the status follows it")
+    fun statusTransitions() {
+        docker.containers.run {
+            val id = create(ContainerSpec(IMAGE).withName("app").withLabel("purpose", "test"))
+            assertEquals(CREATED, status(id))
+            start(id)
+            assertEquals(RUNNING, status(ContainerName("app")))
+            pause(id)
+            assertEquals(PAUSED, status(id))
+            assertThrows(IllegalStateException::class.java) { remove(id) }
+            unpause(id)
+            assertEquals(listOf(id), list(labels = mapOf("purpose" to "test")).map { it.id })
+            stop(id)
+            assertEquals(EXITED, status(id))
+            assertTrue(list().isEmpty())
+            assertEquals(1, list(includeAll = true).size)
+            remove(id)
+            assertThrows(ContainerNotFoundException::class.java) { status(id) }
+        }
+    }
+
+    @Test
+    @DisplayName("given an unknown image or a duplicated name, when creating a container, it fails")
+    fun invalidCreationsFail() {
+        docker.containers.create(ContainerSpec(IMAGE).withName("app"))
+        assertThrows(ImageNotFoundException::class.java) { docker.containers.create(ContainerSpec(ImageName("none:1"))) }
+        assertThrows(IllegalStateException::class.java) { docker.containers.create(ContainerSpec(IMAGE).withName("app")) }
+    }
+
+    @Test
+    @DisplayName("given a log script, when following the logs, entries are delivered and the log is done when the container stops")
+    fun scriptedLogsDelivered() {
+        docker.withLogScript(IMAGE, InMemoryLogScript()
+                .stdout("starting")
+                .stderr("warning", Duration.ofMillis(10))
+                .stdout("started", Duration.ofMillis(10)))
+        val id = docker.containers.create(ContainerSpec(IMAGE))
+        docker.containers.start(id)
+        val received = mutableListOf<String>()
+        val entriesDelivered = CountDownLatch(2)
+        val done = CountDownLatch(1)
+        docker.containers.logs(id, ContainerLogSpec(standarErrorIncluded = false)
+                .onLogEntry { synchronized(received) { received += it.text }; entriesDelivered.countDown() }
+                .onLogDone { done.countDown() })
+        assertTrue(entriesDelivered.await(5, SECONDS))
+        assertEquals(1, done.count)
+        docker.containers.stop(id)
+        assertTrue(done.await(5, SECONDS))
+        assertEquals(listOf("starting", "started"), received)
+    }
+
+    @Test
+    @DisplayName("given a log entry, when looking at its views, they share its bytes and its text is decoded only once")
+    fun logEntryViews() {
+        docker.withLogScript(IMAGE, InMemoryLogScript()
+                .stdout("server started")
+                .stdout("servidor iniciado ñ"))
+        val id = docker.containers.create(ContainerSpec(IMAGE))
+        docker.containers.start(id)
+        val entries = CopyOnWriteArrayList<ContainerLogEntryContext>()
+        val entriesDelivered = CountDownLatch(2)
+        docker.containers.logs(id, ContainerLogSpec().onLogEntry { entries += it; entriesDelivered.countDown() })
+        assertTrue(entriesDelivered.await(5, SECONDS))
+        docker.containers.stop(id)
+        val (ascii, nonAscii) = entries
+        assertTrue(ascii.buffer.isReadOnly)
+        assertEquals(ascii.bytes.size, ascii.buffer.remaining())
+        assertSame(ascii.text, ascii.text)
+        assertNotSame(ascii.text, ascii.chars)
+        assertEquals("server started", ascii.chars.toString())
+        assertEquals("started", ascii.chars.subSequence(7, 14).toString())
+        assertTrue(ascii.contains("started".toByteArray()))
+        assertFalse(ascii.contains("stopped".toByteArray()))
+        assertEquals("servidor iniciado ñ", nonAscii.text)
+        assertSame(nonAscii.text, nonAscii.chars)
+        assertEquals("servidor iniciado Ã±", nonAscii.text(ISO_8859_1))
+        assertTrue(nonAscii.contains("ñ".toByteArray(UTF_8)))
+    }
+
+    @Test
+    @DisplayName("given a latency for an operation, when the operation is executed, it takes at least that long")
+    fun latencySimulated() {
+        docker.withLatency(CONTAINER_CREATE, Duration.ofMillis(50))
+        val start = System.nanoTime()
+        docker.containers.create(ContainerSpec(IMAGE))
+        assertTrue(Duration.ofNanos(System.nanoTime() - start) >= Duration.ofMillis(50))
+    }
+
+    @Test
+    @DisplayName("given many threads, when creating, starting and removing containers concurrently, no container is lost")
+    fun concurrentLifecycles() {
+        val executor = Executors.newFixedThreadPool(8)
+        try {
+            val tasks = (1..200).map {
+                executor.submit {
+                    docker.containers.run {
+                        val id = create(ContainerSpec(IMAGE).withName("app-$it"))
+                        start(id)
+                        stop(id)
+                        remove(id)
+                    }
+                }
+            }
+            tasks.forEach { it.get(10, SECONDS) }
+        } finally {
+            executor.shutdown()
+        }
+        assertTrue(docker.containers.list(includeAll = true).isEmpty())
+    }
+
+    @Test
+    @DisplayName("given an events subscription, when containers go through their lifecycle, their events are delivered in order")
+    fun eventsDelivered() {
+        docker.containers.run {
+            val received = CopyOnWriteArrayList<ContainerEventType>()
+            val done = CountDownLatch(1)
+            val labelled = create(ContainerSpec(IMAGE).withLabel("purpose", "events"))
+            val other = create(ContainerSpec(IMAGE))
+            events(ContainerEventsSpec(labels = mapOf("purpose" to "events")).onEvent {
+                received += it.type
+                if (it.type == DESTROY) done.countDown()
+            }).use {
+                start(labelled)
+                start(other)
+                stop(labelled)
+                start(labelled)
+                remove(labelled, force = true)
+                assertTrue(done.await(5, SECONDS))
+            }
+            assertEquals(listOf(START, DIE, STOP, START, KILL, DIE, DESTROY), received)
+            assertTrue(CREATE !in received)
+        }
+    }
+
+    @Test
+    @DisplayName("given an events subscription filtered by type, when a container dies, only that event is delivered with its exit code")
+    fun eventsFilteredByType() {
+        docker.containers.run {
+            val id = create(ContainerSpec(IMAGE))
+            val exitCodes = CopyOnWriteArrayList<Int?>()
+            val died = CountDownLatch(1)
+            events(ContainerEventsSpec(id).withTypes(DIE).onEvent {
+                exitCodes += it.exitCode
+                died.countDown()
+            }).use {
+                start(id)
+                kill(id)
+                assertTrue(died.await(5, SECONDS))
+            }
+            assertEquals(listOf(InMemoryDockerContainersImpl.KILLED_EXIT_CODE), exitCodes)
+        }
+    }
+
+    @Test
+    @DisplayName("given an events handler that fails, when later events happen, they are still delivered")
+    fun eventsDeliveredAfterHandlerFailure() {
+        docker.containers.run {
+            val id = create(ContainerSpec(IMAGE))
+            val received = CopyOnWriteArrayList<ContainerEventType>()
+            val stopped = CountDownLatch(1)
+            events(ContainerEventsSpec(id).onEvent {
+                received += it.type
+                if (it.type == START) throw IllegalStateException("handler failure")
+                if (it.type == STOP) stopped.countDown()
+            }).use {
+                start(id)
+                stop(id)
+                assertTrue(stopped.await(5, SECONDS))
+            }
+            assertEquals(listOf(START, DIE, STOP), received)
+        }
+    }
+
+    @Test
+    @DisplayName("given events subscriptions, when docker ends the streams, only the ones still open are told with the error")
+    fun eventsEndedReported() {
+        val error = IllegalStateException("connection lost")
+        val ended = CopyOnWriteArrayList<Throwable?>()
+        val done = CountDownLatch(1)
+        val open = docker.containers.events(ContainerEventsSpec().onEventsDone { ended += it; done.countDown() })
+        docker.containers.events(ContainerEventsSpec().onEventsDone { ended += it }).close()
+        docker.endEventStreams(error)
+        assertTrue(done.await(5, SECONDS))
+        open.close()
+        assertEquals(listOf(error), ended)
+    }
+
+    @Test
+    @DisplayName("given an image with a health check, when a container runs long enough, it becomes healthy and the change is delivered")
+    fun healthCheckReported() {
+        docker.withHealthCheck(IMAGE, Duration.ofMillis(50))
+        docker.containers.run {
+            val id = create(ContainerSpec(IMAGE))
+            val statuses = CopyOnWriteArrayList<ContainerHealthStatus?>()
+            val healthy = CountDownLatch(1)
+            events(ContainerEventsSpec(id).withTypes(HEALTH_STATUS).onEvent {
+                statuses += it.healthStatus
+                if (it.healthStatus == HEALTHY) healthy.countDown()
+            }).use {
+                assertEquals(NONE, inspect(id).health)
+                start(id)
+                assertEquals(STARTING, inspect(id).health)
+                assertTrue(healthy.await(5, SECONDS))
+                assertEquals(HEALTHY, inspect(id).health)
+                health(id, UNHEALTHY)
+                assertEquals(UNHEALTHY, inspect(id).health)
+            }
+            assertEquals(HEALTHY, statuses.first())
+        }
+    }
+
+    @Test
+    @DisplayName("given an image without a health check, when a container runs, no health is reported")
+    fun noHealthCheckReported() {
+        docker.containers.run {
+            val id = create(ContainerSpec(IMAGE))
+            start(id)
+            assertEquals(NONE, inspect(id).health)
+        }
+    }
+}
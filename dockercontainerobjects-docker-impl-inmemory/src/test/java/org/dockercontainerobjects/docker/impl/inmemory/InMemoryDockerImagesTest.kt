@@ -0,0 +1,87 @@
+package org.dockercontainerobjects.docker.impl.inmemory
+
+import org.dockercontainerobjects.docker.ContainerSpec
+import org.dockercontainerobjects.docker.ImageId
+import org.dockercontainerobjects.docker.ImageName
+import org.dockercontainerobjects.docker.ImageNotFoundException
+import org.dockercontainerobjects.docker.ImageSpec
+import org.dockercontainerobjects.docker.impl.inmemory.InMemoryDockerOperation.IMAGE_LIST
+import org.junit.jupiter.api.AfterEach
+import org.junit.jupiter.api.Assertions.assertEquals
+import org.junit.jupiter.api.Assertions.assertFalse
+import org.junit.jupiter.api.Assertions.assertThrows
+import org.junit.jupiter.api.Assertions.assertTimeoutPreemptively
+import org.junit.jupiter.api.Assertions.assertTrue
+import org.junit.jupiter.api.DisplayName
+import org.junit.jupiter.api.Tag
+import org.junit.jupiter.api.Test
+import java.time.Duration
+
+@DisplayName("In memory docker images tests")
+@Tag("util")
+class InMemoryDockerImagesTest {
+
+    private val docker = InMemoryDockerImpl()
+
+    @AfterEach
+    fun close() {
+        docker.close()
+    }
+
+    @Test
+    @DisplayName("given a pulled image, when located by name, id or partial id, the image is found")
+    fun pulledImageLocated() {
+        docker.images.pull(ImageName("tomcat"))
+        val info = docker.images.inspect(ImageName("tomcat"))
+        assertEquals(info.id, docker.images.getId(ImageName("tomcat:latest")))
+        assertTrue(docker.images.isAvailable(info.id))
+        assertTrue(docker.images.isAvailable(ImageId(info.id.hash.substring(0, 12))))
+        assertFalse(docker.images.isAvailable(ImageName("tomcat:8")))
+    }
+
+    @Test
+    @DisplayName("given a missing image, when located by name or id, images are not listed")
+    fun missingImageNotListed() {
+        docker.images.pull(ImageName("tomcat"))
+        // listing images would take longer than the test is allowed to
+        docker.withLatency(IMAGE_LIST, Duration.ofSeconds(30))
+        assertTimeoutPreemptively(Duration.ofSeconds(5)) {
+            assertFalse(docker.images.isAvailable(ImageId("0123456789ab")))
+            assertFalse(docker.images.isAvailable(ImageName("tomcat:8")))
+            assertThrows(ImageNotFoundException::class.java) { docker.images.info(ImageId("0123456789ab")) }
+        }
+    }
+
+    @Test
+    @DisplayName("given an image built with labels, when listed by label, only that image is returned")
+    fun builtImageListedByLabel() {
+        docker.images.pull(ImageName("tomcat:8"))
+        val id = docker.images.build(
+                ImageSpec("FROM tomcat:8".toByteArray())
+                        .withTag(ImageName("app:1"))
+                        .withLabel("purpose", "test"))
+        val images = docker.images.list(labels = mapOf("purpose" to "test"))
+        assertEquals(listOf(id), images.map { it.id })
+        assertEquals(listOf(ImageName("app:1")), images.first().tags)
+        assertEquals(2, docker.images.list().size)
+    }
+
+    @Test
+    @DisplayName("given a tag built twice, when located, the tag points to the last image")
+    fun tagMovedToLastBuild() {
+        val first = docker.images.build(ImageSpec(byteArrayOf(1)).withTag(ImageName("app:1")))
+        val second = docker.images.build(ImageSpec(byteArrayOf(2)).withTag(ImageName("app:1")))
+        assertEquals(second, docker.images.getId(ImageName("app:1")))
+        assertTrue(docker.images.inspect(first).tags.isEmpty())
+    }
+
+    @Test
+    @DisplayName("given an image used by a container, when removed, it fails unless forced")
+    fun imageInUseRemoved() {
+        docker.images.pull(ImageName("tomcat:8"))
+        docker.containers.create(ContainerSpec(ImageName("tomcat:8")))
+        assertThrows(IllegalStateException::class.java) { docker.images.remove(ImageName("tomcat:8")) }
+        docker.images.remove(ImageName("tomcat:8"), force = true)
+        assertThrows(ImageNotFoundException::class.java) { docker.images.inspect(ImageName("tomcat:8")) }
+    }
+}
@@ -0,0 +1,16 @@
+package org.dockercontainerobjects.micrometer
+
+interface ContainerObjectsEnvironmentMXBean {
+
+    val liveContainerObjects: Int
+    val containerCreates: Long
+    val containerRemoves: Long
+    val containerRestarts: Long
+    val imagePulls: Long
+    val imageBuilds: Long
+    val logEntriesDelivered: Long
+    val readinessChecks: Long
+    val failedReadinessChecks: Long
+
+    fun timingsSummary(): String
+}
@@ -0,0 +1,47 @@
+package org.dockercontainerobjects.micrometer
+
+import org.dockercontainerobjects.ContainerObjectLifecycleOperation
+import org.dockercontainerobjects.ContainerObjectLifecycleOperation.CONTAINER_CREATE
+import org.dockercontainerobjects.ContainerObjectLifecycleOperation.CONTAINER_REMOVE
+import org.dockercontainerobjects.ContainerObjectLifecycleOperation.CONTAINER_RESTART
+import org.dockercontainerobjects.ContainerObjectLifecycleOperation.IMAGE_BUILD
+import org.dockercontainerobjects.ContainerObjectLifecycleOperation.IMAGE_PULL
+import org.dockercontainerobjects.ContainerObjectsEnvironment
+import java.util.EnumMap
+import java.util.concurrent.atomic.LongAdder
+
+class ContainerObjectsEnvironmentStats internal constructor(
+        private val env: ContainerObjectsEnvironment
+): ContainerObjectsEnvironmentMXBean {
+
+    private val operations = EnumMap<ContainerObjectLifecycleOperation, LongAdder>(ContainerObjectLifecycleOperation::class.java)
+            .also { map -> ContainerObjectLifecycleOperation.values().forEach { map[it] = LongAdder() } }
+    private val logEntries = LongAdder()
+    private val checks = LongAdder()
+    private val failedChecks = LongAdder()
+
+    override val liveContainerObjects get() = env.containerObjectsCount
+    override val containerCreates get() = operations[CONTAINER_CREATE]!!.sum()
+    override val containerRemoves get() = operations[CONTAINER_REMOVE]!!.sum()
+    override val containerRestarts get() = operations[CONTAINER_RESTART]!!.sum()
+    override val imagePulls get() = operations[IMAGE_PULL]!!.sum()
+    override val imageBuilds get() = operations[IMAGE_BUILD]!!.sum()
+    override val logEntriesDelivered get() = logEntries.sum()
+    override val readinessChecks get() = checks.sum()
+    override val failedReadinessChecks get() = failedChecks.sum()
+
+    override fun timingsSummary() = env.metrics.summary()
+
+    internal fun onOperation(operation: ContainerObjectLifecycleOperation) {
+        operations[operation]!!.increment()
+    }
+
+    internal fun onLogEntryDelivered() {
+        logEntries.increment()
+    }
+
+    internal fun onReadinessCheck(ready: Boolean) {
+        checks.increment()
+        if (!ready) failedChecks.increment()
+    }
+}
@@ -0,0 +1,84 @@
+package org.dockercontainerobjects.micrometer
+
+import io.micrometer.core.instrument.Counter
+import io.micrometer.core.instrument.Gauge
+import io.micrometer.core.instrument.Meter
+import io.micrometer.core.instrument.MeterRegistry
+import io.micrometer.core.instrument.Tags
+import io.micrometer.core.instrument.Timer
+import org.dockercontainerobjects.ContainerObjectLifecycleOperation
+import org.dockercontainerobjects.ContainerObjectsEnvironment
+import org.dockercontainerobjects.ContainerObjectsMetricsListener
+import java.time.Duration
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.ConcurrentLinkedQueue
+import javax.management.ObjectName
+
+internal class EnvironmentPublisher(
+        env: ContainerObjectsEnvironment,
+        id: Int,
+        private val registry: MeterRegistry
+): ContainerObjectsMetricsListener, AutoCloseable {
+
+    companion object {
+        const val METER_OPERATIONS = "dockercontainerobjects.operations"
+        const val METER_LOG_ENTRIES = "dockercontainerobjects.log.entries"
+        const val METER_READINESS_CHECKS = "dockercontainerobjects.readiness.checks"
+        const val METER_LIVE_CONTAINERS = "dockercontainerobjects.containers.live"
+
+        const val TAG_ENVIRONMENT = "environment"
+        const val TAG_CONTAINER = "container"
+        const val TAG_OPERATION = "operation"
+        const val TAG_READY = "ready"
+    }
+
+    private val environmentTags = Tags.of(TAG_ENVIRONMENT, id.toString())
+
+    // meters are resolved once per container class, log entries may be delivered at a high rate
+    private val timers: MutableMap<Pair<Class<*>, ContainerObjectLifecycleOperation>, Timer> = ConcurrentHashMap()
+    private val logEntries: MutableMap<Class<*>, Counter> = ConcurrentHashMap()
+    private val readinessChecks: MutableMap<Pair<Class<*>, Boolean>, Counter> = ConcurrentHashMap()
+    // every meter registered for the environment, removed from the registry when it is closed
+    private val meters = ConcurrentLinkedQueue<Meter>()
+
+    val stats = ContainerObjectsEnvironmentStats(env)
+    var objectName: ObjectName? = null
+
+    init {
+        Gauge.builder(METER_LIVE_CONTAINERS, env) { it.containerObjectsCount.toDouble() }
+                .tags(environmentTags)
+                .register(registry)
+                .registered()
+    }
+
+    override fun onOperation(containerType: Class<*>, operation: ContainerObjectLifecycleOperation, duration: Duration) {
+        timers.computeIfAbsent(containerType to operation) {
+            registry.timer(METER_OPERATIONS, containerTags(containerType).and(TAG_OPERATION, operation.name.toLowerCase()))
+                    .registered()
+        }.record(duration)
+        stats.onOperation(operation)
+    }
+
+    override fun onLogEntryDelivered(containerType: Class<*>) {
+        logEntries.computeIfAbsent(containerType) { registry.counter(METER_LOG_ENTRIES, containerTags(it)).registered() }
+                .increment()
+        stats.onLogEntryDelivered()
+    }
+
+    override fun onReadinessCheck(containerType: Class<*>, ready: Boolean) {
+        readinessChecks.computeIfAbsent(containerType to ready) {
+            registry.counter(METER_READINESS_CHECKS, containerTags(containerType).and(TAG_READY, ready.toString()))
+                    .registered()
+        }.increment()
+        stats.onReadinessCheck(ready)
+    }
+
+    override fun close() {
+        generateSequence { meters.poll() }.forEach { registry.remove(it) }
+    }
+
+    private fun <M: Meter> M.registered(): M = this.also { meters += it }
+
+    private fun containerTags(containerType: Class<*>): Tags =
+            environmentTags.and(TAG_CONTAINER, containerType.name)
+}
@@ -0,0 +1,66 @@
+package org.dockercontainerobjects.micrometer
+
+import io.micrometer.core.instrument.MeterRegistry
+import io.micrometer.core.instrument.Metrics
+import org.dockercontainerobjects.ContainerObjectsEnvironment
+import org.dockercontainerobjects.extensions.BaseContainerObjectsExtension
+import org.dockercontainerobjects.util.debug
+import org.dockercontainerobjects.util.loggerFor
+import org.dockercontainerobjects.util.warn
+import java.lang.management.ManagementFactory
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.atomic.AtomicInteger
+import javax.management.JMException
+import javax.management.ObjectName
+
+class MetricsPublisherExtension: BaseContainerObjectsExtension() {
+
+    companion object {
+        const val PROPERTY_JMX_ENABLED = "org.dockercontainerobjects.jmx.enabled"
+        const val JMX_OBJECT_NAME_TEMPLATE = "org.dockercontainerobjects:type=ContainerObjectsEnvironment,id=%d"
+
+        private val l = loggerFor<MetricsPublisherExtension>()
+        private val environmentCounter = AtomicInteger()
+
+        /** registry where the meters of new environments are published, the global composite registry by default */
+        @JvmStatic
+        var registry: MeterRegistry = Metrics.globalRegistry
+    }
+
+    private val publishers: MutableMap<ContainerObjectsEnvironment, EnvironmentPublisher> = ConcurrentHashMap()
+
+    override fun setupEnvironment(env: ContainerObjectsEnvironment) {
+        val id = environmentCounter.incrementAndGet()
+        val publisher = EnvironmentPublisher(env, id, registry)
+        if (System.getProperty(PROPERTY_JMX_ENABLED, "true").toBoolean())
+            publisher.objectName = registerMBean(publisher.stats, id)
+        env.metrics.addListener(publisher)
+        publishers[env] = publisher
+    }
+
+    override fun teardownEnvironment(env: ContainerObjectsEnvironment) {
+        val publisher = publishers.remove(env) ?: return
+        env.metrics.removeListener(publisher)
+        publisher.close()
+        publisher.objectName?.let { unregisterMBean(it) }
+    }
+
+    private fun registerMBean(stats: ContainerObjectsEnvironmentMXBean, id: Int): ObjectName? =
+            try {
+                val name = ObjectName(JMX_OBJECT_NAME_TEMPLATE.format(id))
+                ManagementFactory.getPlatformMBeanServer().registerMBean(stats, name)
+                l.debug { "environment metrics registered in JMX as '$name'" }
+                name
+            } catch (e: JMException) {
+                l.warn(e)
+                null
+            }
+
+    private fun unregisterMBean(name: ObjectName) {
+        try {
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean(name)
+        } catch (e: JMException) {
+            l.warn(e)
+        }
+    }
+}
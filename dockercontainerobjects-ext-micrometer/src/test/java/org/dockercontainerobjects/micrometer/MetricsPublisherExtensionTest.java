@@ -0,0 +1,123 @@
+package org.dockercontainerobjects.micrometer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.lang.management.ManagementFactory;
+import java.net.Proxy;
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import org.dockercontainerobjects.ContainerObjectsEnvironment;
+import org.dockercontainerobjects.ContainerObjectsEnvironmentFactory;
+import org.dockercontainerobjects.ContainerObjectsManager;
+import org.dockercontainerobjects.annotations.OnLogEntry;
+import org.dockercontainerobjects.annotations.RegistryImage;
+import org.dockercontainerobjects.docker.ImageName;
+import org.dockercontainerobjects.docker.impl.inmemory.InMemoryDockerImpl;
+import org.dockercontainerobjects.docker.impl.inmemory.InMemoryLogScript;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("Metrics publisher extension tests")
+@Tag("util")
+public class MetricsPublisherExtensionTest {
+
+    private MeterRegistry registry;
+    private InMemoryDockerImpl docker;
+
+    @BeforeEach
+    void createRegistry() {
+        registry = new SimpleMeterRegistry();
+        MetricsPublisherExtension.setRegistry(registry);
+        docker = new InMemoryDockerImpl(Duration.ZERO)
+                .withLogScript(new ImageName("inmemory/logging:latest"), new InMemoryLogScript()
+                        .stdout("first", Duration.ZERO)
+                        .stdout("second", Duration.ZERO));
+    }
+
+    @AfterEach
+    void restoreRegistry() {
+        MetricsPublisherExtension.setRegistry(Metrics.globalRegistry);
+    }
+
+    @Test
+    @DisplayName("Lifecycle operations and log entries should be published as meters")
+    void metersPublished() throws Exception {
+        try (ContainerObjectsEnvironment env = ContainerObjectsEnvironmentFactory.newEnvironment(docker, Proxy.NO_PROXY)) {
+            ContainerObjectsManager manager = env.getManager();
+            LoggingContainer instance = manager.create(LoggingContainer.class);
+            assertEquals(1.0, registry.get(EnvironmentPublisher.METER_LIVE_CONTAINERS).gauge().value());
+            assertTrue(instance.received.await(5, TimeUnit.SECONDS));
+            manager.destroy(instance);
+
+            assertEquals(0.0, registry.get(EnvironmentPublisher.METER_LIVE_CONTAINERS).gauge().value());
+            assertEquals(1, registry.get(EnvironmentPublisher.METER_OPERATIONS)
+                    .tag(EnvironmentPublisher.TAG_CONTAINER, LoggingContainer.class.getName())
+                    .tag(EnvironmentPublisher.TAG_OPERATION, "container_create")
+                    .timer().count());
+            assertEquals(1, registry.get(EnvironmentPublisher.METER_OPERATIONS)
+                    .tag(EnvironmentPublisher.TAG_OPERATION, "container_remove")
+                    .timer().count());
+            assertEquals(2.0, registry.get(EnvironmentPublisher.METER_LOG_ENTRIES).counter().count());
+        }
+    }
+
+    @Test
+    @DisplayName("Meters of an environment should be removed from the registry when it is closed")
+    void metersRemoved() throws Exception {
+        try (ContainerObjectsEnvironment env = ContainerObjectsEnvironmentFactory.newEnvironment(docker, Proxy.NO_PROXY)) {
+            ContainerObjectsManager manager = env.getManager();
+            LoggingContainer instance = manager.create(LoggingContainer.class);
+            assertTrue(instance.received.await(5, TimeUnit.SECONDS));
+            manager.destroy(instance);
+            assertFalse(registry.getMeters().isEmpty());
+        }
+        assertTrue(registry.getMeters().isEmpty());
+    }
+
+    @Test
+    @DisplayName("Environment counters should be available through JMX while the environment is open")
+    void mbeanRegistered() throws Exception {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        ObjectName query = new ObjectName("org.dockercontainerobjects:type=ContainerObjectsEnvironment,*");
+        Set<ObjectName> before = server.queryNames(query, null);
+        ObjectName name;
+        try (ContainerObjectsEnvironment env = ContainerObjectsEnvironmentFactory.newEnvironment(docker, Proxy.NO_PROXY)) {
+            Set<ObjectName> names = server.queryNames(query, null);
+            names.removeAll(before);
+            assertEquals(1, names.size());
+            name = names.iterator().next();
+
+            ContainerObjectsManager manager = env.getManager();
+            manager.destroy(manager.create(LoggingContainer.class));
+            assertEquals(1L, server.getAttribute(name, "ContainerCreates"));
+            assertEquals(1L, server.getAttribute(name, "ImagePulls"));
+            assertEquals(0, server.getAttribute(name, "LiveContainerObjects"));
+            assertNotNull(server.invoke(name, "timingsSummary", null, null));
+        }
+        assertFalse(server.isRegistered(name));
+    }
+
+    @RegistryImage("inmemory/logging:latest")
+    public static class LoggingContainer {
+
+        final CountDownLatch received = new CountDownLatch(2);
+
+        @OnLogEntry
+        void onLogEntry(String entry) {
+            received.countDown();
+        }
+    }
+}
@@ -1,20 +1,55 @@
 package org.dockercontainerobjects.junit.jupiter
 
 import org.dockercontainerobjects.ContainerObjectsClassEnhancer
+import org.dockercontainerobjects.ContainerObjectsEnvironment
 import org.dockercontainerobjects.ContainerObjectsEnvironmentFactory
 import org.junit.jupiter.api.extension.AfterAllCallback
 import org.junit.jupiter.api.extension.AfterEachCallback
 import org.junit.jupiter.api.extension.BeforeAllCallback
 import org.junit.jupiter.api.extension.BeforeEachCallback
 import org.junit.jupiter.api.extension.ExtensionContext
+import org.junit.jupiter.api.extension.ExtensionContext.Store.CloseableResource
+import java.util.function.Supplier
 
-class DockerContainerObjectsExtension: BeforeAllCallback, BeforeEachCallback, AfterEachCallback, AfterAllCallback {
+/**
+ * The environment shared by the run is created by [environmentFactory] of the first test class that uses the extension.
+ */
+class DockerContainerObjectsExtension @JvmOverloads constructor(
+        private val environmentFactory: Supplier<ContainerObjectsEnvironment> = DEFAULT_ENVIRONMENT_FACTORY
+): BeforeAllCallback, BeforeEachCallback, AfterEachCallback, AfterAllCallback {
+
+    companion object {
+        private val NAMESPACE = ExtensionContext.Namespace.create(DockerContainerObjectsExtension::class.java)
+        private const val ENVIRONMENT_KEY = "environment"
+        private val DEFAULT_ENVIRONMENT_FACTORY = Supplier { ContainerObjectsEnvironmentFactory.newEnvironment() }
+
+        /**
+         * Returns the environment shared by all test classes in the run.
+         * It is created on first use, and closed by JUnit once all tests have finished.
+         */
+        @JvmStatic
+        fun environment(context: ExtensionContext): ContainerObjectsEnvironment =
+                environment(context, DEFAULT_ENVIRONMENT_FACTORY)
+
+        private fun environment(context: ExtensionContext, factory: Supplier<ContainerObjectsEnvironment>) =
+            context.root.getStore(NAMESPACE)
+                    .getOrComputeIfAbsent(
+                            ENVIRONMENT_KEY,
+                            { EnvironmentResource(factory.get()) },
+                            EnvironmentResource::class.java)
+                    .environment
+    }
+
+    private class EnvironmentResource(val environment: ContainerObjectsEnvironment): CloseableResource {
+
+        override fun close() = environment.close()
+    }
 
     lateinit var enhancer: ContainerObjectsClassEnhancer
         private set
 
     override fun beforeAll(context: ExtensionContext) {
-        enhancer = ContainerObjectsEnvironmentFactory.newEnvironment().enhancer
+        enhancer = environment(context, environmentFactory).enhancer
         enhancer.setupClass(context.requiredTestClass)
     }
 
@@ -28,7 +63,5 @@ class DockerContainerObjectsExtension: BeforeAllCallback, BeforeEachCallback, Af
 
     override fun afterAll(context: ExtensionContext) {
         enhancer.teardownClass(context.requiredTestClass)
-        enhancer.close()
     }
 }
-
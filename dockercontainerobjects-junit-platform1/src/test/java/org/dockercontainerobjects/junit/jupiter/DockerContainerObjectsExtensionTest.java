@@ -0,0 +1,122 @@
+package org.dockercontainerobjects.junit.jupiter;
+
+import static java.util.Arrays.asList;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.platform.engine.discovery.DiscoverySelectors.selectClass;
+import static org.junit.platform.launcher.core.LauncherDiscoveryRequestBuilder.request;
+
+import java.net.Proxy;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Supplier;
+import javax.inject.Inject;
+import org.dockercontainerobjects.ContainerObjectsEnvironment;
+import org.dockercontainerobjects.annotations.ContainerObject;
+import org.dockercontainerobjects.annotations.RegistryImage;
+import org.dockercontainerobjects.docker.impl.inmemory.InMemoryDockerImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ConditionEvaluationResult;
+import org.junit.jupiter.api.extension.ExecutionCondition;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.junit.platform.launcher.core.LauncherFactory;
+import org.junit.platform.launcher.listeners.SummaryGeneratingListener;
+
+@DisplayName("JUnit 5 extension sharing an environment across test classes tests")
+@Tag("util")
+public class DockerContainerObjectsExtensionTest {
+
+    private static final String LAUNCHED = "org.dockercontainerobjects.junit.jupiter.test.launched";
+
+    private static final List<ContainerObjectsEnvironment> created = new CopyOnWriteArrayList<>();
+    private static final List<ContainerObjectsEnvironment> used = new CopyOnWriteArrayList<>();
+
+    private static final Supplier<ContainerObjectsEnvironment> ENVIRONMENT_FACTORY = () -> {
+        ContainerObjectsEnvironment env = new ContainerObjectsEnvironment(new InMemoryDockerImpl(Duration.ZERO), Proxy.NO_PROXY);
+        created.add(env);
+        return env;
+    };
+
+    @BeforeEach
+    void clear() {
+        created.clear();
+        used.clear();
+    }
+
+    @Test
+    @DisplayName("Test classes of a run should share one environment, closed once all of them have finished")
+    void environmentSharedAndClosedOnce() {
+        SummaryGeneratingListener listener = new SummaryGeneratingListener();
+        LauncherFactory.create().execute(request()
+                .selectors(selectClass(FirstTestClass.class), selectClass(SecondTestClass.class))
+                .configurationParameter(LAUNCHED, "true")
+                .build(), listener);
+
+        assertEquals(2, listener.getSummary().getTestsSucceededCount());
+        assertEquals(1, created.size());
+        ContainerObjectsEnvironment env = created.get(0);
+        assertEquals(asList(env, env), used);
+        assertEquals(0, env.getContainerObjectsCount());
+        assertTrue(env.getExecutor().isShutdown());
+    }
+
+    // the test classes below are only run by the launcher of the test above
+    static class LaunchedOnly implements ExecutionCondition {
+
+        @Override
+        public ConditionEvaluationResult evaluateExecutionCondition(ExtensionContext context) {
+            return context.getConfigurationParameter(LAUNCHED).isPresent() ?
+                    ConditionEvaluationResult.enabled("launched by the extension test") :
+                    ConditionEvaluationResult.disabled("only launched by the extension test");
+        }
+    }
+
+    @ExtendWith(LaunchedOnly.class)
+    public static class FirstTestClass {
+
+        @RegisterExtension
+        static final DockerContainerObjectsExtension extension = new DockerContainerObjectsExtension(ENVIRONMENT_FACTORY);
+
+        @ContainerObject
+        static SharedContainer container;
+
+        @Test
+        void containerCreated() {
+            assertNotNull(container);
+            used.add(container.environment);
+        }
+    }
+
+    @ExtendWith(LaunchedOnly.class)
+    public static class SecondTestClass {
+
+        @RegisterExtension
+        static final DockerContainerObjectsExtension extension = new DockerContainerObjectsExtension(ENVIRONMENT_FACTORY);
+
+        @ContainerObject
+        static SharedContainer container;
+
+        @Test
+        void containerCreated() {
+            assertNotNull(container);
+            // the environment is still open after the previous test class
+            assertFalse(container.environment.getExecutor().isShutdown());
+            used.add(container.environment);
+        }
+    }
+
+    @RegistryImage("inmemory/shared:latest")
+    public static class SharedContainer {
+
+        @Inject
+        ContainerObjectsEnvironment environment;
+    }
+}